@@ -17,5 +17,34 @@ public @interface Instrumented {
     String name() default "";
     double errorThreshold() default Instrumentor.NO_THRESHOLD_DEFINED;
 
+    /**
+     * track calls against a {@link LatencyObjective} with this threshold,
+     * calls are untracked by default
+     */
+    long latencyThresholdMillis() default Instrumentor.NO_LATENCY_THRESHOLD_DEFINED;
+
+    /**
+     * the fraction of calls that should be within {@link #latencyThresholdMillis()}
+     */
+    double latencyTarget() default 0.99;
+
+    /**
+     * interrupt calls still running after this long, and fail them with a
+     * {@link java.util.concurrent.TimeoutException}, calls have no deadline by default
+     */
+    long timeoutMillis() default Instrumentor.NO_TIMEOUT_DEFINED;
+
+    /**
+     * retry failed calls up to this many attempts in total, with the defaults
+     * from {@link RetryPolicy}, calls aren't retried by default.
+     * A {@link #timeoutMillis()} bounds all the attempts together.
+     */
+    int maxAttempts() default 1;
+
+    /**
+     * the backoff ceiling for the first retry, doubling for each retry after
+     */
+    long retryBackoffMillis() default 100;
+
 
 }
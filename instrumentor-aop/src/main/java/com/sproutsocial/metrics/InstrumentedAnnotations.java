@@ -1,13 +1,23 @@
 package com.sproutsocial.metrics;
 
+import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
 import java.util.function.Predicate;
 
+import com.codahale.metrics.Clock;
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.health.HealthCheckRegistry;
 import com.google.inject.AbstractModule;
+import com.google.inject.TypeLiteral;
 import com.google.inject.matcher.AbstractMatcher;
+import com.google.inject.matcher.Matcher;
 import com.google.inject.matcher.Matchers;
+import com.google.inject.spi.TypeEncounter;
+import com.google.inject.spi.TypeListener;
 
 /**
  * Created on 10/17/14
@@ -36,7 +46,7 @@ public class InstrumentedAnnotations extends AbstractModule {
 
     private final MetricRegistry metricRegistry;
     private final HealthCheckRegistry healthCheckRegistry;
-    private final Predicate<Throwable> exceptionFilter;
+    private final Instrumentor instrumentor;
 
     public static Builder builder() {
         return new Builder();
@@ -45,15 +55,82 @@ public class InstrumentedAnnotations extends AbstractModule {
     private InstrumentedAnnotations(
             MetricRegistry metricRegistry,
             HealthCheckRegistry healthCheckRegistry,
-            Predicate<Throwable> exceptionFilter
+            Instrumentor instrumentor
     ) {
         this.metricRegistry = metricRegistry;
         this.healthCheckRegistry = healthCheckRegistry;
-        this.exceptionFilter = exceptionFilter;
+        this.instrumentor = instrumentor;
     }
 
     public InstrumentedAnnotations() {
-        this(new MetricRegistry(), new HealthCheckRegistry(), any -> true);
+        this(new MetricRegistry(), new HealthCheckRegistry());
+    }
+
+    private InstrumentedAnnotations(MetricRegistry metricRegistry, HealthCheckRegistry healthCheckRegistry) {
+        this(
+                metricRegistry,
+                healthCheckRegistry,
+                new Instrumentor(metricRegistry, healthCheckRegistry, any -> true)
+        );
+    }
+
+    /**
+     * @return the call tree, if profiling was enabled with {@link Builder#callTreeProfiling(boolean)}
+     */
+    public Optional<CallTreeProfiler> getCallTreeProfiler() {
+        return instrumentor.getCallTreeProfiler();
+    }
+
+    /**
+     * @see Instrumentor#getSlowCalls(String)
+     */
+    public List<SlowCall> getSlowCalls(String name) {
+        return instrumentor.getSlowCalls(name);
+    }
+
+    /**
+     * Instruments {@code target}, which wasn't created by Guice, following the same
+     * annotations as the classes this module intercepts
+     *
+     * @see InstrumentedProxies#proxy(Instrumentor, Class, Object)
+     */
+    public <T> T proxy(Class<T> iface, T target) {
+        return InstrumentedProxies.proxy(instrumentor, iface, target);
+    }
+
+    /**
+     * @see Instrumentor#enable(String)
+     */
+    public void enable(String prefix) {
+        instrumentor.enable(prefix);
+    }
+
+    /**
+     * @see Instrumentor#disable(String)
+     */
+    public void disable(String prefix) {
+        instrumentor.disable(prefix);
+    }
+
+    /**
+     * @see Instrumentor#sample(String, double)
+     */
+    public void sample(String prefix, double fraction) {
+        instrumentor.sample(prefix, fraction);
+    }
+
+    /**
+     * @see Instrumentor#clearSampling(String)
+     */
+    public void clearSampling(String prefix) {
+        instrumentor.clearSampling(prefix);
+    }
+
+    /**
+     * @see Instrumentor#getSampleRate(String)
+     */
+    public double getSampleRate(String name) {
+        return instrumentor.getSampleRate(name);
     }
 
     @Override
@@ -68,35 +145,71 @@ public class InstrumentedAnnotations extends AbstractModule {
     }
 
     private void bindInterceptors() {
-        Instrumentor instrumentor = new Instrumentor(
-                metricRegistry,
-                healthCheckRegistry,
-                exceptionFilter
+        final InstrumentingInterceptor classInterceptor = InstrumentingInterceptor.ofClasses(instrumentor);
+        final Matcher<AnnotatedElement> instrumentedClasses = Matchers.annotatedWith(Instrumented.class);
+        final Matcher<Method> classMethods = new NoSyntheticMethodMatcher().and(
+                Matchers.not(Matchers.annotatedWith(Instrumented.class)) // in case of both, defer to method annotation
         );
+        bindInterceptor(instrumentedClasses, classMethods, classInterceptor);
+        bindListener(Matchers.any(), new Resolver(instrumentedClasses, classMethods, classInterceptor));
 
-        bindInterceptor(
-                Matchers.annotatedWith(Instrumented.class),
-                new NoSyntheticMethodMatcher().and(
-                    Matchers.not(Matchers.annotatedWith(Instrumented.class)) // in case of both, defer to method annotation
-                ),
-                InstrumentingInterceptor.ofClasses(instrumentor)
+        final InstrumentingInterceptor methodInterceptor = InstrumentingInterceptor.ofMethods(instrumentor);
+        final Matcher<Object> anyClass = Matchers.any();
+        final Matcher<Method> instrumentedMethods = new NoSyntheticMethodMatcher().and(
+                Matchers.annotatedWith(Instrumented.class)
         );
+        bindInterceptor(anyClass, instrumentedMethods, methodInterceptor);
+        bindListener(Matchers.any(), new Resolver(anyClass, instrumentedMethods, methodInterceptor));
+    }
 
-        bindInterceptor(
-                Matchers.any(),
-                new NoSyntheticMethodMatcher().and(
-                    Matchers.annotatedWith(Instrumented.class)
-                ),
-                InstrumentingInterceptor.ofMethods(instrumentor)
-        );
+    /**
+     * Resolves how an interceptor will instrument a type's methods when Guice first
+     * sees the type, so a misplaced annotation, like a {@link Sized} on something that
+     * can't be sized, fails creating the injector rather than every call to the method.
+     */
+    private static class Resolver implements TypeListener {
+        private final Matcher<? super Class<?>> classMatcher;
+        private final Matcher<? super Method> methodMatcher;
+        private final InstrumentingInterceptor interceptor;
+
+        Resolver(
+                Matcher<? super Class<?>> classMatcher,
+                Matcher<? super Method> methodMatcher,
+                InstrumentingInterceptor interceptor
+        ) {
+            this.classMatcher = classMatcher;
+            this.methodMatcher = methodMatcher;
+            this.interceptor = interceptor;
+        }
 
+        @Override
+        public <I> void hear(TypeLiteral<I> type, TypeEncounter<I> encounter) {
+            final Class<?> rawType = type.getRawType();
+            if (!classMatcher.matches(rawType)) {
+                return;
+            }
+            for (Class<?> declaring = rawType; declaring != null && declaring != Object.class; declaring = declaring.getSuperclass()) {
+                for (Method method : declaring.getDeclaredMethods()) {
+                    final int modifiers = method.getModifiers();
+                    if (Modifier.isPrivate(modifiers) || Modifier.isStatic(modifiers) || !methodMatcher.matches(method)) {
+                        continue;
+                    }
+                    try {
+                        interceptor.resolve(method);
+                    } catch (IllegalArgumentException e) {
+                        encounter.addError(e);
+                    }
+                }
+            }
+        }
     }
 
     public static class Builder {
 
         private MetricRegistry metricRegistry = new MetricRegistry();
         private HealthCheckRegistry healthCheckRegistry = new HealthCheckRegistry();
-        private Predicate<Throwable> exceptionFilter = ExceptionFilters.markAllExceptions();
+        private final Instrumentor.Builder instrumentor = Instrumentor.builder()
+                .exceptionFilter(ExceptionFilters.markAllExceptions());
 
         private Builder(){}
 
@@ -110,13 +223,108 @@ public class InstrumentedAnnotations extends AbstractModule {
             return this;
         }
 
+        /**
+         * @see Instrumentor.Builder#backend(MetricsBackend)
+         */
+        public Builder backend(MetricsBackend backend) {
+            instrumentor.backend(backend);
+            return this;
+        }
+
+        /**
+         * @see Instrumentor.Builder#clock(Clock)
+         */
+        public Builder clock(Clock clock) {
+            instrumentor.clock(clock);
+            return this;
+        }
+
         public Builder exceptionFilter(Predicate<Throwable> exceptionFilter) {
-            this.exceptionFilter = exceptionFilter;
+            instrumentor.exceptionFilter(exceptionFilter);
+            return this;
+        }
+
+        /**
+         * @see Instrumentor.Builder#rollupByClass(boolean)
+         */
+        public Builder rollupByClass(boolean rollupByClass) {
+            instrumentor.rollupByClass(rollupByClass);
+            return this;
+        }
+
+        /**
+         * @see Instrumentor.Builder#rollupPrefixes(String...)
+         */
+        public Builder rollupPrefixes(String... prefixes) {
+            instrumentor.rollupPrefixes(prefixes);
+            return this;
+        }
+
+        /**
+         * @see Instrumentor.Builder#callTreeProfiling(boolean)
+         */
+        public Builder callTreeProfiling(boolean callTreeProfiling) {
+            instrumentor.callTreeProfiling(callTreeProfiling);
+            return this;
+        }
+
+        /**
+         * @see Instrumentor.Builder#slowCalls(int)
+         */
+        public Builder slowCalls(int count) {
+            instrumentor.slowCalls(count);
+            return this;
+        }
+
+        /**
+         * @see Instrumentor.Builder#slowCalls(int, Duration)
+         */
+        public Builder slowCalls(int count, Duration window) {
+            instrumentor.slowCalls(count, window);
+            return this;
+        }
+
+        /**
+         * @see Instrumentor.Builder#errorRateWindow(Duration)
+         */
+        public Builder errorRateWindow(Duration window) {
+            instrumentor.errorRateWindow(window);
+            return this;
+        }
+
+        /**
+         * @see Instrumentor.Builder#healthCheckMinimumCalls(long)
+         */
+        public Builder healthCheckMinimumCalls(long minimumCalls) {
+            instrumentor.healthCheckMinimumCalls(minimumCalls);
+            return this;
+        }
+
+        /**
+         * @see Instrumentor.Builder#flightRecorderEvents(Duration)
+         */
+        public Builder flightRecorderEvents(Duration threshold) {
+            instrumentor.flightRecorderEvents(threshold);
+            return this;
+        }
+
+        /**
+         * @see Instrumentor.Builder#overheadBudget(double)
+         */
+        public Builder overheadBudget(double fraction) {
+            instrumentor.overheadBudget(fraction);
             return this;
         }
 
         public InstrumentedAnnotations build() {
-            return new InstrumentedAnnotations(metricRegistry, healthCheckRegistry, exceptionFilter);
+            return new InstrumentedAnnotations(
+                    metricRegistry,
+                    healthCheckRegistry,
+                    instrumentor
+                            .metricRegistry(metricRegistry)
+                            .healthCheckRegistry(healthCheckRegistry)
+                            .build()
+            );
         }
     }
 }
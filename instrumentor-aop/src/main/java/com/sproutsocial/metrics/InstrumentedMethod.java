@@ -0,0 +1,153 @@
+package com.sproutsocial.metrics;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+
+/**
+ * Created on 10/19/26
+ *
+ * What an {@link Instrumented} method's annotation asks for, its name, error
+ * threshold, latency objective, timeout and retries, and what its {@link Sized}
+ * annotation asks for, read from the annotations once so calls don't have to.
+ */
+/* package */ final class InstrumentedMethod {
+
+    private final String name;
+    private final Optional<Double> errorThreshold;
+    private final Optional<LatencyObjective> latencyObjective;
+    private final Optional<Duration> timeout;
+    private final Optional<RetryPolicy> retryPolicy;
+    private final Instrumentor instrumentor;
+
+    // the sized argument's index, RESULT for the result, with how to size it,
+    // sizes is null when nothing is sized
+    private final int sized;
+    private final ToLongFunction<Object> sizeOf;
+    private final PayloadSizes sizes;
+
+    private static final int RESULT = -1;
+
+    private InstrumentedMethod(String name, Instrumented annotation, Method method, Instrumentor instrumentor) {
+        this.name = name;
+        this.errorThreshold = getErrorThreshold(annotation);
+        this.latencyObjective = getLatencyObjective(annotation);
+        this.timeout = getTimeout(annotation);
+        this.retryPolicy = getRetryPolicy(annotation);
+        this.instrumentor = instrumentor;
+
+        final Sized methodSized = method.getAnnotation(Sized.class);
+        Sized sizedAnnotation = methodSized;
+        int sized = RESULT;
+        final Annotation[][] parameterAnnotations = method.getParameterAnnotations();
+        for (int i = 0; i < parameterAnnotations.length; i++) {
+            for (Annotation parameterAnnotation : parameterAnnotations[i]) {
+                if (parameterAnnotation instanceof Sized) {
+                    if (sizedAnnotation != null) {
+                        throw new IllegalArgumentException(method + " can only have one @Sized");
+                    }
+                    sizedAnnotation = (Sized) parameterAnnotation;
+                    sized = i;
+                }
+            }
+        }
+        if (methodSized != null && method.getReturnType() == void.class) {
+            throw new IllegalArgumentException(method + " has no result to size");
+        }
+        this.sized = sized;
+        if (sizedAnnotation == null) {
+            this.sizeOf = null;
+            this.sizes = null;
+        } else {
+            this.sizeOf = Sizes.of(sized == RESULT ? method.getReturnType() : method.getParameterTypes()[sized]);
+            this.sizes = instrumentor.payloadSizes(name, sizedAnnotation.buckets());
+        }
+    }
+
+    /**
+     * @return how to instrument {@code method} with {@code instrumentor}, null if
+     * {@code details} finds no annotation for it
+     * @throws IllegalArgumentException if {@code method} has a {@link Sized} that can't be recorded
+     */
+    static InstrumentedMethod of(Method method, InstrumentationDetails details, Instrumentor instrumentor) {
+        final Instrumented annotation = details.getAnnotation(method);
+        return annotation == null ?
+                null :
+                new InstrumentedMethod(details.name(method, annotation), annotation, method, instrumentor);
+    }
+
+    String getName() {
+        return name;
+    }
+
+    /**
+     * @param args the call's arguments, described if it's captured as a slow call
+     */
+    <T> T call(ThrowableCallable<T> callable, Object[] args) throws Throwable {
+        if (sizes == null) {
+            return callInstrumented(callable, args);
+        }
+        final long start = sizes.start();
+        if (sized == RESULT) {
+            final T result = callInstrumented(callable, args);
+            sizes.record(sizeOf(result), start);
+            return result;
+        }
+        final long size = sizeOf(args[sized]);
+        try {
+            return callInstrumented(callable, args);
+        } finally {
+            sizes.record(size, start);
+        }
+    }
+
+    private <T> T callInstrumented(ThrowableCallable<T> callable, Object[] args) throws Throwable {
+        return instrumentor.callThrowably(
+                callable,
+                name,
+                errorThreshold,
+                latencyObjective,
+                timeout,
+                retryPolicy,
+                instrumentor.capturesSlowCalls() ? () -> Arrays.toString(args) : null
+        );
+    }
+
+    private long sizeOf(Object value) {
+        return value == null ? -1 : sizeOf.applyAsLong(value);
+    }
+
+    private static Optional<Double> getErrorThreshold(Instrumented annotation) {
+        final double threshold = annotation.errorThreshold();
+        return threshold == Instrumentor.NO_THRESHOLD_DEFINED ?
+                Optional.empty() :
+                Optional.of(threshold);
+    }
+
+    private static Optional<LatencyObjective> getLatencyObjective(Instrumented annotation) {
+        final long threshold = annotation.latencyThresholdMillis();
+        return threshold == Instrumentor.NO_LATENCY_THRESHOLD_DEFINED ?
+                Optional.empty() :
+                Optional.of(LatencyObjective.of(annotation.latencyTarget(), threshold, TimeUnit.MILLISECONDS));
+    }
+
+    private static Optional<Duration> getTimeout(Instrumented annotation) {
+        final long timeout = annotation.timeoutMillis();
+        return timeout == Instrumentor.NO_TIMEOUT_DEFINED ?
+                Optional.empty() :
+                Optional.of(Duration.ofMillis(timeout));
+    }
+
+    private static Optional<RetryPolicy> getRetryPolicy(Instrumented annotation) {
+        return annotation.maxAttempts() <= 1 ?
+                Optional.empty() :
+                Optional.of(RetryPolicy.builder()
+                        .maxAttempts(annotation.maxAttempts())
+                        .initialBackoff(Duration.ofMillis(annotation.retryBackoffMillis()))
+                        .build());
+    }
+}
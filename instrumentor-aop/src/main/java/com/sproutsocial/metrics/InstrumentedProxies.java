@@ -0,0 +1,143 @@
+package com.sproutsocial.metrics;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Created on 10/19/26
+ *
+ * Instruments objects that aren't created by Guice, by wrapping them in a proxy
+ * for one of their interfaces. Methods are instrumented following the same
+ * {@link Instrumented} annotations, and named the same way, as with
+ * {@link InstrumentedAnnotations}, looking at the target's class and methods
+ * first, then the interface's. A method annotation wins over a class annotation.
+ *
+ * {@link Sized} annotations are read from whichever method's {@link Instrumented}
+ * annotation, or class annotation, is used.
+ *
+ * Everything about a method, its annotation, name and a {@link MethodHandle}
+ * bound to the target, is worked out once when the proxy is created, so a call
+ * through the proxy is a map lookup and a method handle invocation on top of
+ * the instrumentation, rather than reflection.
+ */
+public final class InstrumentedProxies {
+
+    private static final InstrumentationDetails METHODS = new InstrumentationDetails.MethodInstrumentation();
+    private static final InstrumentationDetails CLASSES = new InstrumentationDetails.ClassInstrumentation();
+    private static final MethodType DISPATCH_TYPE = MethodType.methodType(Object.class, Object[].class);
+
+    private InstrumentedProxies() {}
+
+    /**
+     * @return an {@code iface} that calls {@code target}, instrumenting its
+     * {@link Instrumented} methods with {@code instrumentor}
+     * @throws IllegalArgumentException if {@code iface} isn't an interface
+     */
+    public static <T> T proxy(Instrumentor instrumentor, Class<T> iface, T target) {
+        if (!iface.isInterface()) {
+            throw new IllegalArgumentException(iface.getName() + " isn't an interface");
+        }
+        final Map<Method, Dispatch> dispatches = new HashMap<>();
+        for (Method method : iface.getMethods()) {
+            if (!Modifier.isStatic(method.getModifiers())) {
+                dispatches.put(method, dispatch(instrumentor, method, target));
+            }
+        }
+        for (Method method : Object.class.getMethods()) {
+            if (method.getName().equals("equals") ||
+                    method.getName().equals("hashCode") ||
+                    method.getName().equals("toString")) {
+                dispatches.put(method, new Dispatch(handle(method, target), null));
+            }
+        }
+        return iface.cast(Proxy.newProxyInstance(
+                iface.getClassLoader(),
+                new Class<?>[] {iface},
+                new Handler(dispatches)
+        ));
+    }
+
+    private static Dispatch dispatch(Instrumentor instrumentor, Method method, Object target) {
+        final Method implementation = implementation(method, target.getClass());
+        InstrumentedMethod instrumented = InstrumentedMethod.of(implementation, METHODS, instrumentor);
+        if (instrumented == null) {
+            instrumented = InstrumentedMethod.of(method, METHODS, instrumentor);
+        }
+        if (instrumented == null) {
+            instrumented = InstrumentedMethod.of(implementation, CLASSES, instrumentor);
+        }
+        if (instrumented == null) {
+            instrumented = InstrumentedMethod.of(method, CLASSES, instrumentor);
+        }
+        return new Dispatch(handle(method, target), instrumented);
+    }
+
+    private static Method implementation(Method method, Class<?> targetClass) {
+        try {
+            return targetClass.getMethod(method.getName(), method.getParameterTypes());
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException(targetClass.getName() + " doesn't implement " + method, e);
+        }
+    }
+
+    /**
+     * @return a handle for {@code method} on {@code target}, taking the arguments
+     * as an array and returning the result boxed, or null for void methods
+     */
+    private static MethodHandle handle(Method method, Object target) {
+        try {
+            if (!Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+                method.setAccessible(true);
+            }
+            return MethodHandles.publicLookup().unreflect(method)
+                    .bindTo(target)
+                    .asSpreader(Object[].class, method.getParameterCount())
+                    .asType(DISPATCH_TYPE);
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("can't call " + method, e);
+        }
+    }
+
+    /**
+     * a method's bound handle, and how to instrument it, null if it isn't instrumented
+     */
+    private static final class Dispatch {
+        private static final Object[] NO_ARGS = new Object[0];
+
+        private final MethodHandle handle;
+        private final InstrumentedMethod instrumented;
+
+        Dispatch(MethodHandle handle, InstrumentedMethod instrumented) {
+            this.handle = handle;
+            this.instrumented = instrumented;
+        }
+
+        Object invoke(Object[] args) throws Throwable {
+            final Object[] arguments = args == null ? NO_ARGS : args;
+            if (instrumented == null) {
+                return (Object) handle.invokeExact(arguments);
+            }
+            return instrumented.call(() -> (Object) handle.invokeExact(arguments), arguments);
+        }
+    }
+
+    private static final class Handler implements InvocationHandler {
+        private final Map<Method, Dispatch> dispatches;
+
+        Handler(Map<Method, Dispatch> dispatches) {
+            this.dispatches = dispatches;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            return dispatches.get(method).invoke(args);
+        }
+    }
+}
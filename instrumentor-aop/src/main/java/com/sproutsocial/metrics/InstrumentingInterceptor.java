@@ -2,6 +2,8 @@ package com.sproutsocial.metrics;
 
 import java.lang.reflect.Method;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.aopalliance.intercept.MethodInterceptor;
 import org.aopalliance.intercept.MethodInvocation;
@@ -15,6 +17,7 @@ public class InstrumentingInterceptor implements MethodInterceptor {
 
     private final Instrumentor instrumentor;
     private final InstrumentationDetails instrumentationDetails;
+    private final ConcurrentMap<Method, Optional<InstrumentedMethod>> methods = new ConcurrentHashMap<>();
 
     public InstrumentingInterceptor(
             Instrumentor instrumentor,
@@ -41,30 +44,36 @@ public class InstrumentingInterceptor implements MethodInterceptor {
     @Override
     public Object invoke(MethodInvocation methodInvocation) throws Throwable {
         final Method method = methodInvocation.getMethod();
-        final Instrumented declaredAnnotation = instrumentationDetails.getAnnotation(method);
-        if (declaredAnnotation == null) {
-            // declaredAnnotation may be null, for example, when a class is @Instrumented, but it
+        final Optional<InstrumentedMethod> instrumented = instrumented(method);
+        if (!instrumented.isPresent()) {
+            // the annotation may be missing, for example, when a class is @Instrumented, but it
             // inherits from an interface with default methods. In that case,
             // Method#getDeclaringClass will return the interface and not the implementing class. If
             // that interface is not also annotated with @Instrumented, then
             // instrumentationDetails#getAnnotation will return null.
             return methodInvocation.proceed();
         }
-        final Optional<Double> threshold = getErrorThreshold(declaredAnnotation);
-        final String name = instrumentationDetails.name(method, declaredAnnotation);
+        return instrumented.get().call(methodInvocation::proceed, methodInvocation.getArguments());
+    }
 
-        return instrumentor.callThrowably(
-                methodInvocation::proceed,
-                name,
-                threshold
-        );
+    /**
+     * works out how {@code method} will be instrumented ahead of its first call
+     *
+     * @throws IllegalArgumentException if its annotations can't be applied
+     */
+    /* package */ void resolve(Method method) {
+        instrumented(method);
     }
 
-    private Optional<Double> getErrorThreshold(Instrumented annotation) {
-        final double threshold = annotation.errorThreshold();
-        return threshold == Instrumentor.NO_THRESHOLD_DEFINED ?
-                Optional.empty() :
-                Optional.of(threshold);
+    private Optional<InstrumentedMethod> instrumented(Method method) {
+        final Optional<InstrumentedMethod> instrumented = methods.get(method);
+        if (instrumented != null) {
+            return instrumented;
+        }
+        return methods.computeIfAbsent(
+                method,
+                uncached -> Optional.ofNullable(InstrumentedMethod.of(uncached, instrumentationDetails, instrumentor))
+        );
     }
 
 }
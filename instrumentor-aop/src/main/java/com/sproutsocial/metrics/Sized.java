@@ -0,0 +1,32 @@
+package com.sproutsocial.metrics;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Created on 10/19/26
+ *
+ * Records the size of an {@link Instrumented} method's payload as {@code name.size}.
+ * On a parameter that's the argument, on the method it's the result of successful calls.
+ * Collections, maps, strings and arrays are sized by their size or length, anything
+ * else by a public {@code size()} or {@code length()} returning an int or a long.
+ * Null payloads aren't recorded.
+ *
+ * A method can have one {@code @Sized}, which has to be on the same method
+ * as its {@link Instrumented} annotation, or on the method of a class that's
+ * {@link Instrumented}. A {@code @Sized} that can't be recorded fails creating
+ * the injector, or the proxy, with an {@link IllegalArgumentException}.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.PARAMETER})
+public @interface Sized {
+
+    /**
+     * ascending upper bounds to split the method's latency by, as
+     * {@code name.size.le_<bound>} timers and a {@code name.size.gt_<last bound>}
+     * timer, latency isn't split by default
+     */
+    long[] buckets() default {};
+}
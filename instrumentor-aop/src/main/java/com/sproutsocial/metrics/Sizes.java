@@ -0,0 +1,90 @@
+package com.sproutsocial.metrics;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+/**
+ * Created on 10/19/26
+ *
+ * Works out how to size values of a declared type, once, so sizing a value
+ * is a cast and a call rather than a lookup.
+ */
+/* package */ final class Sizes {
+
+    private static final MethodType SIZE_TYPE = MethodType.methodType(long.class, Object.class);
+
+    private Sizes() {}
+
+    /**
+     * @return the size of a non-null {@code type}
+     * @throws IllegalArgumentException if {@code type} can't be sized
+     */
+    static ToLongFunction<Object> of(Class<?> type) {
+        if (Collection.class.isAssignableFrom(type)) {
+            return value -> ((Collection<?>) value).size();
+        }
+        if (Map.class.isAssignableFrom(type)) {
+            return value -> ((Map<?, ?>) value).size();
+        }
+        if (CharSequence.class.isAssignableFrom(type)) {
+            return value -> ((CharSequence) value).length();
+        }
+        if (type == byte[].class) {
+            return value -> ((byte[]) value).length;
+        }
+        if (Object[].class.isAssignableFrom(type)) {
+            return value -> ((Object[]) value).length;
+        }
+        if (type == int[].class) {
+            return value -> ((int[]) value).length;
+        }
+        if (type == long[].class) {
+            return value -> ((long[]) value).length;
+        }
+        if (type == char[].class) {
+            return value -> ((char[]) value).length;
+        }
+        if (type == double[].class) {
+            return value -> ((double[]) value).length;
+        }
+        if (type == float[].class) {
+            return value -> ((float[]) value).length;
+        }
+        if (type == short[].class) {
+            return value -> ((short[]) value).length;
+        }
+        if (type == boolean[].class) {
+            return value -> ((boolean[]) value).length;
+        }
+        final MethodHandle size = sizeMethod(type);
+        return value -> {
+            try {
+                return (long) size.invokeExact(value);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new IllegalStateException(t);
+            }
+        };
+    }
+
+    private static MethodHandle sizeMethod(Class<?> type) {
+        for (String name : new String[] {"size", "length"}) {
+            for (Class<?> returnType : new Class<?>[] {int.class, long.class}) {
+                try {
+                    return MethodHandles.publicLookup()
+                            .findVirtual(type, name, MethodType.methodType(returnType))
+                            .asType(SIZE_TYPE);
+                } catch (NoSuchMethodException | IllegalAccessException e) {
+                    // try the next one
+                }
+            }
+        }
+        throw new IllegalArgumentException("can't size " + type.getName() +
+                ", it needs a public size() or length() returning an int or a long");
+    }
+}
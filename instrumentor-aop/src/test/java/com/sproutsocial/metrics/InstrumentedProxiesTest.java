@@ -0,0 +1,167 @@
+package com.sproutsocial.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.health.HealthCheckRegistry;
+
+/**
+ * Created on 10/19/26
+ */
+public class InstrumentedProxiesTest {
+
+    private final MetricRegistry metricRegistry = new MetricRegistry();
+    private final HealthCheckRegistry healthCheckRegistry = new HealthCheckRegistry();
+    private final Instrumentor instrumentor = Instrumentor.builder()
+            .metricRegistry(metricRegistry)
+            .healthCheckRegistry(healthCheckRegistry)
+            .build();
+
+    public interface UserService {
+        @Instrumented(errorThreshold = 0.5d)
+        String getUser(String id);
+
+        int countUsers();
+
+        void deleteUser(String id);
+    }
+
+    public static class UserServiceImpl implements UserService {
+        @Override
+        public String getUser(String id) {
+            if (id.isEmpty()) {
+                throw new IllegalArgumentException();
+            }
+            return "user " + id;
+        }
+
+        @Override
+        @Instrumented(name = "users.count")
+        public int countUsers() {
+            return 3;
+        }
+
+        @Override
+        public void deleteUser(String id) {}
+
+        @Override
+        public String toString() {
+            return "users";
+        }
+    }
+
+    @Instrumented(name = "orders")
+    public interface OrderService {
+        long countOrders();
+
+        @Instrumented(name = "orders.find")
+        String findOrder(String id);
+    }
+
+    @Instrumented
+    static class OrderServiceImpl implements OrderService {
+        @Override
+        public long countOrders() {
+            return 7L;
+        }
+
+        @Override
+        public String findOrder(String id) {
+            return id;
+        }
+    }
+
+    private long calls(String name) {
+        return metricRegistry.timer(name).getCount();
+    }
+
+    @Test
+    public void testInterfaceMethodAnnotation() throws Exception {
+        final UserService users = InstrumentedProxies.proxy(instrumentor, UserService.class, new UserServiceImpl());
+        final String name = Names.name(UserService.class.getMethod("getUser", String.class));
+
+        assertEquals("user 1", users.getUser("1"));
+        try {
+            users.getUser("");
+        } catch (IllegalArgumentException expected) {}
+
+        assertEquals(2, calls(name));
+        assertEquals(1, metricRegistry.meter(name + ".errors").getCount());
+        assertTrue(healthCheckRegistry.getNames().contains(name));
+    }
+
+    @Test
+    public void testImplementationMethodAnnotation() throws Exception {
+        final UserService users = InstrumentedProxies.proxy(instrumentor, UserService.class, new UserServiceImpl());
+
+        assertEquals(3, users.countUsers());
+        users.deleteUser("1");
+
+        assertEquals(1, calls("users.count"));
+        // nothing else was instrumented
+        assertEquals(1, metricRegistry.getTimers().size());
+    }
+
+    @Test
+    public void testClassAnnotations() throws Exception {
+        final OrderService orders = InstrumentedProxies.proxy(instrumentor, OrderService.class, new OrderServiceImpl());
+
+        assertEquals(7L, orders.countOrders());
+        assertEquals("a", orders.findOrder("a"));
+
+        // the implementation's class annotation wins over the interface's
+        assertEquals(1, calls(Names.name(OrderServiceImpl.class.getMethod("countOrders"))));
+        // and a method annotation wins over both
+        assertEquals(1, calls("orders.find"));
+        assertEquals(0, calls("orders.countOrders"));
+    }
+
+    @Test
+    public void testObjectMethods() throws Exception {
+        final UserServiceImpl target = new UserServiceImpl();
+        final UserService users = InstrumentedProxies.proxy(instrumentor, UserService.class, target);
+
+        assertEquals("users", users.toString());
+        assertEquals(target.hashCode(), users.hashCode());
+        assertFalse(users.equals(new UserServiceImpl()));
+    }
+
+    @Test
+    public void testInstrumentedAnnotations() throws Exception {
+        final InstrumentedAnnotations annotations = InstrumentedAnnotations.builder()
+                .metricRegistry(metricRegistry)
+                .build();
+        final UserService users = annotations.proxy(UserService.class, new UserServiceImpl());
+
+        users.countUsers();
+        assertEquals(1, calls("users.count"));
+    }
+
+    @Test
+    public void testSlowCallsDescribeArguments() throws Exception {
+        final InstrumentedAnnotations annotations = InstrumentedAnnotations.builder()
+                .metricRegistry(metricRegistry)
+                .slowCalls(3)
+                .build();
+        final UserService users = annotations.proxy(UserService.class, new UserServiceImpl());
+
+        users.getUser("42");
+        final String name = metricRegistry.getTimers().firstKey();
+        assertTrue(name.endsWith("getUser"));
+
+        final List<SlowCall> calls = annotations.getSlowCalls(name);
+        assertEquals(1, calls.size());
+        assertEquals("[42]", calls.get(0).getContext().get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNeedsInterface() throws Exception {
+        InstrumentedProxies.proxy(instrumentor, UserServiceImpl.class, new UserServiceImpl());
+    }
+}
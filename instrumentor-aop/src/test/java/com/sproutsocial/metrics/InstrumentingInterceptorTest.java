@@ -2,6 +2,7 @@ package com.sproutsocial.metrics;
 
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.times;
@@ -9,6 +10,8 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
+import java.util.concurrent.TimeUnit;
+
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -40,7 +43,6 @@ public class InstrumentingInterceptorTest {
     private @Mock Meter errorMeter;
     private @Mock Timer timer;
     private @Mock Counter counter;
-    private @Mock Timer.Context context;
 
     private @Mock MetricRegistry metricRegistry;
     private @Mock HealthCheckRegistry healthCheckRegistry;
@@ -97,17 +99,15 @@ public class InstrumentingInterceptorTest {
         when(metricRegistry.meter(NAME_METHOD + ".errors")).thenReturn(errorMeter);
         when(metricRegistry.counter(NAME_METHOD + ".inFlight")).thenReturn(counter);
 
-        when(timer.time()).thenReturn(context);
-
         try {
             methodTestStub.faultyMethod();
         } catch (RuntimeException ignored) {}
 
         verify(healthCheckRegistry, times(1)).register(eq(NAME_METHOD), any(HealthCheck.class));
 
-        InOrder inOrder = inOrder(context, errorMeter, counter);
+        InOrder inOrder = inOrder(timer, errorMeter, counter);
         inOrder.verify(counter, times(1)).inc();
-        inOrder.verify(context, times(1)).close();
+        inOrder.verify(timer, times(1)).update(anyLong(), eq(TimeUnit.NANOSECONDS));
         inOrder.verify(errorMeter, times(1)).mark();
         inOrder.verify(counter, times(1)).dec();
 
@@ -121,17 +121,15 @@ public class InstrumentingInterceptorTest {
         when(metricRegistry.meter(methodName + ".errors")).thenReturn(errorMeter);
         when(metricRegistry.counter(methodName + ".inFlight")).thenReturn(counter);
 
-        when(timer.time()).thenReturn(context);
-
         try {
             classTestStub.faultyMethod();
         } catch (RuntimeException ignored) {}
 
         verify(healthCheckRegistry, times(1)).register(eq(methodName), any(HealthCheck.class));
 
-        InOrder inOrder = inOrder(context, errorMeter, counter);
+        InOrder inOrder = inOrder(timer, errorMeter, counter);
         inOrder.verify(counter, times(1)).inc();
-        inOrder.verify(context, times(1)).close();
+        inOrder.verify(timer, times(1)).update(anyLong(), eq(TimeUnit.NANOSECONDS));
         inOrder.verify(errorMeter, times(1)).mark();
         inOrder.verify(counter, times(1)).dec();
 
@@ -144,7 +142,6 @@ public class InstrumentingInterceptorTest {
             classTestStub.successfulMethod()
         );
         verifyZeroInteractions(
-            context,
             errorMeter,
             counter,
             timer,
@@ -161,17 +158,15 @@ public class InstrumentingInterceptorTest {
         when(metricRegistry.meter(methodName + ".errors")).thenReturn(errorMeter);
         when(metricRegistry.counter(methodName + ".inFlight")).thenReturn(counter);
 
-        when(timer.time()).thenReturn(context);
-
         try {
             classTestStub.anotherFaultyMethod();
         } catch (RuntimeException ignored) {}
 
         verify(healthCheckRegistry, times(1)).register(eq(methodName), any(HealthCheck.class));
 
-        InOrder inOrder = inOrder(context, errorMeter, counter);
+        InOrder inOrder = inOrder(timer, errorMeter, counter);
         inOrder.verify(counter, times(1)).inc();
-        inOrder.verify(context, times(1)).close();
+        inOrder.verify(timer, times(1)).update(anyLong(), eq(TimeUnit.NANOSECONDS));
         inOrder.verify(errorMeter, times(1)).mark();
         inOrder.verify(counter, times(1)).dec();
     }
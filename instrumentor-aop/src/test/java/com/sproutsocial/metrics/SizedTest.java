@@ -0,0 +1,145 @@
+package com.sproutsocial.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.inject.CreationException;
+import com.google.inject.Guice;
+
+/**
+ * Created on 10/19/26
+ */
+public class SizedTest {
+
+    private final MetricRegistry metricRegistry = new MetricRegistry();
+    private final Instrumentor instrumentor = Instrumentor.builder()
+            .metricRegistry(metricRegistry)
+            .build();
+
+    private Batches batches;
+
+    public static class Batches {
+        @Instrumented(name = "batches.save")
+        public void save(String user, @Sized(buckets = {1, 10}) List<String> items) {
+            if (items != null && items.contains("bad")) {
+                throw new IllegalArgumentException();
+            }
+        }
+
+        @Instrumented(name = "batches.read")
+        @Sized
+        public byte[] read(int length) {
+            return new byte[length];
+        }
+    }
+
+    public interface Documents {
+        @Instrumented(name = "documents.render")
+        String render(@Sized Document document);
+    }
+
+    public static class Document {
+        private final long words;
+
+        public Document(long words) {
+            this.words = words;
+        }
+
+        public long length() {
+            return words;
+        }
+    }
+
+    public interface Unsized {
+        @Instrumented(name = "unsized")
+        void take(@Sized Object anything);
+    }
+
+    public static class BadlySized {
+        @Instrumented
+        public void take(@Sized Object anything) {}
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        batches = Guice.createInjector(
+                InstrumentedAnnotations.builder()
+                        .metricRegistry(metricRegistry)
+                        .build()
+        ).getInstance(Batches.class);
+    }
+
+    @Test
+    public void testArgumentSizes() throws Exception {
+        batches.save("a", Arrays.asList("1", "2", "3"));
+        batches.save("a", Collections.emptyList());
+        batches.save("a", null);
+        try {
+            batches.save("a", Arrays.asList("bad"));
+        } catch (IllegalArgumentException expected) {}
+
+        // failed calls are sized too, null arguments aren't
+        assertEquals(3, metricRegistry.histogram("batches.save.size").getCount());
+        assertEquals(3, metricRegistry.histogram("batches.save.size").getSnapshot().getMax());
+        assertEquals(4, metricRegistry.timer("batches.save").getCount());
+    }
+
+    @Test
+    public void testLatencyBuckets() throws Exception {
+        batches.save("a", Collections.emptyList());
+        batches.save("a", Arrays.asList("1"));
+        batches.save("a", Arrays.asList("1", "2"));
+        batches.save("a", Collections.nCopies(11, "1"));
+
+        assertEquals(2, metricRegistry.timer("batches.save.size.le_1").getCount());
+        assertEquals(1, metricRegistry.timer("batches.save.size.le_10").getCount());
+        assertEquals(1, metricRegistry.timer("batches.save.size.gt_10").getCount());
+    }
+
+    @Test
+    public void testResultSizes() throws Exception {
+        batches.read(5);
+        batches.read(7);
+
+        assertEquals(2, metricRegistry.histogram("batches.read.size").getCount());
+        assertEquals(7, metricRegistry.histogram("batches.read.size").getSnapshot().getMax());
+        // latency isn't split without buckets
+        assertFalse(metricRegistry.getTimers().keySet().stream().anyMatch(name -> name.startsWith("batches.read.size")));
+    }
+
+    @Test
+    public void testProxiedSizeMethod() throws Exception {
+        final Documents documents = InstrumentedProxies.proxy(
+                instrumentor,
+                Documents.class,
+                document -> "words: " + document.length()
+        );
+
+        documents.render(new Document(42));
+        assertEquals(42, metricRegistry.histogram("documents.render.size").getSnapshot().getMax());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnsizableType() throws Exception {
+        // found when the method is resolved, not when it's called
+        InstrumentedProxies.proxy(instrumentor, Unsized.class, anything -> {});
+    }
+
+    @Test(expected = CreationException.class)
+    public void testUnsizableTypeFailsInjectorCreation() throws Exception {
+        Guice.createInjector(
+                InstrumentedAnnotations.builder()
+                        .metricRegistry(metricRegistry)
+                        .build(),
+                binder -> binder.bind(BadlySized.class)
+        );
+    }
+}
@@ -0,0 +1,135 @@
+package com.sproutsocial.metrics.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sproutsocial.metrics.Instrumentor;
+import com.sproutsocial.metrics.MetricsBackend;
+
+/**
+ * Created on 10/19/26
+ *
+ * The cost of an instrumented call with the default Codahale backend, and with
+ * a backend that only counts, to see how much of a call is spent in the backend.
+ * Add a backend here to compare it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BackendBenchmark {
+
+    @Param({"codahale", "counting"})
+    private String backend;
+
+    private Instrumentor instrumentor;
+
+    @Setup
+    public void setUp() {
+        instrumentor = "counting".equals(backend) ?
+                Instrumentor.builder().backend(new CountingBackend()).build() :
+                Instrumentor.builder().build();
+    }
+
+    @Benchmark
+    public void instrumentedCall() {
+        instrumentor.run(() -> {}, "com.mycompany.UserService.getUser");
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void contendedCall() {
+        instrumentor.run(() -> {}, "com.mycompany.UserService.getUser");
+    }
+
+    /**
+     * counts calls and errors in {@link LongAdder}s, and drops durations
+     */
+    private static final class CountingBackend implements MetricsBackend {
+
+        @Override
+        public Counter counter(String name) {
+            final LongAdder count = new LongAdder();
+            return new Counter() {
+                @Override
+                public void inc() {
+                    count.increment();
+                }
+
+                @Override
+                public void dec() {
+                    count.decrement();
+                }
+
+                @Override
+                public long getCount() {
+                    return count.sum();
+                }
+            };
+        }
+
+        @Override
+        public Meter meter(String name) {
+            final LongAdder count = new LongAdder();
+            return new Meter() {
+                @Override
+                public void mark() {
+                    count.increment();
+                }
+
+                @Override
+                public void mark(long n) {
+                    count.add(n);
+                }
+
+                @Override
+                public long getCount() {
+                    return count.sum();
+                }
+            };
+        }
+
+        @Override
+        public Timer timer(String name) {
+            final LongAdder count = new LongAdder();
+            return new Timer() {
+                @Override
+                public void update(long nanos) {
+                    count.increment();
+                }
+
+                @Override
+                public long getCount() {
+                    return count.sum();
+                }
+            };
+        }
+
+        @Override
+        public boolean registerGauge(String name, Supplier<? extends Number> gauge) {
+            return true;
+        }
+
+        @Override
+        public boolean registerHealthCheck(String name, DoubleSupplier value, double ceiling) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.sproutsocial.metrics.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sproutsocial.metrics.Instrumentor;
+
+/**
+ * Created on 10/19/26
+ *
+ * The cost of an instrumented call nesting another, with
+ * call tree profiling on and off.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CallTreeProfilingBenchmark {
+
+    @Param({"false", "true"})
+    private boolean callTreeProfiling;
+
+    private Instrumentor instrumentor;
+
+    @Setup
+    public void setUp() {
+        instrumentor = Instrumentor.builder()
+                .callTreeProfiling(callTreeProfiling)
+                .build();
+    }
+
+    @Benchmark
+    public void nestedCall() {
+        instrumentor.run(
+                () -> instrumentor.run(() -> {}, "com.mycompany.UserDao.getUser"),
+                "com.mycompany.UserService.getUser"
+        );
+    }
+}
@@ -0,0 +1,69 @@
+package com.sproutsocial.metrics.benchmarks;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.codahale.metrics.Clock;
+import com.sproutsocial.metrics.CoarseClock;
+import com.sproutsocial.metrics.Instrumentor;
+
+/**
+ * Created on 10/19/26
+ *
+ * The cost of reading the clock, and of an instrumented call,
+ * with the default clock and a coarse clock published every millisecond.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClockBenchmark {
+
+    @Param({"default", "coarse"})
+    private String clockType;
+
+    private Clock clock;
+    private Instrumentor instrumentor;
+
+    @Setup
+    public void setUp() {
+        clock = "coarse".equals(clockType) ?
+                CoarseClock.start(Duration.ofMillis(1)) :
+                Clock.defaultClock();
+        instrumentor = Instrumentor.builder()
+                .clock(clock)
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (clock instanceof CoarseClock) {
+            ((CoarseClock) clock).close();
+        }
+    }
+
+    @Benchmark
+    public long tick() {
+        return clock.getTick();
+    }
+
+    @Benchmark
+    public void instrumentedCall() {
+        instrumentor.run(() -> {}, "com.mycompany.UserService.getUser");
+    }
+}
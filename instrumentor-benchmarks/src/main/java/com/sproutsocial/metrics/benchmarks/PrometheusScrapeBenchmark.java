@@ -0,0 +1,84 @@
+package com.sproutsocial.metrics.benchmarks;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.codahale.metrics.MetricRegistry;
+import com.sproutsocial.metrics.Instrumentor;
+import com.sproutsocial.metrics.prometheus.PrometheusTextWriter;
+
+/**
+ * Created on 10/19/26
+ *
+ * Latency of a single scrape of a registry holding {@code operations}
+ * instrumented operations. Run with {@code -prof gc} to see the
+ * allocation per scrape.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrometheusScrapeBenchmark {
+
+    @Param({"10000"})
+    private int operations;
+
+    private PrometheusTextWriter writer;
+    private CountingOutputStream out;
+
+    @Setup
+    public void setUp() {
+        final MetricRegistry metricRegistry = new MetricRegistry();
+        final Instrumentor instrumentor = Instrumentor.builder()
+                .metricRegistry(metricRegistry)
+                .build();
+
+        for (int i = 0; i < operations; i++) {
+            instrumentor.run(() -> {}, "com.mycompany.Service.operation" + i);
+        }
+
+        writer = new PrometheusTextWriter(metricRegistry);
+        out = new CountingOutputStream();
+    }
+
+    @TearDown
+    public void tearDown() {
+        writer.close();
+    }
+
+    @Benchmark
+    public long scrape() throws IOException {
+        writer.writeTo(out);
+        return out.count;
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
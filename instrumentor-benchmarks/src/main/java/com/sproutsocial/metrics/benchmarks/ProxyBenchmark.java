@@ -0,0 +1,87 @@
+package com.sproutsocial.metrics.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sproutsocial.metrics.InstrumentedProxies;
+import com.sproutsocial.metrics.Instrumented;
+import com.sproutsocial.metrics.Instrumentor;
+
+/**
+ * Created on 10/19/26
+ *
+ * A call through an {@link InstrumentedProxies} proxy, to an instrumented method
+ * and to one that isn't, against calling the target directly and instrumenting
+ * the call by hand with {@link Instrumentor#call}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProxyBenchmark {
+
+    private static final String NAME = "com.mycompany.UserService.getUser";
+
+    public interface UserService {
+        @Instrumented(name = NAME)
+        String getUser(String id);
+
+        String getUserUninstrumented(String id);
+    }
+
+    public static class UserServiceImpl implements UserService {
+        @Override
+        public String getUser(String id) {
+            return id;
+        }
+
+        @Override
+        public String getUserUninstrumented(String id) {
+            return id;
+        }
+    }
+
+    private Instrumentor instrumentor;
+    private UserService target;
+    private UserService proxy;
+    private String id = "1";
+
+    @Setup
+    public void setUp() {
+        instrumentor = Instrumentor.builder().build();
+        target = new UserServiceImpl();
+        proxy = InstrumentedProxies.proxy(instrumentor, UserService.class, target);
+    }
+
+    @Benchmark
+    public String direct() {
+        return target.getUser(id);
+    }
+
+    @Benchmark
+    public String byHand() {
+        return instrumentor.call(() -> target.getUser(id), NAME);
+    }
+
+    @Benchmark
+    public String proxy() {
+        return proxy.getUser(id);
+    }
+
+    @Benchmark
+    public String proxyUninstrumented() {
+        return proxy.getUserUninstrumented(id);
+    }
+}
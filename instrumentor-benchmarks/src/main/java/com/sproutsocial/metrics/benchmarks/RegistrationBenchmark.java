@@ -0,0 +1,71 @@
+package com.sproutsocial.metrics.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.codahale.metrics.health.HealthCheckRegistry;
+import com.sproutsocial.metrics.Instrumentor;
+
+/**
+ * Created on 10/19/26
+ *
+ * A cold start: every thread calls the same {@value #NAMES} names, none of which
+ * have been called before, with an error threshold, so each name's metrics,
+ * gauges and health check are registered while other threads are calling it.
+ * Each iteration starts with a fresh instrumentor and registries.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 10)
+@Measurement(iterations = 20)
+@Fork(1)
+public class RegistrationBenchmark {
+
+    private static final int NAMES = 10_000;
+    private static final String[] names = new String[NAMES];
+
+    static {
+        for (int i = 0; i < NAMES; i++) {
+            names[i] = "com.mycompany.Service" + i + ".call";
+        }
+    }
+
+    private Instrumentor instrumentor;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        instrumentor = Instrumentor.builder()
+                .healthCheckRegistry(new HealthCheckRegistry())
+                .build();
+    }
+
+    private void callEveryName() {
+        for (String name : names) {
+            instrumentor.run(() -> {}, name, 0.5);
+        }
+    }
+
+    @Benchmark
+    public void coldStart() {
+        callEveryName();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void contendedColdStart() {
+        callEveryName();
+    }
+}
@@ -0,0 +1,92 @@
+package com.sproutsocial.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import jdk.jfr.StackTrace;
+
+/**
+ * Created on 10/19/26
+ *
+ * A Java Flight Recorder event for one instrumented call, so slow calls can be
+ * lined up with GC pauses, lock contention and the rest of a recording.
+ *
+ * Only {@link #start()} and {@link #finish(String, boolean)} are called from
+ * outside this class, so nothing but this class touches {@code jdk.jfr} and it's
+ * only loaded once events are enabled. Whether any recording is running is kept
+ * up to date by a {@link FlightRecorderListener}, so when none is {@link #start()}
+ * returns null without allocating anything, and calls skip straight past
+ * {@link #finish(String, boolean)}. While one is running, an event is only begun
+ * if that recording has it enabled.
+ */
+@Name(CallEvent.NAME)
+@Label("Instrumented Call")
+@Category("Instrumentor")
+@Description("A call to an instrumented operation that took at least the instrumentor's flight recorder threshold")
+@StackTrace(false)
+/* package */ final class CallEvent extends Event {
+
+    static final String NAME = "com.sproutsocial.metrics.InstrumentedCall";
+    static final String SUCCESS = "success";
+    static final String ERROR = "error";
+
+    private static volatile boolean recording;
+
+    static {
+        FlightRecorder.addListener(new FlightRecorderListener() {
+            @Override
+            public void recorderInitialized(FlightRecorder recorder) {
+                updateRecording();
+            }
+
+            @Override
+            public void recordingStateChanged(Recording changed) {
+                updateRecording();
+            }
+        });
+        updateRecording();
+    }
+
+    private static void updateRecording() {
+        recording = FlightRecorder.isInitialized() &&
+                FlightRecorder.getFlightRecorder().getRecordings().stream()
+                        .anyMatch(running -> running.getState() == RecordingState.RUNNING);
+    }
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Outcome")
+    @Description("success, or error if the call was marked as an error")
+    String outcome;
+
+    /**
+     * @return a begun event, null unless a recording has the event enabled
+     */
+    static CallEvent start() {
+        if (!recording) {
+            return null;
+        }
+        final CallEvent event = new CallEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    void finish(String operation, boolean error) {
+        end();
+        if (shouldCommit()) {
+            this.operation = operation;
+            this.outcome = error ? ERROR : SUCCESS;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.sproutsocial.metrics;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Created on 10/19/26
+ *
+ * An append-only journal of every instrumented call, written to a memory-mapped
+ * ring of fixed-size binary records. Once the ring is full the oldest records
+ * are overwritten, so the file never grows past its capacity.
+ *
+ * Appending a record claims a slot with an atomic increment and writes
+ * primitives into the mapping, no syscalls or locks. The OS writes the pages
+ * back to the file, so the journal survives the process being killed.
+ *
+ * The file starts with a {@value #HEADER_SIZE} byte header, all big-endian
+ *
+ * - int magic {@link #MAGIC}, int version, int record size, int capacity in records
+ * - long wall clock millis and long {@link System#nanoTime()} at open, to convert start nanos to wall time
+ *
+ * followed by {@code capacity} records of {@value #RECORD_SIZE} bytes
+ *
+ * - long sequence, starting at 1, written last, 0 if the slot was never written
+ * - int operation id, int outcome, 1 for an error
+ * - long start nanos, long duration nanos, long thread id
+ *
+ * Operation ids are mapped to names in a {@code .names} file next to the journal,
+ * one tab separated {@code id name} line per name, appended when a name is first called.
+ */
+public final class CallJournal implements Closeable {
+
+    public static final int MAGIC = 0x494a524e;
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 64;
+    public static final int RECORD_SIZE = 40;
+    public static final String NAMES_SUFFIX = ".names";
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final Writer names;
+    private final int capacity;
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicInteger operationIds = new AtomicInteger();
+
+    private CallJournal(FileChannel channel, MappedByteBuffer buffer, Writer names, int capacity) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.names = names;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Creates a journal at {@code path}, replacing any journal already there.
+     *
+     * @param capacity the number of records to keep, the file is
+     *                 {@code 64 + 40 * capacity} bytes
+     */
+    public static CallJournal open(Path path, int capacity) throws IOException {
+        if (capacity <= 0 || capacity > (Integer.MAX_VALUE - HEADER_SIZE) / RECORD_SIZE) {
+            throw new IllegalArgumentException("capacity must be between 1 and " +
+                    (Integer.MAX_VALUE - HEADER_SIZE) / RECORD_SIZE + ", got " + capacity);
+        }
+        final FileChannel channel = FileChannel.open(
+                path,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING
+        );
+        try {
+            final MappedByteBuffer buffer = channel.map(
+                    FileChannel.MapMode.READ_WRITE,
+                    0,
+                    HEADER_SIZE + (long) RECORD_SIZE * capacity
+            );
+            buffer.putInt(0, MAGIC)
+                    .putInt(4, VERSION)
+                    .putInt(8, RECORD_SIZE)
+                    .putInt(12, capacity)
+                    .putLong(16, System.currentTimeMillis())
+                    .putLong(24, System.nanoTime());
+            final Writer names = Files.newBufferedWriter(
+                    namesPath(path),
+                    StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING
+            );
+            return new CallJournal(channel, buffer, names, capacity);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return where the names for the journal at {@code path} are kept
+     */
+    public static Path namesPath(Path path) {
+        final Path fileName = path.getFileName();
+        return path.resolveSibling(Paths.get(fileName + NAMES_SUFFIX));
+    }
+
+    /**
+     * @return the id to journal {@code name}'s calls under
+     */
+    /* package */ synchronized int register(String name) {
+        final int id = operationIds.getAndIncrement();
+        try {
+            names.write(id + "\t" + name + "\n");
+            names.flush();
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to journal the name " + name, e);
+        }
+        return id;
+    }
+
+    /* package */ void append(int operationId, long startNanos, long durationNanos, boolean error) {
+        final long sequence = this.sequence.incrementAndGet();
+        final int offset = HEADER_SIZE + (int) ((sequence - 1) % capacity) * RECORD_SIZE;
+        buffer.putInt(offset + 8, operationId);
+        buffer.putInt(offset + 12, error ? 1 : 0);
+        buffer.putLong(offset + 16, startNanos);
+        buffer.putLong(offset + 24, durationNanos);
+        buffer.putLong(offset + 32, Thread.currentThread().getId());
+        buffer.putLong(offset, sequence);
+    }
+
+    /**
+     * Flushes the journal to disk. Calls made after the journal
+     * is closed are still written to the mapping, but may be lost.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        buffer.force();
+        names.close();
+        channel.close();
+    }
+}
@@ -0,0 +1,172 @@
+package com.sproutsocial.metrics;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.common.collect.ImmutableSortedMap;
+
+/**
+ * Created on 10/19/26
+ *
+ * Attributes time to the instrumented calls that actually spent it.
+ *
+ * Each thread keeps a stack of its active instrumented calls. When a call ends,
+ * its duration is added to its parent's child time, and its self time, the
+ * duration minus its children's, is recorded on its node in a shared call tree.
+ * A node is a path of names from a root call, so the same name under different
+ * callers is kept apart.
+ *
+ * A call costs a thread local lookup, a map lookup for its node and two
+ * {@link LongAdder} adds. Profiling is off unless enabled with
+ * {@link Instrumentor.Builder#callTreeProfiling(boolean)}, and then costs nothing.
+ *
+ * The tree is bounded, once it has {@code maxNodes} nodes, calls on new paths
+ * aren't tracked and their time stays in their parent's self time.
+ */
+public final class CallTreeProfiler {
+
+    /* package */ static final int DEFAULT_MAX_NODES = 10_000;
+
+    private final int maxNodes;
+    private final AtomicInteger nodes = new AtomicInteger();
+    private final ThreadLocal<Stack> stacks = ThreadLocal.withInitial(Stack::new);
+    private volatile Node root = new Node(null);
+
+    /* package */ CallTreeProfiler(int maxNodes) {
+        this.maxNodes = maxNodes;
+    }
+
+    /* package */ void enter(String name) {
+        final Stack stack = stacks.get();
+        final Node parent = stack.depth == 0 ? root : stack.nodes[stack.depth - 1];
+        stack.push(parent == null ? null : child(parent, name));
+    }
+
+    /* package */ void exit(long durationNanos) {
+        final Stack stack = stacks.get();
+        if (stack.depth == 0) {
+            return;
+        }
+        final int top = --stack.depth;
+        final Node node = stack.nodes[top];
+        stack.nodes[top] = null;
+        if (node == null) {
+            return;
+        }
+        node.totalNanos.add(durationNanos);
+        node.selfNanos.add(durationNanos - stack.childNanos[top]);
+        if (top > 0) {
+            stack.childNanos[top - 1] += durationNanos;
+        }
+    }
+
+    private Node child(Node parent, String name) {
+        final Node child = parent.children.get(name);
+        if (child != null) {
+            return child;
+        }
+        if (nodes.get() >= maxNodes) {
+            return null;
+        }
+        return parent.children.computeIfAbsent(name, childName -> {
+            nodes.incrementAndGet();
+            return new Node(childName);
+        });
+    }
+
+    /**
+     * Writes the tree in the collapsed stack format used by flame graph tools,
+     * one {@code root;child;grandchild selfNanos} line per path with self time.
+     */
+    public void writeCollapsedStacks(Appendable out) throws IOException {
+        final StringBuilder path = new StringBuilder();
+        for (Node child : root.children.values()) {
+            writeCollapsed(child, path, out);
+        }
+    }
+
+    private static void writeCollapsed(Node node, StringBuilder path, Appendable out) throws IOException {
+        final int length = path.length();
+        if (length > 0) {
+            path.append(';');
+        }
+        path.append(node.name.replace(';', '_'));
+        final long self = node.selfNanos.sum();
+        if (self > 0) {
+            out.append(path).append(' ').append(Long.toString(self)).append('\n');
+        }
+        for (Node child : node.children.values()) {
+            writeCollapsed(child, path, out);
+        }
+        path.setLength(length);
+    }
+
+    /**
+     * @return the self time of every profiled name in nanoseconds, across all of its callers
+     */
+    public ImmutableSortedMap<String, Long> getSelfNanos() {
+        final Map<String, Long> totals = new TreeMap<>();
+        sum(root, totals, true);
+        return ImmutableSortedMap.copyOf(totals);
+    }
+
+    /**
+     * @return the total time of every profiled name in nanoseconds, across all of its
+     * callers. Recursive names count their nested calls more than once.
+     */
+    public ImmutableSortedMap<String, Long> getTotalNanos() {
+        final Map<String, Long> totals = new TreeMap<>();
+        sum(root, totals, false);
+        return ImmutableSortedMap.copyOf(totals);
+    }
+
+    private static void sum(Node node, Map<String, Long> totals, boolean self) {
+        for (Node child : node.children.values()) {
+            final long nanos = self ? child.selfNanos.sum() : child.totalNanos.sum();
+            totals.merge(child.name, nanos, Long::sum);
+            sum(child, totals, self);
+        }
+    }
+
+    /**
+     * Starts a new tree. Calls in flight when the tree is reset are
+     * recorded in the old tree.
+     */
+    public void reset() {
+        nodes.set(0);
+        root = new Node(null);
+    }
+
+    private static final class Node {
+        private final String name;
+        private final ConcurrentMap<String, Node> children = new ConcurrentHashMap<>();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAdder selfNanos = new LongAdder();
+
+        Node(String name) {
+            this.name = name;
+        }
+    }
+
+    private static final class Stack {
+        private Node[] nodes = new Node[16];
+        private long[] childNanos = new long[16];
+        private int depth;
+
+        void push(Node node) {
+            if (depth == nodes.length) {
+                nodes = Arrays.copyOf(nodes, depth * 2);
+                childNanos = Arrays.copyOf(childNanos, depth * 2);
+            }
+            nodes[depth] = node;
+            childNanos[depth] = 0;
+            depth++;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.sproutsocial.metrics;
+
+import java.util.function.Supplier;
+
+import com.codahale.metrics.Clock;
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.ExponentiallyDecayingReservoir;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+
+/**
+ * Created on 10/19/26
+ *
+ * Looks up meters, timers and histograms that keep time with an instrumentor's {@link Clock}.
+ *
+ * {@link MetricRegistry#meter(String)} and {@link MetricRegistry#timer(String)}
+ * always use the default clock, so with any other clock the metrics are built
+ * here and registered, unless something sharing the registry got there first.
+ *
+ * {@link MetricRegistry#register(String, Metric)} throws when the name is taken,
+ * and the registry's own lookups catch that when two threads race to add a name.
+ * Rather than try and catch, every lookup here reads the name first, a plain
+ * concurrent map read, and only adds it under the registry's lock after reading
+ * again, so each name is added once and nothing is thrown.
+ */
+/* package */ final class ClockedMetrics {
+
+    private static final int DEFAULT_RESERVOIR_SIZE = 1028;
+    private static final double DEFAULT_RESERVOIR_ALPHA = 0.015;
+
+    private ClockedMetrics() {}
+
+    static Counter counter(MetricRegistry metricRegistry, String name) {
+        return getOrAdd(metricRegistry, name, () -> metricRegistry.counter(name));
+    }
+
+    static Meter meter(MetricRegistry metricRegistry, String name, Clock clock) {
+        return clock == Clock.defaultClock() ?
+                getOrAdd(metricRegistry, name, () -> metricRegistry.meter(name)) :
+                register(metricRegistry, name, new Meter(clock));
+    }
+
+    static Timer timer(MetricRegistry metricRegistry, String name, Clock clock) {
+        return clock == Clock.defaultClock() ?
+                getOrAdd(metricRegistry, name, () -> metricRegistry.timer(name)) :
+                register(metricRegistry, name, new Timer(reservoir(clock), clock));
+    }
+
+    static Histogram histogram(MetricRegistry metricRegistry, String name, Clock clock) {
+        return clock == Clock.defaultClock() ?
+                getOrAdd(metricRegistry, name, () -> metricRegistry.histogram(name)) :
+                register(metricRegistry, name, new Histogram(reservoir(clock)));
+    }
+
+    static ExponentiallyDecayingReservoir reservoir(Clock clock) {
+        return new ExponentiallyDecayingReservoir(DEFAULT_RESERVOIR_SIZE, DEFAULT_RESERVOIR_ALPHA, clock);
+    }
+
+    /**
+     * registers {@code metric}, unless another instrumentor
+     * sharing the registry has already registered one
+     *
+     * @return the registered metric, or the one that was already registered
+     */
+    static <T extends Metric> T register(MetricRegistry metricRegistry, String name, T metric) {
+        return getOrAdd(metricRegistry, name, () -> metricRegistry.register(name, metric));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends Metric> T getOrAdd(MetricRegistry metricRegistry, String name, Supplier<T> add) {
+        final Metric registered = metricRegistry.getMetrics().get(name);
+        if (registered != null) {
+            return (T) registered;
+        }
+        synchronized (metricRegistry) {
+            final Metric raced = metricRegistry.getMetrics().get(name);
+            return raced != null ? (T) raced : add.get();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.sproutsocial.metrics;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+
+/**
+ * Created on 10/19/26
+ *
+ * Single-flight execution for a name. The first caller for a key runs the
+ * call, and callers that arrive with an equal key while it's running wait for
+ * its result instead of running it again.
+ *
+ * Joining or starting a flight is a single {@link ConcurrentHashMap#putIfAbsent},
+ * which is a compare-and-set when the key isn't contended. A flight is removed
+ * as soon as its call completes, so the map only holds calls in flight.
+ *
+ * Once removed, a flight is closed to new waiters in the same compare-and-set
+ * that reads how many joined it, so the waiters histogram counts exactly the
+ * callers that shared its result. A caller that found the flight but lost the
+ * race with closing it starts or joins the next flight instead.
+ */
+/* package */ final class Coalescer {
+
+    final Meter coalesced;
+    final Histogram waiters;
+
+    private final ConcurrentMap<Object, Flight> flights = new ConcurrentHashMap<>();
+
+    Coalescer(String name, MetricRegistry metricRegistry) {
+        this.coalesced = metricRegistry.meter(MetricRegistry.name(name, "coalesced"));
+        this.waiters = metricRegistry.histogram(MetricRegistry.name(name, "coalesced", "waiters"));
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> T call(Object key, Callable<T> callable) throws Exception {
+        final Flight flight = new Flight();
+        Flight existing;
+        while ((existing = flights.putIfAbsent(key, flight)) != null) {
+            if (existing.join()) {
+                coalesced.mark();
+                return (T) existing.await();
+            }
+            // closed between finding it and joining it, it's already been removed
+        }
+
+        try {
+            final T result = callable.call();
+            flight.result.complete(result);
+            return result;
+        } catch (Throwable e) {
+            flight.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            flights.remove(key, flight);
+            waiters.update(flight.close());
+        }
+    }
+
+    private static final class Flight {
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+        private static final int CLOSED = -1;
+
+        private final AtomicInteger waiters = new AtomicInteger();
+
+        /**
+         * @return false if the flight has been closed, and has to be left alone
+         */
+        boolean join() {
+            int current;
+            do {
+                current = waiters.get();
+                if (current == CLOSED) {
+                    return false;
+                }
+            } while (!waiters.compareAndSet(current, current + 1));
+            return true;
+        }
+
+        /**
+         * @return how many callers joined, no more can after this
+         */
+        int close() {
+            return waiters.getAndSet(CLOSED);
+        }
+
+        Object await() throws Exception {
+            try {
+                return result.get();
+            } catch (ExecutionException e) {
+                final Throwable cause = e.getCause();
+                if (cause instanceof Exception) {
+                    throw (Exception) cause;
+                }
+                throw (Error) cause;
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.sproutsocial.metrics;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.concurrent.locks.LockSupport;
+
+import com.codahale.metrics.Clock;
+
+/**
+ * Created on 10/19/26
+ *
+ * A {@link Clock} whose tick is published by a background thread every
+ * {@code resolution}, so reading it is a volatile read rather than a call
+ * to {@link System#nanoTime()}.
+ *
+ * Durations are only accurate to the resolution, calls shorter than it are
+ * mostly recorded as taking no time at all. Use it for very hot operations
+ * where that's good enough, with a resolution well below their latency
+ * objectives and health check windows.
+ */
+public final class CoarseClock extends Clock implements Closeable {
+
+    private final long resolutionNanos;
+    private final Thread publisher;
+    private volatile long tick = System.nanoTime();
+    private volatile boolean running = true;
+
+    private CoarseClock(Duration resolution) {
+        this.resolutionNanos = resolution.toNanos();
+        if (resolutionNanos <= 0) {
+            throw new IllegalArgumentException("resolution must be positive, got " + resolution);
+        }
+        this.publisher = new Thread(this::publish, "instrumentor-coarse-clock");
+        publisher.setDaemon(true);
+    }
+
+    /**
+     * starts a clock that's published every {@code resolution}
+     */
+    public static CoarseClock start(Duration resolution) {
+        final CoarseClock clock = new CoarseClock(resolution);
+        clock.publisher.start();
+        return clock;
+    }
+
+    @Override
+    public long getTick() {
+        return tick;
+    }
+
+    private void publish() {
+        while (running) {
+            tick = System.nanoTime();
+            LockSupport.parkNanos(this, resolutionNanos);
+        }
+    }
+
+    /**
+     * stops publishing, the tick stays where it was
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(publisher);
+    }
+}
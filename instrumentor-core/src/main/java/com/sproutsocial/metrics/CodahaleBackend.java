@@ -0,0 +1,194 @@
+package com.sproutsocial.metrics;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+import com.codahale.metrics.Clock;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Metered;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.health.HealthCheckRegistry;
+import com.sproutsocial.metrics.healthchecks.HealthChecks;
+
+/**
+ * Created on 10/19/26
+ *
+ * The default {@link MetricsBackend}, records into a {@link MetricRegistry}
+ * and registers health checks with a {@link HealthCheckRegistry}.
+ *
+ * Meters and timers tick on the given {@link Clock}, see {@link ClockedMetrics}.
+ */
+public final class CodahaleBackend implements MetricsBackend {
+
+    private final MetricRegistry metricRegistry;
+    private final HealthCheckRegistry healthCheckRegistry;
+    private final Clock clock;
+    private final Set<String> healthChecks = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param healthCheckRegistry may be null, to register no health checks
+     */
+    public CodahaleBackend(MetricRegistry metricRegistry, HealthCheckRegistry healthCheckRegistry) {
+        this(metricRegistry, healthCheckRegistry, Clock.defaultClock());
+    }
+
+    /**
+     * @param healthCheckRegistry may be null, to register no health checks
+     */
+    public CodahaleBackend(MetricRegistry metricRegistry, HealthCheckRegistry healthCheckRegistry, Clock clock) {
+        this.metricRegistry = metricRegistry;
+        this.healthCheckRegistry = healthCheckRegistry;
+        this.clock = clock;
+    }
+
+    public MetricRegistry getMetricRegistry() {
+        return metricRegistry;
+    }
+
+    /**
+     * @return the health check registry, null if there isn't one
+     */
+    public HealthCheckRegistry getHealthCheckRegistry() {
+        return healthCheckRegistry;
+    }
+
+    @Override
+    public Counter counter(String name) {
+        return new CodahaleCounter(ClockedMetrics.counter(metricRegistry, name));
+    }
+
+    @Override
+    public Meter meter(String name) {
+        return new CodahaleMeter(ClockedMetrics.meter(metricRegistry, name, clock));
+    }
+
+    @Override
+    public Timer timer(String name) {
+        return new CodahaleTimer(ClockedMetrics.timer(metricRegistry, name, clock));
+    }
+
+    @Override
+    public boolean registerGauge(String name, Supplier<? extends Number> gauge) {
+        return register(name, (Gauge<Number>) gauge::get);
+    }
+
+    /**
+     * {@link HealthCheckRegistry#getNames()} copies every name, so names this backend has
+     * registered are kept here. The registry keeps the first health check for a name, so
+     * one registered by something else sharing it first stays registered.
+     */
+    @Override
+    public boolean registerHealthCheck(String name, DoubleSupplier value, double ceiling) {
+        if (healthCheckRegistry == null || !healthChecks.add(name)) {
+            return false;
+        }
+        healthCheckRegistry.register(name, HealthChecks.forDoubleGauge(value::getAsDouble, Optional.of(ceiling)));
+        return true;
+    }
+
+    /**
+     * Registers any Codahale metric, unless {@code name} already has one
+     *
+     * @return whether the metric was registered
+     */
+    /* package */ boolean register(String name, Metric metric) {
+        return ClockedMetrics.register(metricRegistry, name, metric) == metric;
+    }
+
+    /**
+     * @return {@code meter}, or the meter another instrumentor sharing the registry registered first
+     */
+    /* package */ Meter register(String name, com.codahale.metrics.Meter meter) {
+        return new CodahaleMeter(ClockedMetrics.register(metricRegistry, name, meter));
+    }
+
+    /**
+     * @return {@code timer}, or the timer another instrumentor sharing the registry registered first
+     */
+    /* package */ Timer register(String name, com.codahale.metrics.Timer timer) {
+        return new CodahaleTimer(ClockedMetrics.register(metricRegistry, name, timer));
+    }
+
+    /**
+     * @return the Codahale meter or timer behind a handle from this backend,
+     * null for handles from any other backend
+     */
+    /* package */ static Metered metered(Object handle) {
+        if (handle instanceof CodahaleMeter) {
+            return ((CodahaleMeter) handle).meter;
+        }
+        if (handle instanceof CodahaleTimer) {
+            return ((CodahaleTimer) handle).timer;
+        }
+        return null;
+    }
+
+    private static final class CodahaleCounter implements Counter {
+        private final com.codahale.metrics.Counter counter;
+
+        CodahaleCounter(com.codahale.metrics.Counter counter) {
+            this.counter = counter;
+        }
+
+        @Override
+        public void inc() {
+            counter.inc();
+        }
+
+        @Override
+        public void dec() {
+            counter.dec();
+        }
+
+        @Override
+        public long getCount() {
+            return counter.getCount();
+        }
+    }
+
+    private static final class CodahaleMeter implements Meter {
+        private final com.codahale.metrics.Meter meter;
+
+        CodahaleMeter(com.codahale.metrics.Meter meter) {
+            this.meter = meter;
+        }
+
+        @Override
+        public void mark() {
+            meter.mark();
+        }
+
+        @Override
+        public void mark(long n) {
+            meter.mark(n);
+        }
+
+        @Override
+        public long getCount() {
+            return meter.getCount();
+        }
+    }
+
+    private static final class CodahaleTimer implements Timer {
+        private final com.codahale.metrics.Timer timer;
+
+        CodahaleTimer(com.codahale.metrics.Timer timer) {
+            this.timer = timer;
+        }
+
+        @Override
+        public void update(long nanos) {
+            timer.update(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public long getCount() {
+            return timer.getCount();
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.sproutsocial.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Created on 10/19/26
+ *
+ * Exact call and error counts over a sliding window of whole seconds.
+ *
+ * Counts are kept in a ring of per-second buckets, striped by thread so
+ * concurrent callers don't contend on the same cache line. Each slot packs
+ * the second it counts, the calls and the errors into one long, so recording
+ * is a single uncontended CAS that also starts the slot over when its second
+ * has passed. Reading sums {@code window} buckets in each stripe.
+ *
+ * Each slot counts up to 4 million calls a second, per stripe. Calls past
+ * that are dropped rather than carrying into the error count, so a saturated
+ * slot undercounts but keeps the error rate of the calls it did count.
+ */
+/* package */ final class ErrorWindow {
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final int STRIPES = Integer.highestOneBit(
+            Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), 16)) * 2 - 1
+    );
+    private static final int LONGS_PER_CACHE_LINE = 8;
+
+    private static final int COUNT_BITS = 22;
+    private static final int SECOND_BITS = 64 - 2 * COUNT_BITS;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+    private static final long SECOND_MASK = (1L << SECOND_BITS) - 1;
+    private static final long CALL = 1L;
+    private static final long ERROR = 1L << COUNT_BITS;
+    private static final int SECOND_SHIFT = 2 * COUNT_BITS;
+    private static final int MAX_STALLED_LAPS = 8;
+
+    private final int window;
+    private final int buckets;
+    private final int stride;
+    private final AtomicLongArray slots;
+
+    /**
+     * @param window the number of seconds to count over, including the current one
+     */
+    ErrorWindow(int window) {
+        if (window <= 0) {
+            throw new IllegalArgumentException("the window must be at least a second, got " + window);
+        }
+        this.window = window;
+        this.buckets = window + 1;
+        this.stride = (buckets + LONGS_PER_CACHE_LINE - 1) / LONGS_PER_CACHE_LINE * LONGS_PER_CACHE_LINE;
+        this.slots = new AtomicLongArray(stride * STRIPES);
+    }
+
+    void record(long nanos, boolean error) {
+        final long second = Math.floorDiv(nanos, NANOS_PER_SECOND);
+        final long stamp = (second & SECOND_MASK) << SECOND_SHIFT;
+        final int stripe = (int) Thread.currentThread().getId() & (STRIPES - 1);
+        final int index = stripe * stride + (int) Math.floorMod(second, (long) buckets);
+        final long increment = error ? CALL | ERROR : CALL;
+
+        while (true) {
+            final long current = slots.get(index);
+            final long currentStamp = current & (SECOND_MASK << SECOND_SHIFT);
+            final long next;
+            if (currentStamp == stamp) {
+                if ((current & COUNT_MASK) == COUNT_MASK) {
+                    // errors never outnumber calls, so the call count saturates first
+                    return;
+                }
+                next = current + increment;
+            } else if (isNewer(currentStamp, stamp)) {
+                // this thread stalled for a whole lap of the ring, its second is gone
+                return;
+            } else {
+                next = stamp | increment;
+            }
+            if (slots.compareAndSet(index, current, next)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return the fraction of calls in the window that were errors, or
+     * {@link Double#NaN} if there were fewer than {@code minimumCalls}
+     */
+    double errorRate(long nowNanos, long minimumCalls) {
+        final long[] counts = counts(nowNanos);
+        return counts[0] == 0 || counts[0] < minimumCalls ? Double.NaN : (double) counts[1] / counts[0];
+    }
+
+    /**
+     * @return the calls and errors in the window ending at {@code nowNanos}
+     */
+    long[] counts(long nowNanos) {
+        final long now = Math.floorDiv(nowNanos, NANOS_PER_SECOND);
+        long calls = 0;
+        long errors = 0;
+        for (long second = now - window + 1; second <= now; second++) {
+            final long stamp = (second & SECOND_MASK) << SECOND_SHIFT;
+            final int bucket = (int) Math.floorMod(second, (long) buckets);
+            for (int stripe = 0; stripe < STRIPES; stripe++) {
+                final long slot = slots.get(stripe * stride + bucket);
+                if ((slot & (SECOND_MASK << SECOND_SHIFT)) == stamp) {
+                    calls += slot & COUNT_MASK;
+                    errors += (slot >>> COUNT_BITS) & COUNT_MASK;
+                }
+            }
+        }
+        return new long[]{calls, errors};
+    }
+
+    /**
+     * Stamps wrap every 12 days, so a slot that hasn't been written in a long
+     * time can look newer than it is. Only a slot a few laps of the ring ahead
+     * is taken to be newer, anything else is stale and can be started over.
+     */
+    private boolean isNewer(long stamp, long than) {
+        final long difference = ((stamp - than) >>> SECOND_SHIFT) & SECOND_MASK;
+        return difference != 0 && difference <= (long) MAX_STALLED_LAPS * buckets;
+    }
+}
@@ -0,0 +1,131 @@
+package com.sproutsocial.metrics;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Created on 10/19/26
+ *
+ * A race between a first attempt and an optional hedge. The first attempt
+ * to succeed wins. If every attempt fails, the first failure is thrown
+ * with the others suppressed.
+ */
+/* package */ final class HedgedCall<T> {
+
+    static final int PRIMARY = 0;
+    static final int HEDGE = 1;
+
+    private final Callable<T> callable;
+    private final ExecutorService executor;
+    private final CompletableFuture<T> result = new CompletableFuture<>();
+    private final AtomicInteger running = new AtomicInteger(1);
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private final Future<?>[] attempts = new Future<?>[2];
+    private final AtomicInteger winner = new AtomicInteger(-1);
+
+    HedgedCall(Callable<T> callable, ExecutorService executor) {
+        this.callable = callable;
+        this.executor = executor;
+    }
+
+    /**
+     * @throws RejectedExecutionException if the executor won't run the first attempt
+     */
+    void start() {
+        attempts[PRIMARY] = executor.submit(() -> attempt(PRIMARY));
+    }
+
+    /**
+     * @return true if the first attempt finished within the delay
+     */
+    boolean await(long delayNanos) throws InterruptedException {
+        try {
+            result.get(delayNanos, TimeUnit.NANOSECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            return result.isDone();
+        }
+        return true;
+    }
+
+    /**
+     * @return false if the race was already over, or the executor rejected the hedge
+     */
+    boolean hedge() {
+        if (running.getAndUpdate(count -> count == 0 ? 0 : count + 1) == 0) {
+            return false;
+        }
+        try {
+            attempts[HEDGE] = executor.submit(() -> attempt(HEDGE));
+            return true;
+        } catch (RejectedExecutionException e) {
+            finished(e);
+            return false;
+        }
+    }
+
+    T get() throws Exception {
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw (Error) cause;
+        }
+    }
+
+    int getWinner() {
+        return winner.get();
+    }
+
+    /**
+     * @return the number of attempts that were still running and got cancelled
+     */
+    int cancelLosers() {
+        int cancelled = 0;
+        for (int i = 0; i < attempts.length; i++) {
+            final Future<?> attempt = attempts[i];
+            if (i != winner.get() && attempt != null && attempt.cancel(true)) {
+                cancelled++;
+            }
+        }
+        return cancelled;
+    }
+
+    private void attempt(int attempt) {
+        final T value;
+        try {
+            value = callable.call();
+        } catch (Throwable e) {
+            finished(e);
+            return;
+        }
+        if (winner.compareAndSet(-1, attempt)) {
+            result.complete(value);
+        }
+        running.decrementAndGet();
+    }
+
+    private void finished(Throwable e) {
+        try {
+            // attempts can throw the same instance, a memoized or cached failure,
+            // which can't suppress itself
+            if (!failure.compareAndSet(null, e) && failure.get() != e) {
+                failure.get().addSuppressed(e);
+            }
+        } finally {
+            if (running.decrementAndGet() == 0) {
+                result.completeExceptionally(failure.get());
+            }
+        }
+    }
+}
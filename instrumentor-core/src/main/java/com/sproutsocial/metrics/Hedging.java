@@ -0,0 +1,78 @@
+package com.sproutsocial.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.codahale.metrics.MetricRegistry;
+import com.sproutsocial.metrics.histograms.HistogramSnapshot;
+import com.sproutsocial.metrics.histograms.LatencyHistogram;
+
+/**
+ * Created on 10/19/26
+ *
+ * The state shared by every hedged call to a name: when to hedge,
+ * how many hedges are left in the budget, and what happened to them.
+ *
+ * The hedge delay is the p95 of the name's recent calls, from its {@link LatencyHistogram}.
+ * Taking a snapshot copies the histogram, so the delay is refreshed at most once a second,
+ * from the calls since the last refresh, as long as there were at least {@link #MIN_SAMPLES}
+ * of them. Until then the previous delay stands, and there's no hedging before the first.
+ *
+ * The budget is a token bucket, every call deposits its hedge fraction and
+ * every hedge withdraws one token, so hedges stay under that fraction of
+ * calls with bursts of up to {@link #MAX_TOKENS}.
+ */
+/* package */ final class Hedging {
+
+    static final int MIN_SAMPLES = 100;
+    static final double MAX_TOKENS = 10d;
+
+    private static final long REFRESH_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long NO_DELAY = -1L;
+
+    final MetricsBackend.Meter hedges;
+    final MetricsBackend.Meter won;
+    final MetricsBackend.Meter cancelled;
+    final MetricsBackend.Meter throttled;
+
+    private final LatencyHistogram latency;
+    private final TokenBucket budget = new TokenBucket(MAX_TOKENS, 0d);
+    private final AtomicLong nextRefreshNanos = new AtomicLong(System.nanoTime());
+    private volatile HistogramSnapshot sinceRefresh;
+    private volatile long delayNanos = NO_DELAY;
+
+    Hedging(String name, LatencyHistogram latency, MetricsBackend backend) {
+        this.latency = latency;
+        this.sinceRefresh = latency.snapshot();
+        this.hedges = backend.meter(MetricRegistry.name(name, "hedges"));
+        this.won = backend.meter(MetricRegistry.name(name, "hedges", "won"));
+        this.cancelled = backend.meter(MetricRegistry.name(name, "hedges", "cancelled"));
+        this.throttled = backend.meter(MetricRegistry.name(name, "hedges", "throttled"));
+    }
+
+    /**
+     * @return how long to wait for the first attempt before hedging,
+     * or a negative number if there aren't enough samples yet
+     */
+    long delayNanos() {
+        final long now = System.nanoTime();
+        final long nextRefresh = nextRefreshNanos.get();
+        if (now - nextRefresh >= 0 && nextRefreshNanos.compareAndSet(nextRefresh, now + REFRESH_INTERVAL_NANOS)) {
+            final HistogramSnapshot current = latency.snapshot();
+            final HistogramSnapshot recent = current.minus(sinceRefresh);
+            if (recent.getCount() >= MIN_SAMPLES) {
+                delayNanos = recent.getValue(0.95);
+                sinceRefresh = current;
+            }
+        }
+        return delayNanos;
+    }
+
+    void deposit(double hedgeFraction) {
+        budget.deposit(hedgeFraction);
+    }
+
+    boolean tryWithdraw() {
+        return budget.tryWithdraw();
+    }
+}
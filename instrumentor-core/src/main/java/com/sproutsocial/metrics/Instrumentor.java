@@ -1,20 +1,44 @@
 package com.sproutsocial.metrics;
 
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.DoubleSupplier;
+import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
 
-import com.codahale.metrics.Counter;
+import com.codahale.metrics.Clock;
 import com.codahale.metrics.Gauge;
-import com.codahale.metrics.Meter;
 import com.codahale.metrics.Metered;
 import com.codahale.metrics.MetricRegistry;
-import com.codahale.metrics.Timer;
-import com.codahale.metrics.health.HealthCheck;
 import com.codahale.metrics.health.HealthCheckRegistry;
 import com.google.common.base.Throwables;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheBuilderSpec;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedMap;
 import com.sproutsocial.metrics.gauges.Gauges;
-import com.sproutsocial.metrics.healthchecks.HealthChecks;
+import com.sproutsocial.metrics.histograms.HistogramSnapshot;
+import com.sproutsocial.metrics.histograms.Histograms;
 
 /**
  * Created on 4/17/15
@@ -24,28 +48,56 @@ import com.sproutsocial.metrics.healthchecks.HealthChecks;
 public class Instrumentor {
 
     /* package */ static final double NO_THRESHOLD_DEFINED = -1d;
+    /* package */ static final long NO_LATENCY_THRESHOLD_DEFINED = -1L;
+    /* package */ static final long NO_TIMEOUT_DEFINED = -1L;
+    private static final double FIFTEEN_MINUTES_IN_SECONDS = TimeUnit.MINUTES.toSeconds(15);
+    private static final int DEFAULT_ERROR_RATE_WINDOW_SECONDS = 60;
 
+    private final MetricsBackend backend;
+    private final CodahaleBackend codahale;
     private final MetricRegistry metricRegistry;
     private final HealthCheckRegistry healthCheckRegistry;
+    private final Clock clock;
     private final Predicate<Throwable> exceptionFilter;
-
-
-    private class Context {
-        private Meter errorMeter;
-        private Timer timer;
-        private Counter inFlight;
-
-        Context(String name) {
-            errorMeter = metricRegistry.meter(name + ".errors");
-            timer = metricRegistry.timer(name);
-            inFlight = metricRegistry.counter(name + ".inFlight");
-        }
-    }
+    private final boolean rollupByClass;
+    private final ImmutableSet<String> rollupPrefixes;
+    private final ConcurrentMap<String, Operation> operations = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Rollup> rollups = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Hedging> hedgings = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Retries> retries = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Coalescer> coalescers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, MetricsBackend.Meter> timeoutMeters = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, PayloadSizes> payloadSizes = new ConcurrentHashMap<>();
+    private final SnapshotCursor defaultCursor;
+    private final CallTreeProfiler profiler;
+    private final int slowCalls;
+    private final long slowCallsWindowNanos;
+    private final CallJournal journal;
+    private final StateStore stateStore;
+    private final int errorRateWindowSeconds;
+    private final long healthCheckMinimumCalls;
+    private final long flightRecorderThresholdNanos;
+    private final double overheadBudget;
+    private final SamplingRules samplingRules = new SamplingRules();
+    private final TimerWheel timerWheel = TimerWheel.shared();
 
     public static class Builder {
         private MetricRegistry metricRegistry = new MetricRegistry();
         private HealthCheckRegistry healthCheckRegistry = null;
+        private MetricsBackend backend = null;
+        private Clock clock = Clock.defaultClock();
         private Predicate<Throwable> filter = ExceptionFilters.markAllExceptions();
+        private boolean rollupByClass = false;
+        private Set<String> rollupPrefixes = new LinkedHashSet<>();
+        private boolean callTreeProfiling = false;
+        private int slowCalls = 0;
+        private Duration slowCallsWindow = Duration.ofMinutes(1);
+        private CallJournal journal = null;
+        private StateStore stateStore = null;
+        private Duration errorRateWindow = null;
+        private long healthCheckMinimumCalls = 0;
+        private Duration flightRecorderThreshold = null;
+        private double overheadBudget = 0;
 
         private Builder() {}
 
@@ -59,13 +111,155 @@ public class Instrumentor {
             return this;
         }
 
+        /**
+         * Record calls, and register gauges and health checks, with {@code backend}
+         * rather than a {@link CodahaleBackend} over the metric and health check
+         * registries. Retries, coalescing, payload sizes and latency objectives
+         * keep their meters and histograms in the metric registry whatever the
+         * backend. Without a {@link #metricRegistry(MetricRegistry)} that's a
+         * registry nothing reports, so give it one that is to see them.
+         *
+         * Backends other than {@link CodahaleBackend} don't keep rates, so
+         * there are no {@code *_pct} gauges or rollup metrics, a
+         * {@link #stateStore(StateStore)} can't be used, and error rate health
+         * checks count the calls in an {@link #errorRateWindow(Duration)} of
+         * a minute unless another window is configured.
+         */
+        public Builder backend(MetricsBackend backend) {
+            this.backend = backend;
+            return this;
+        }
+
+        /**
+         * Time calls, and tick meters and timers, with {@code clock} rather than
+         * {@link System#nanoTime()}. Use a {@link CoarseClock} to time very hot
+         * operations cheaply, or a {@link ManualClock} in tests. A
+         * {@link CallJournal} expects ticks that follow {@link System#nanoTime()}.
+         */
+        public Builder clock(Clock clock) {
+            this.clock = clock;
+            return this;
+        }
+
         public Builder exceptionFilter(Predicate<Throwable> filter) {
             this.filter = filter;
             return this;
         }
 
+        /**
+         * Roll every name up into its parent, the name minus its last segment.
+         * For names built with {@link Names#name} that's the class, so
+         * {@code com.mycompany.UserService.getUser} is counted towards
+         * {@code com.mycompany.UserService.rollup}.
+         */
+        public Builder rollupByClass(boolean rollupByClass) {
+            this.rollupByClass = rollupByClass;
+            return this;
+        }
+
+        /**
+         * Roll every name under each prefix up into {@code prefix.rollup}
+         */
+        public Builder rollupPrefixes(String... prefixes) {
+            this.rollupPrefixes.addAll(ImmutableSet.copyOf(prefixes));
+            return this;
+        }
+
+        /**
+         * Keep a per-thread stack of instrumented calls, to attribute self time
+         * to each name and build a call tree, see {@link CallTreeProfiler}
+         */
+        public Builder callTreeProfiling(boolean callTreeProfiling) {
+            this.callTreeProfiling = callTreeProfiling;
+            return this;
+        }
+
+        /**
+         * Keep the {@code count} slowest calls to every name in the current
+         * and previous minute, see {@link Instrumentor#getSlowCalls(String)}
+         */
+        public Builder slowCalls(int count) {
+            return slowCalls(count, Duration.ofMinutes(1));
+        }
+
+        public Builder slowCalls(int count, Duration window) {
+            this.slowCalls = count;
+            this.slowCallsWindow = window;
+            return this;
+        }
+
+        /**
+         * Append every call to a memory-mapped journal, for replaying with
+         * the {@code instrumentor-journal} reader. The caller owns the journal
+         * and should close it after the instrumentor is done with it.
+         */
+        public Builder journal(CallJournal journal) {
+            this.journal = journal;
+            return this;
+        }
+
+        /**
+         * Restore each name's counts, rates and latency histogram from the
+         * store when it's first called, and save them back to it, so error
+         * rates survive restarts. The caller owns the store and should close
+         * it on shutdown.
+         */
+        public Builder stateStore(StateStore stateStore) {
+            this.stateStore = stateStore;
+            return this;
+        }
+
+        /**
+         * Have error rate health checks count the exact calls and errors in
+         * the last {@code window}, in one second buckets, rather than use the
+         * 15 minute rates. Each name's error rate in the window is also
+         * reported as {@code name.errors.window_pct}.
+         */
+        public Builder errorRateWindow(Duration window) {
+            this.errorRateWindow = window;
+            return this;
+        }
+
+        /**
+         * Keep error rate health checks healthy until a name has had at least
+         * {@code minimumCalls}, in the {@link #errorRateWindow(Duration)} if
+         * there is one, or an estimated 15 minutes of calls otherwise, so a
+         * couple of errors on a quiet name don't fail the check.
+         */
+        public Builder healthCheckMinimumCalls(long minimumCalls) {
+            this.healthCheckMinimumCalls = minimumCalls;
+            return this;
+        }
+
+        /**
+         * Emit a Java Flight Recorder event, {@code com.sproutsocial.metrics.InstrumentedCall},
+         * for every call that takes at least {@code threshold}, with the name, duration
+         * and whether it was an error. Events are only built while a recording has
+         * them enabled, otherwise a call just checks and moves on. Needs a JDK with
+         * Flight Recorder, 8u262 or later.
+         */
+        public Builder flightRecorderEvents(Duration threshold) {
+            this.flightRecorderThreshold = threshold;
+            return this;
+        }
+
+        /**
+         * Measure what recording each operation's calls costs, and downsample
+         * any operation whose calls cost more than {@code fraction} of their own
+         * duration to record, so with 0.01 an operation that takes 2 microseconds and costs
+         * 100ns to record is recorded 1 in 5 times. Names with a rule set with
+         * {@link Instrumentor#sample(String, double)} and friends keep the rule.
+         */
+        public Builder overheadBudget(double fraction) {
+            if (fraction <= 0) {
+                throw new IllegalArgumentException("an overhead budget must be positive, was " + fraction);
+            }
+            this.overheadBudget = fraction;
+            return this;
+        }
+
         public Instrumentor build() {
-            return new Instrumentor(metricRegistry, healthCheckRegistry, filter);
+            return new Instrumentor(this);
         }
     }
 
@@ -81,9 +275,44 @@ public class Instrumentor {
             MetricRegistry metricRegistry,
             HealthCheckRegistry healthCheckRegistry,
             Predicate<Throwable> exceptionFilter) {
-        this.metricRegistry = metricRegistry;
-        this.healthCheckRegistry = healthCheckRegistry;
-        this.exceptionFilter = exceptionFilter;
+        this(builder()
+                .metricRegistry(metricRegistry)
+                .healthCheckRegistry(healthCheckRegistry)
+                .exceptionFilter(exceptionFilter));
+    }
+
+    private Instrumentor(Builder builder) {
+        this.backend = builder.backend == null ?
+                new CodahaleBackend(builder.metricRegistry, builder.healthCheckRegistry, builder.clock) :
+                builder.backend;
+        this.codahale = backend instanceof CodahaleBackend ? (CodahaleBackend) backend : null;
+        this.metricRegistry = codahale == null ? builder.metricRegistry : codahale.getMetricRegistry();
+        this.healthCheckRegistry = codahale == null ? builder.healthCheckRegistry : codahale.getHealthCheckRegistry();
+        if (builder.stateStore != null && codahale == null) {
+            throw new IllegalArgumentException("a state store needs a CodahaleBackend, other backends don't keep rates");
+        }
+        this.clock = builder.clock;
+        this.exceptionFilter = builder.filter;
+        this.rollupByClass = builder.rollupByClass;
+        this.rollupPrefixes = ImmutableSet.copyOf(builder.rollupPrefixes);
+        this.defaultCursor = new SnapshotCursor(this);
+        this.profiler = builder.callTreeProfiling ?
+                new CallTreeProfiler(CallTreeProfiler.DEFAULT_MAX_NODES) :
+                null;
+        this.slowCalls = builder.slowCalls;
+        this.slowCallsWindowNanos = builder.slowCallsWindow.toNanos();
+        this.journal = builder.journal;
+        this.stateStore = builder.stateStore;
+        if (builder.errorRateWindow != null) {
+            this.errorRateWindowSeconds = Math.toIntExact(Math.max(1, builder.errorRateWindow.getSeconds()));
+        } else {
+            this.errorRateWindowSeconds = codahale == null ? DEFAULT_ERROR_RATE_WINDOW_SECONDS : 0;
+        }
+        this.healthCheckMinimumCalls = builder.healthCheckMinimumCalls;
+        this.flightRecorderThresholdNanos = builder.flightRecorderThreshold == null ?
+                -1 :
+                builder.flightRecorderThreshold.toNanos();
+        this.overheadBudget = builder.overheadBudget;
     }
 
     /**
@@ -94,31 +323,199 @@ public class Instrumentor {
     }
 
     /**
-     * @return the underlying {@link MetricRegistry}
+     * @return the underlying {@link MetricRegistry}, with a backend other than
+     * {@link CodahaleBackend} it only has the metrics the backend doesn't keep
      */
     public MetricRegistry getMetricRegistry() {
         return metricRegistry;
     }
 
+    /**
+     * @return where calls are recorded, a {@link CodahaleBackend} unless
+     * configured with {@link Builder#backend(MetricsBackend)}
+     */
+    public MetricsBackend getBackend() {
+        return backend;
+    }
+
+    /**
+     * @return the call tree, if profiling was enabled with {@link Builder#callTreeProfiling(boolean)}
+     */
+    public Optional<CallTreeProfiler> getCallTreeProfiler() {
+        return Optional.ofNullable(profiler);
+    }
+
+    /**
+     * Record every call to {@code prefix}, a name or the start of one up to a
+     * {@code .}, and the names under it, overriding any broader rule and the
+     * overhead budget. The longest matching rule applies to each name.
+     */
+    public void enable(String prefix) {
+        samplingRules.set(prefix, 1);
+    }
+
+    /**
+     * Record none of the calls to {@code prefix} and the names under it, calls
+     * still run but skip all instrumentation after one volatile read
+     */
+    public void disable(String prefix) {
+        samplingRules.set(prefix, 0);
+    }
+
+    /**
+     * Record about {@code fraction} of the calls to {@code prefix} and the names
+     * under it, chosen at random. Only recorded calls are counted, so calls,
+     * errors and in flight counts and rates are {@code fraction} of the real
+     * ones, while error percentages and latency percentiles stay representative.
+     */
+    public void sample(String prefix, double fraction) {
+        samplingRules.set(prefix, SamplingRules.sampleEvery(fraction));
+    }
+
+    /**
+     * Removes the rule set for exactly {@code prefix}, leaving its names to
+     * any broader rule or the overhead budget
+     */
+    public void clearSampling(String prefix) {
+        samplingRules.clear(prefix);
+    }
+
+    /**
+     * @return the fraction of calls to {@code name} that are recorded, 1 if it hasn't been called
+     */
+    public double getSampleRate(String name) {
+        final Operation operation = operations.get(name);
+        return operation == null ? 1 : operation.sampleRate();
+    }
+
+    /**
+     * @param buckets used when {@code name}'s sizes are first asked for, later calls get the same sizes
+     * @return where to record the sizes of {@code name}'s payloads, kept in the metric registry
+     * whatever the backend
+     */
+    /* package */ PayloadSizes payloadSizes(String name, long[] buckets) {
+        return getOrCreate(
+                payloadSizes,
+                name,
+                sizesName -> new PayloadSizes(sizesName, buckets, metricRegistry, clock)
+        );
+    }
+
+    /* package */ boolean capturesSlowCalls() {
+        return slowCalls > 0;
+    }
+
+    /**
+     * @return the slowest calls to {@code name} that finished in the current or previous window,
+     * slowest first, empty unless enabled with {@link Builder#slowCalls(int)}
+     */
+    public List<SlowCall> getSlowCalls(String name) {
+        final Operation operation = operations.get(name);
+        return operation == null || operation.slowCalls == null ?
+                Collections.emptyList() :
+                operation.slowCalls.get();
+    }
+
+    /**
+     * Writes the slowest calls to every name as a JSON object of
+     * name to calls, each with {@code timestamp} in epoch millis,
+     * {@code durationNanos}, {@code thread}, {@code error} and {@code context}
+     */
+    public void writeSlowCallsJson(Appendable out) throws IOException {
+        out.append('{');
+        boolean firstName = true;
+        for (String name : new TreeSet<>(operations.keySet())) {
+            final List<SlowCall> calls = getSlowCalls(name);
+            if (calls.isEmpty()) {
+                continue;
+            }
+            if (!firstName) {
+                out.append(',');
+            }
+            firstName = false;
+            Json.writeString(out, name);
+            out.append(":[");
+            for (int i = 0; i < calls.size(); i++) {
+                final SlowCall call = calls.get(i);
+                out.append(i == 0 ? "{" : ",{")
+                        .append("\"timestamp\":").append(Long.toString(call.getTimestampMillis()))
+                        .append(",\"durationNanos\":").append(Long.toString(call.getDurationNanos()))
+                        .append(",\"thread\":");
+                Json.writeString(out, call.getThreadName());
+                out.append(",\"error\":").append(Boolean.toString(call.isError()))
+                        .append(",\"context\":");
+                if (call.getContext().isPresent()) {
+                    Json.writeString(out, call.getContext().get());
+                } else {
+                    out.append("null");
+                }
+                out.append('}');
+            }
+            out.append(']');
+        }
+        out.append('}');
+    }
+
+    /**
+     * Takes a snapshot of every operation for the interval since the previous
+     * call to this method. Consumers that need their own intervals should use
+     * their own {@link #newSnapshotCursor()}.
+     *
+     * @return calls, errors, inFlight and latencies for every instrumented name
+     */
+    public InstrumentorSnapshot snapshot() {
+        return defaultCursor.snapshot();
+    }
+
+    /**
+     * @return a cursor whose first snapshot covers everything since the cursor was created
+     */
+    public SnapshotCursor newSnapshotCursor() {
+        return new SnapshotCursor(this);
+    }
+
+    /**
+     * @return every instrumented name's latencies since it was first called,
+     * to merge with other JVMs' with {@link Histograms#merge}
+     */
+    public ImmutableSortedMap<String, HistogramSnapshot> getLatencyHistograms() {
+        final ImmutableSortedMap.Builder<String, HistogramSnapshot> histograms = ImmutableSortedMap.naturalOrder();
+        for (Operation operation : operations.values()) {
+            histograms.put(operation.name, operation.latency.snapshot());
+        }
+        return histograms.build();
+    }
+
+    /* package */ Collection<Operation> getOperations() {
+        return operations.values();
+    }
+
+    /* package */ Collection<Rollup> getRollups() {
+        return rollups.values();
+    }
+
     private <T> Callable<T> instrumenting(
             Callable<T> callable,
             String name,
             Optional<Double> errorThreshold
     ) {
 
-        final Context context = createInstrumentationContext(name, errorThreshold);
+        final Operation operation = createInstrumentationContext(name, errorThreshold);
 
         return () -> {
-            context.inFlight.inc();
-            try (@SuppressWarnings("unused") Timer.Context ctx = context.timer.time()){
+            if (!operation.sampled()) {
+                return callable.call();
+            }
+            final CallEvent event = operation.beginEvent();
+            final long start = operation.begin();
+            boolean error = false;
+            try {
                 return callable.call();
             } catch (Exception e) {
-                if (exceptionFilter.test(e)) {
-                    context.errorMeter.mark();
-                }
+                error = exceptionFilter.test(e);
                 throw e;
             } finally {
-                context.inFlight.dec();
+                operation.end(start, error, event);
             }
         };
     }
@@ -128,20 +525,35 @@ public class Instrumentor {
             String name,
             Optional<Double> errorThreshold
     ) {
+        return instrumenting(callable, name, errorThreshold, null);
+    }
+
+    /**
+     * @param context describes the call if it's captured as a slow call, may be null
+     */
+    private <T> ThrowableCallable<T> instrumenting(
+            ThrowableCallable<T> callable,
+            String name,
+            Optional<Double> errorThreshold,
+            Supplier<String> context
+    ) {
 
-        final Context context = createInstrumentationContext(name, errorThreshold);
+        final Operation operation = createInstrumentationContext(name, errorThreshold);
 
         return () -> {
-            context.inFlight.inc();
-            try (@SuppressWarnings("unused") Timer.Context ctx = context.timer.time()){
+            if (!operation.sampled()) {
+                return callable.call();
+            }
+            final CallEvent event = operation.beginEvent();
+            final long start = operation.begin();
+            boolean error = false;
+            try {
                 return callable.call();
             } catch (Throwable e) {
-                if (exceptionFilter.test(e)) {
-                    context.errorMeter.mark();
-                }
+                error = exceptionFilter.test(e);
                 throw e;
             } finally {
-                context.inFlight.dec();
+                operation.end(start, error, context, event);
             }
         };
     }
@@ -152,19 +564,23 @@ public class Instrumentor {
             Optional<Double> errorThreshold
     ) {
 
-        final Context context = createInstrumentationContext(name, errorThreshold);
+        final Operation operation = createInstrumentationContext(name, errorThreshold);
 
         return () -> {
-            context.inFlight.inc();
-            try (@SuppressWarnings("unused") Timer.Context ctx = context.timer.time()){
+            if (!operation.sampled()) {
+                runnable.run();
+                return;
+            }
+            final CallEvent event = operation.beginEvent();
+            final long start = operation.begin();
+            boolean error = false;
+            try {
                 runnable.run();
             } catch (Exception e) {
-                if (exceptionFilter.test(e)) {
-                    context.errorMeter.mark();
-                }
+                error = exceptionFilter.test(e);
                 throw e;
             } finally {
-                context.inFlight.dec();
+                operation.end(start, error, event);
             }
         };
     }
@@ -175,88 +591,557 @@ public class Instrumentor {
             Optional<Double> errorThreshold
     ) {
 
-        final Context context = createInstrumentationContext(name, errorThreshold);
+        final Operation operation = createInstrumentationContext(name, errorThreshold);
 
         return () -> {
-            context.inFlight.inc();
-            try (@SuppressWarnings("unused") Timer.Context ctx = context.timer.time()){
+            if (!operation.sampled()) {
+                runnable.run();
+                return;
+            }
+            final CallEvent event = operation.beginEvent();
+            final long start = operation.begin();
+            boolean error = false;
+            try {
                 runnable.run();
             } catch (Exception e) {
-                if (exceptionFilter.test(e)) {
-                    context.errorMeter.mark();
-                }
+                error = exceptionFilter.test(e);
                 throw e;
             } finally {
-                context.inFlight.dec();
+                operation.end(start, error, event);
+            }
+        };
+    }
+
+    /**
+     * Runs the work on the calling thread, which is interrupted if the deadline
+     * passes. A call that misses its deadline throws a {@link TimeoutException},
+     * with whatever the work threw as its cause, and is marked in both
+     * {@code name.timeouts} and {@code name.errors} regardless of the exception filter.
+     */
+    private <T> ThrowableCallable<T> instrumentingWithTimeout(
+            ThrowableCallable<T> callable,
+            String name,
+            Optional<Double> errorThreshold,
+            Duration timeout,
+            Supplier<String> context
+    ) {
+
+        final Operation operation = createInstrumentationContext(name, errorThreshold);
+        final MetricsBackend.Meter timeouts = getOrCreate(
+                timeoutMeters,
+                name,
+                timeoutsName -> backend.meter(MetricRegistry.name(timeoutsName, "timeouts"))
+        );
+        final long timeoutNanos = timeout.toNanos();
+
+        return () -> {
+            if (!operation.sampled()) {
+                return withDeadline(callable, name, timeout, timeoutNanos);
+            }
+            final CallEvent event = operation.beginEvent();
+            final long start = operation.begin();
+            final TimerWheel.Deadline deadline = timerWheel.schedule(System.nanoTime() + timeoutNanos);
+            boolean error = false;
+            try {
+                final T result;
+                try {
+                    result = callable.call();
+                } catch (Throwable e) {
+                    if (deadline.cancel()) {
+                        error = exceptionFilter.test(e);
+                        throw e;
+                    }
+                    error = true;
+                    timeouts.mark();
+                    throw timeoutException(name, timeout, e);
+                }
+                if (!deadline.cancel()) {
+                    error = true;
+                    timeouts.mark();
+                    throw timeoutException(name, timeout, null);
+                }
+                return result;
+            } finally {
+                operation.end(start, error, context, event);
+            }
+        };
+    }
+
+    /**
+     * enforces a deadline without recording anything, for calls that aren't sampled
+     */
+    private <T> T withDeadline(ThrowableCallable<T> callable, String name, Duration timeout, long timeoutNanos) throws Throwable {
+        final TimerWheel.Deadline deadline = timerWheel.schedule(System.nanoTime() + timeoutNanos);
+        final T result;
+        try {
+            result = callable.call();
+        } catch (Throwable e) {
+            if (deadline.cancel()) {
+                throw e;
+            }
+            throw timeoutException(name, timeout, e);
+        }
+        if (!deadline.cancel()) {
+            throw timeoutException(name, timeout, null);
+        }
+        return result;
+    }
+
+    private <T> T callHedged(
+            Callable<T> callable,
+            String name,
+            Optional<Double> errorThreshold,
+            ExecutorService executor,
+            double hedgeFraction
+    ) throws Exception {
+        final Operation operation = createInstrumentationContext(name, errorThreshold);
+        final Hedging hedging = getOrCreate(
+                hedgings,
+                name,
+                hedgingName -> new Hedging(hedgingName, operation.latency, backend)
+        );
+        hedging.deposit(hedgeFraction);
+
+        // calls that aren't sampled still hedge, but record nothing
+        final boolean sampled = operation.sampled();
+        final CallEvent event = sampled ? operation.beginEvent() : null;
+        final long start = sampled ? operation.begin() : 0;
+        final HedgedCall<T> call = new HedgedCall<>(callable, executor);
+        boolean error = false;
+        try {
+            call.start();
+            final long delayNanos = hedging.delayNanos();
+            if (delayNanos >= 0 && !call.await(delayNanos)) {
+                if (!hedging.tryWithdraw()) {
+                    if (sampled) {
+                        hedging.throttled.mark();
+                    }
+                } else if (call.hedge() && sampled) {
+                    hedging.hedges.mark();
+                }
+            }
+            final T result = call.get();
+            if (sampled && call.getWinner() == HedgedCall.HEDGE) {
+                hedging.won.mark();
+            }
+            return result;
+        } catch (Exception e) {
+            error = exceptionFilter.test(e);
+            throw e;
+        } finally {
+            final int cancelled = call.cancelLosers();
+            if (sampled) {
+                hedging.cancelled.mark(cancelled);
+                operation.end(start, error, event);
+            }
+        }
+    }
+
+    /**
+     * For idempotent calls with a long latency tail. Runs {@code callable} on
+     * {@code executor}, and if it hasn't finished by the name's current p95 latency,
+     * runs it again. The first attempt to succeed wins and the other is cancelled.
+     *
+     * To keep hedging from adding load when a dependency is slow across the board,
+     * hedges are limited to {@code hedgeFraction} of calls, 0.05 allows one hedge
+     * for every 20 calls. There's no hedging until the name has 100 samples.
+     *
+     * Marks {@code name.hedges} when a hedge is issued, {@code name.hedges.won}
+     * when it beats the first attempt, {@code name.hedges.cancelled} for every
+     * losing attempt that was cancelled while it was still running, and
+     * {@code name.hedges.throttled} when the budget stopped a hedge.
+     */
+    public <T> T callHedged(
+            Callable<T> callable,
+            String name,
+            ExecutorService executor,
+            double hedgeFraction
+    ) throws Exception {
+        return callHedged(callable, name, Optional.empty(), executor, hedgeFraction);
+    }
+
+    public <T> T callHedged(
+            Callable<T> callable,
+            String name,
+            ExecutorService executor,
+            double hedgeFraction,
+            double errorThreshold
+    ) throws Exception {
+        return callHedged(callable, name, Optional.of(errorThreshold), executor, hedgeFraction);
+    }
+
+    /**
+     * @return a callable that makes every attempt, the caller instruments it as a single call
+     */
+    private <T> ThrowableCallable<T> retrying(ThrowableCallable<T> callable, String name, RetryPolicy policy) {
+        final Retries nameRetries = getOrCreate(retries, name, retriesName -> new Retries(retriesName, metricRegistry));
+        return () -> nameRetries.call(callable, policy);
+    }
+
+    private <T> T callWithRetry(
+            Callable<T> callable,
+            String name,
+            Optional<Double> errorThreshold,
+            RetryPolicy policy
+    ) throws Exception {
+        try {
+            return instrumenting(retrying(callable::call, name, policy), name, errorThreshold).call();
+        } catch (Throwable e) {
+            Throwables.propagateIfPossible(e, Exception.class);
+            throw Throwables.propagate(e);
+        }
+    }
+
+    /**
+     * Calls {@code callable}, retrying failures with exponential backoff and jitter.
+     * The name's timer and error meter count one call however many attempts it
+     * took, and the last failure is thrown if every attempt failed.
+     *
+     * Registers {@code name.attempts}, a timer of every attempt,
+     * {@code name.attempts.per_call}, a histogram of attempts per call,
+     * {@code name.retries}, a meter of retries, and
+     * {@code name.retries.throttled}, a meter of retries the budget didn't allow.
+     */
+    public <T> T callWithRetry(
+            Callable<T> callable,
+            String name,
+            RetryPolicy policy
+    ) throws Exception {
+        return callWithRetry(callable, name, Optional.empty(), policy);
+    }
+
+    public <T> T callWithRetry(
+            Callable<T> callable,
+            String name,
+            RetryPolicy policy,
+            double errorThreshold
+    ) throws Exception {
+        return callWithRetry(callable, name, Optional.of(errorThreshold), policy);
+    }
+
+    /**
+     * Single-flight calls. Concurrent callers with an equal {@code key} share one
+     * execution of {@code callable} and its result, or its exception. Keys are
+     * scoped to {@code name}, and every caller for a key should expect the same type.
+     *
+     * The name's timer and error meter count executions. Callers that joined an
+     * execution are marked in {@code name.coalesced}, and {@code name.coalesced.waiters}
+     * is a histogram of how many callers joined each execution.
+     */
+    public <T> T callCoalesced(
+            Object key,
+            Callable<T> callable,
+            String name
+    ) throws Exception {
+        final Coalescer coalescer = getOrCreate(
+                coalescers,
+                name,
+                coalescerName -> new Coalescer(coalescerName, metricRegistry)
+        );
+        return coalescer.call(key, instrumenting(callable, name, Optional.empty()));
+    }
+
+    /**
+     * Builds a bounded {@link LoadingCache} from a {@link CacheBuilderSpec} string, like
+     * {@code maximumSize=10000,expireAfterWrite=10m,refreshAfterWrite=1m}, whose loads are
+     * instrumented like {@link #call(Callable, String)}, so {@code name} times loads
+     * and {@code name.errors} counts failed loads.
+     *
+     * Registers {@code name.cache.hits}, {@code name.cache.misses}, {@code name.cache.hit_ratio}
+     * and {@code name.cache.size} gauges, and marks {@code name.cache.evictions} for every
+     * entry evicted by size or expiry.
+     *
+     * With {@code refreshAfterWrite} in the spec, hot keys are reloaded on a shared pool
+     * of daemon threads while the cache keeps serving the old value.
+     *
+     * @throws IllegalArgumentException if the spec doesn't set a {@code maximumSize},
+     * or {@code name} already has a cache
+     */
+    public <K, V> LoadingCache<K, V> caching(
+            String name,
+            CacheLoader<K, V> loader,
+            String spec
+    ) {
+        return caching(name, loader, spec, RefreshExecutor.INSTANCE);
+    }
+
+    /**
+     * @param refreshExecutor runs the reloads for {@code refreshAfterWrite}
+     */
+    public <K, V> LoadingCache<K, V> caching(
+            String name,
+            CacheLoader<K, V> loader,
+            String spec,
+            Executor refreshExecutor
+    ) {
+        if (!CacheBuilderSpec.parse(spec).toParsableString().contains("maximumSize=")) {
+            throw new IllegalArgumentException("caches need a maximumSize, got " + spec);
+        }
+        final String cacheName = MetricRegistry.name(name, "cache");
+        getOrCreate(operations, name, this::createOperation);
+
+        final MetricsBackend.Meter evictions = backend.meter(MetricRegistry.name(cacheName, "evictions"));
+        final CacheLoader<K, V> instrumentedLoader = new CacheLoader<K, V>() {
+            @Override
+            public V load(K key) throws Exception {
+                final Callable<V> load = () -> loader.load(key);
+                return instrumenting(load, name, Optional.empty()).call();
+            }
+
+            @Override
+            public Map<K, V> loadAll(Iterable<? extends K> keys) throws Exception {
+                final Callable<Map<K, V>> loadAll = () -> loader.loadAll(keys);
+                return instrumenting(loadAll, name, Optional.empty()).call();
             }
         };
+        final LoadingCache<K, V> cache = CacheBuilder.from(spec)
+                .recordStats()
+                .removalListener(removal -> {
+                    if (removal.wasEvicted()) {
+                        evictions.mark();
+                    }
+                })
+                .build(CacheLoader.asyncReloading(instrumentedLoader, refreshExecutor));
+
+        if (!backend.registerGauge(MetricRegistry.name(cacheName, "size"), cache::size)) {
+            throw new IllegalArgumentException(name + " already has a cache");
+        }
+        backend.registerGauge(MetricRegistry.name(cacheName, "hits"), () -> cache.stats().hitCount());
+        backend.registerGauge(MetricRegistry.name(cacheName, "misses"), () -> cache.stats().missCount());
+        backend.registerGauge(MetricRegistry.name(cacheName, "hit_ratio"), () -> cache.stats().hitRate());
+        return cache;
+    }
+
+    /**
+     * refresh-ahead reloads are usually blocking I/O,
+     * so they don't belong on the common fork join pool
+     */
+    private static final class RefreshExecutor {
+        private static final Executor INSTANCE = Executors.newCachedThreadPool(runnable -> {
+            final Thread thread = new Thread(runnable, "instrumentor-cache-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static TimeoutException timeoutException(String name, Duration timeout, Throwable cause) {
+        final TimeoutException timeoutException = new TimeoutException(name + " timed out after " + timeout);
+        timeoutException.initCause(cause);
+        return timeoutException;
+    }
+
+    private Operation createInstrumentationContext(String name, Optional<Double> errorThreshold) {
+        final Operation operation = getOrCreate(operations, name, this::createOperation);
+
+        if (errorThreshold.isPresent() && operation.claimHealthCheck()) {
+            registerHealthCheck(name, errorThreshold.get(), operation);
+        }
+        return operation;
+    }
+
+    /**
+     * On Java 8 {@link ConcurrentHashMap#computeIfAbsent} locks the name's bin
+     * even when the name is already there, so names are read first, and only
+     * the first calls to a name contend to create it, exactly once.
+     */
+    private static <V> V getOrCreate(ConcurrentMap<String, V> map, String name, Function<String, V> create) {
+        final V value = map.get(name);
+        return value != null ? value : map.computeIfAbsent(name, create);
     }
 
-    private Context createInstrumentationContext(String name, Optional<Double> errorThreshold) {
-        final Context context = new Context(name);
-        if (!errorGaugesExist(name)) {
-            registerErrorGauges(name, context.errorMeter, context.timer);
+    private Operation createOperation(String name) {
+        final Operation operation = new Operation(
+                name,
+                backend,
+                clock,
+                profiler,
+                slowCalls > 0 ? new SlowCalls(slowCalls, slowCallsWindowNanos, clock) : null,
+                journal,
+                stateStore,
+                errorRateWindowSeconds > 0 ? new ErrorWindow(errorRateWindowSeconds) : null,
+                flightRecorderThresholdNanos,
+                overheadBudget
+        );
+        samplingRules.register(operation);
+        final Metered errors = CodahaleBackend.metered(operation.errorMeter);
+        final Metered calls = CodahaleBackend.metered(operation.timer);
+        if (errors != null && calls != null) {
+            registerErrorGauges(name, errors, calls);
+        }
+        if (operation.errorWindow != null) {
+            backend.registerGauge(
+                    MetricRegistry.name(name, "errors", "window_pct"),
+                    () -> operation.errorWindow.errorRate(clock.getTick(), 0)
+            );
+        }
+        for (String rollupName : rollupNames(name)) {
+            rollups.computeIfAbsent(rollupName, this::createRollup).members.add(operation);
         }
+        return operation;
+    }
 
-        if (shouldRegisterHealthCheck(name, errorThreshold)) {
-            registerHealthCheck(name, errorThreshold, context.errorMeter, context.timer);
+    private Set<String> rollupNames(String name) {
+        final Set<String> names = new LinkedHashSet<>();
+        final int lastSegment = name.lastIndexOf('.');
+        if (rollupByClass && lastSegment > 0) {
+            names.add(name.substring(0, lastSegment));
         }
-        return context;
+        for (String prefix : rollupPrefixes) {
+            if (name.startsWith(prefix + ".")) {
+                names.add(prefix);
+            }
+        }
+        return names;
+    }
+
+    private Rollup createRollup(String rollupName) {
+        final Rollup rollup = new Rollup(rollupName);
+        if (codahale == null) {
+            return rollup;
+        }
+        final String name = MetricRegistry.name(rollupName, Rollup.SUFFIX);
+
+        registerRateGauges(name, rollup.calls);
+        registerRateGauges(MetricRegistry.name(name, "errors"), rollup.errors);
+        backend.registerGauge(MetricRegistry.name(name, "inFlight"), rollup.inFlight::getCount);
+        registerErrorGauges(name, rollup.errors, rollup.calls);
+        return rollup;
     }
 
-    private <T> boolean shouldRegisterHealthCheck(String name, Optional<T> ceiling) {
-        return healthCheckRegistry != null &&
-                ceiling.isPresent() &&
-                !healthCheckExists(name);
+    /**
+     * registers {@code metered}'s count as {@code name} and its rates as
+     * {@code name.mean_rate}, {@code name.m1_rate}, {@code name.m5_rate} and {@code name.m15_rate}
+     */
+    private void registerRateGauges(String name, Metered metered) {
+        backend.registerGauge(name, metered::getCount);
+        backend.registerGauge(MetricRegistry.name(name, "mean_rate"), metered::getMeanRate);
+        backend.registerGauge(MetricRegistry.name(name, "m1_rate"), metered::getOneMinuteRate);
+        backend.registerGauge(MetricRegistry.name(name, "m5_rate"), metered::getFiveMinuteRate);
+        backend.registerGauge(MetricRegistry.name(name, "m15_rate"), metered::getFifteenMinuteRate);
+    }
+
+    /**
+     * Tracks {@code name} against a latency objective. Every call is marked as
+     * {@code name.slo.satisfied}, {@code name.slo.tolerating} or {@code name.slo.frustrated},
+     * and burn rate and Apdex gauges are registered under {@code name.slo}.
+     *
+     * A burn rate of 1 spends the error budget exactly as fast as the objective allows.
+     * If the backend has health checks, a health check named {@code name.slo}
+     * goes unhealthy when the fifteen minute burn rate is above 1.
+     *
+     * Registering an equal objective again is a no-op.
+     *
+     * @throws IllegalArgumentException if {@code name} already has a different objective
+     */
+    public void registerLatencyObjective(String name, LatencyObjective objective) {
+        final Operation operation = getOrCreate(operations, name, this::createOperation);
+        if (hasObjective(operation, objective)) {
+            return;
+        }
+        synchronized (operation) {
+            if (hasObjective(operation, objective)) {
+                return;
+            }
+            final LatencyObjectiveTracker tracker = new LatencyObjectiveTracker(name, objective, metricRegistry, clock);
+            registerObjectiveGauges(name, tracker);
+            operation.objective = tracker;
+        }
     }
 
-    private boolean healthCheckExists(String name) {
-        return healthCheckRegistry.getNames().contains(name);
+    private static boolean hasObjective(Operation operation, LatencyObjective objective) {
+        final LatencyObjectiveTracker existing = operation.objective;
+        if (existing == null) {
+            return false;
+        }
+        if (!existing.objective.equals(objective)) {
+            throw new IllegalArgumentException(
+                    operation.name + " already has the latency objective " + existing.objective
+            );
+        }
+        return true;
     }
 
-    private boolean errorGaugesExist(String name) {
-        return metricRegistry
-                .getGauges()
-                .containsKey(MetricRegistry.name(name, "errors", "mean_pct"));
+    private void registerObjectiveGauges(String name, LatencyObjectiveTracker tracker) {
+        final String sloName = MetricRegistry.name(name, "slo");
+        final Gauge<Double> m1BurnRate = burnRate(tracker, Metered::getOneMinuteRate);
+        final Gauge<Double> m5BurnRate = burnRate(tracker, Metered::getFiveMinuteRate);
+        final Gauge<Double> m15BurnRate = burnRate(tracker, Metered::getFifteenMinuteRate);
+
+        backend.registerGauge(MetricRegistry.name(sloName, "m1_burn_rate"), m1BurnRate::getValue);
+        backend.registerGauge(MetricRegistry.name(sloName, "m5_burn_rate"), m5BurnRate::getValue);
+        backend.registerGauge(MetricRegistry.name(sloName, "m15_burn_rate"), m15BurnRate::getValue);
+        backend.registerGauge(MetricRegistry.name(sloName, "m1_apdex"), apdex(tracker, Metered::getOneMinuteRate)::getValue);
+        backend.registerGauge(MetricRegistry.name(sloName, "m5_apdex"), apdex(tracker, Metered::getFiveMinuteRate)::getValue);
+        backend.registerGauge(MetricRegistry.name(sloName, "m15_apdex"), apdex(tracker, Metered::getFifteenMinuteRate)::getValue);
+
+        backend.registerHealthCheck(sloName, m15BurnRate::getValue, 1d);
     }
 
-    private void registerHealthCheck(String name, Optional<Double> ceiling, Metered errorMeter, Metered timer) {
-        final Gauge<Double> errorRate = Gauges.ratioOf(errorMeter, timer, Metered::getFifteenMinuteRate);
+    /**
+     * the rate of calls missing the threshold, relative to the rate the error budget allows
+     */
+    private static Gauge<Double> burnRate(LatencyObjectiveTracker tracker, ToDoubleFunction<Metered> rate) {
+        return Gauges.ratioOf(
+                () -> rate.applyAsDouble(tracker.tolerating) + rate.applyAsDouble(tracker.frustrated),
+                () -> total(tracker, rate) * tracker.objective.getErrorBudget()
+        );
+    }
 
-        final HealthCheck healthCheck = HealthChecks.forDoubleGauge(
-                errorRate,
-                ceiling
+    /**
+     * satisfied calls count fully and tolerating calls count half
+     */
+    private static Gauge<Double> apdex(LatencyObjectiveTracker tracker, ToDoubleFunction<Metered> rate) {
+        return Gauges.ratioOf(
+                () -> rate.applyAsDouble(tracker.satisfied) + rate.applyAsDouble(tracker.tolerating) / 2,
+                () -> total(tracker, rate)
         );
+    }
+
+    private static double total(LatencyObjectiveTracker tracker, ToDoubleFunction<Metered> rate) {
+        return rate.applyAsDouble(tracker.satisfied) +
+                rate.applyAsDouble(tracker.tolerating) +
+                rate.applyAsDouble(tracker.frustrated);
+    }
+
+    private void registerHealthCheck(String name, double ceiling, Operation operation) {
+        backend.registerHealthCheck(name, healthCheckErrorRate(operation), ceiling);
+    }
 
-        healthCheckRegistry.register(name, healthCheck);
+    /**
+     * The error rate in the operation's window if it has one, or over the last
+     * 15 minutes otherwise. {@link Double#NaN}, which is healthy, until
+     * there have been enough calls.
+     */
+    private DoubleSupplier healthCheckErrorRate(Operation operation) {
+        if (operation.errorWindow != null) {
+            return () -> operation.errorWindow.errorRate(clock.getTick(), healthCheckMinimumCalls);
+        }
+        final Metered calls = CodahaleBackend.metered(operation.timer);
+        final Gauge<Double> errorRate = Gauges.ratioOf(
+                CodahaleBackend.metered(operation.errorMeter),
+                calls,
+                Metered::getFifteenMinuteRate
+        );
+        if (healthCheckMinimumCalls <= 0) {
+            return errorRate::getValue;
+        }
+        return () -> calls.getFifteenMinuteRate() * FIFTEEN_MINUTES_IN_SECONDS < healthCheckMinimumCalls ?
+                Double.NaN :
+                errorRate.getValue();
     }
 
-    private void registerErrorGauges(String name, Meter errorMeter, Timer timer) {
+    private void registerErrorGauges(String name, Metered errorMeter, Metered timer) {
         final Gauge<Double> totalErrorPct = Gauges.ratioOf(errorMeter, timer, m -> Long.valueOf(m.getCount()).doubleValue());
         final Gauge<Double> meanErrorPct = Gauges.ratioOf(errorMeter, timer, Metered::getMeanRate);
         final Gauge<Double> m1ErrorPct = Gauges.ratioOf(errorMeter, timer, Metered::getOneMinuteRate);
         final Gauge<Double> m5ErrorPct = Gauges.ratioOf(errorMeter, timer, Metered::getFiveMinuteRate);
         final Gauge<Double> m15ErrorPct = Gauges.ratioOf(errorMeter, timer, Metered::getFifteenMinuteRate);
 
-        tryRegister(totalErrorPct, MetricRegistry.name(name, "errors", "total_pct"));
-        tryRegister(meanErrorPct, MetricRegistry.name(name, "errors", "mean_pct"));
-        tryRegister(m1ErrorPct, MetricRegistry.name(name, "errors", "m1_pct"));
-        tryRegister(m5ErrorPct, MetricRegistry.name(name, "errors", "m5_pct"));
-        tryRegister(m15ErrorPct, MetricRegistry.name(name, "errors", "m15_pct"));
-    }
-
-    /**
-     * There's a Potential race condition with
-     * the check to {@link this#errorGaugesExist(String)} and when
-     * we actually go to register the gauge, so lets be extra careful here
-     * and put it in a try-catch.
-     *
-     * This is a little hacky.
-     */
-    private void tryRegister(Gauge<Double> meanErrorRate, String name) {
-        try {
-            metricRegistry.register(name, meanErrorRate);
-        } catch (IllegalArgumentException ignoreAlreadyRegistered)  {}
+        backend.registerGauge(MetricRegistry.name(name, "errors", "total_pct"), totalErrorPct::getValue);
+        backend.registerGauge(MetricRegistry.name(name, "errors", "mean_pct"), meanErrorPct::getValue);
+        backend.registerGauge(MetricRegistry.name(name, "errors", "m1_pct"), m1ErrorPct::getValue);
+        backend.registerGauge(MetricRegistry.name(name, "errors", "m5_pct"), m5ErrorPct::getValue);
+        backend.registerGauge(MetricRegistry.name(name, "errors", "m15_pct"), m15ErrorPct::getValue);
     }
 
     public <T> Callable<T> instrumenting(
@@ -356,6 +1241,67 @@ public class Instrumentor {
         return callChecked(callable, name, Optional.empty());
     }
 
+    /* package */ <T> T callThrowably(
+            ThrowableCallable<T> callable,
+            String name,
+            Optional<Double> errorThreshold,
+            Optional<LatencyObjective> latencyObjective,
+            Optional<Duration> timeout,
+            Optional<RetryPolicy> retryPolicy,
+            Supplier<String> context
+    ) throws Throwable {
+        if (latencyObjective.isPresent()) {
+            registerLatencyObjective(name, latencyObjective.get());
+        }
+        final ThrowableCallable<T> attempts = retryPolicy.isPresent() ?
+                retrying(callable, name, retryPolicy.get()) :
+                callable;
+        return timeout.isPresent() ?
+                instrumentingWithTimeout(attempts, name, errorThreshold, timeout.get(), context).call() :
+                instrumenting(attempts, name, errorThreshold, context).call();
+    }
+
+    private <T> T callWithTimeout(
+            Callable<T> callable,
+            String name,
+            Optional<Double> errorThreshold,
+            Duration timeout
+    ) throws Exception {
+        try {
+            return instrumentingWithTimeout(callable::call, name, errorThreshold, timeout, null).call();
+        } catch (Throwable e) {
+            Throwables.propagateIfPossible(e, Exception.class);
+            throw Throwables.propagate(e);
+        }
+    }
+
+    /**
+     * Calls {@code callable} on the current thread, interrupting it if it's
+     * still running after {@code timeout}. Deadlines are tracked by a single
+     * timer wheel shared by every instrumentor, and fire up to 10ms late.
+     *
+     * Timeouts are marked in {@code name.timeouts} as well as {@code name.errors}.
+     *
+     * @throws TimeoutException if the call didn't finish in time, even if it
+     * went on to return a value after being interrupted
+     */
+    public <T> T callWithTimeout(
+            Callable<T> callable,
+            String name,
+            Duration timeout
+    ) throws Exception {
+        return callWithTimeout(callable, name, Optional.empty(), timeout);
+    }
+
+    public <T> T callWithTimeout(
+            Callable<T> callable,
+            String name,
+            Duration timeout,
+            double errorThreshold
+    ) throws Exception {
+        return callWithTimeout(callable, name, Optional.of(errorThreshold), timeout);
+    }
+
     /* package */ <T> T callThrowably(
             ThrowableCallable<T> callable,
             String name
@@ -0,0 +1,79 @@
+package com.sproutsocial.metrics;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.SortedMap;
+
+import com.google.common.collect.ImmutableSortedMap;
+
+/**
+ * Created on 10/19/26
+ *
+ * An immutable view of every operation an {@link Instrumentor} has seen,
+ * covering the interval since the previous snapshot taken by the same
+ * {@link SnapshotCursor}.
+ */
+public final class InstrumentorSnapshot {
+
+    private final long startMillis;
+    private final long endMillis;
+    private final ImmutableSortedMap<String, OperationSnapshot> operations;
+    private final ImmutableSortedMap<String, OperationSnapshot> rollups;
+
+    /* package */ InstrumentorSnapshot(
+            long startMillis,
+            long endMillis,
+            ImmutableSortedMap<String, OperationSnapshot> operations,
+            ImmutableSortedMap<String, OperationSnapshot> rollups
+    ) {
+        this.startMillis = startMillis;
+        this.endMillis = endMillis;
+        this.operations = operations;
+        this.rollups = rollups;
+    }
+
+    /**
+     * @return when the interval started, the time of the previous
+     * snapshot or the creation of the cursor
+     */
+    public long getStartMillis() {
+        return startMillis;
+    }
+
+    /**
+     * @return when this snapshot was taken
+     */
+    public long getEndMillis() {
+        return endMillis;
+    }
+
+    /**
+     * @return every operation, sorted by name
+     */
+    public Collection<OperationSnapshot> getOperations() {
+        return operations.values();
+    }
+
+    public SortedMap<String, OperationSnapshot> asMap() {
+        return operations;
+    }
+
+    public Optional<OperationSnapshot> getOperation(String name) {
+        return Optional.ofNullable(operations.get(name));
+    }
+
+    /**
+     * @return the class and prefix rollups configured on the
+     * {@link Instrumentor}, sorted by name
+     */
+    public Collection<OperationSnapshot> getRollups() {
+        return rollups.values();
+    }
+
+    /**
+     * @param name the class or prefix, without the {@code .rollup} suffix
+     */
+    public Optional<OperationSnapshot> getRollup(String name) {
+        return Optional.ofNullable(rollups.get(name));
+    }
+}
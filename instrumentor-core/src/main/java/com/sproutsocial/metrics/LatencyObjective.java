@@ -0,0 +1,83 @@
+package com.sproutsocial.metrics;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created on 10/19/26
+ *
+ * A latency service level objective, a target fraction of
+ * calls that should complete within a threshold.
+ *
+ * "p99 under 250ms" and "99% of calls under 250ms" are the same objective,
+ * {@code LatencyObjective.of(0.99, 250, TimeUnit.MILLISECONDS)}.
+ */
+public final class LatencyObjective {
+
+    /**
+     * per Apdex, calls up to four times the threshold are tolerated
+     */
+    private static final int TOLERATING_MULTIPLE = 4;
+
+    private final double target;
+    private final long thresholdNanos;
+
+    private LatencyObjective(double target, long thresholdNanos) {
+        this.target = target;
+        this.thresholdNanos = thresholdNanos;
+    }
+
+    /**
+     * @param target the fraction of calls, in {@code (0, 1)}, that should be within the threshold
+     */
+    public static LatencyObjective of(double target, long threshold, TimeUnit unit) {
+        if (!(target > 0d && target < 1d)) {
+            throw new IllegalArgumentException("target must be in (0, 1), got " + target);
+        }
+        if (threshold <= 0) {
+            throw new IllegalArgumentException("threshold must be positive, got " + threshold);
+        }
+        return new LatencyObjective(target, unit.toNanos(threshold));
+    }
+
+    public double getTarget() {
+        return target;
+    }
+
+    public long getThresholdNanos() {
+        return thresholdNanos;
+    }
+
+    /**
+     * @return the fraction of calls allowed to miss the threshold
+     */
+    public double getErrorBudget() {
+        return 1d - target;
+    }
+
+    /* package */ long getToleratingNanos() {
+        return thresholdNanos * TOLERATING_MULTIPLE;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final LatencyObjective that = (LatencyObjective) o;
+        return Double.compare(that.target, target) == 0 && thresholdNanos == that.thresholdNanos;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(target, thresholdNanos);
+    }
+
+    @Override
+    public String toString() {
+        return "target=" + target + "&thresholdNanos=" + thresholdNanos;
+    }
+}
@@ -0,0 +1,44 @@
+package com.sproutsocial.metrics;
+
+import com.codahale.metrics.Clock;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+
+/**
+ * Created on 10/19/26
+ *
+ * Sorts an operation's calls against its {@link LatencyObjective}.
+ *
+ * Each call marks exactly one of three meters, following Apdex: satisfied
+ * calls are within the threshold, tolerating calls are within four times
+ * the threshold and everything slower, or marked as an error, is frustrated.
+ * Tolerating and frustrated calls both count against the objective.
+ */
+/* package */ final class LatencyObjectiveTracker {
+
+    final LatencyObjective objective;
+    final Meter satisfied;
+    final Meter tolerating;
+    final Meter frustrated;
+
+    LatencyObjectiveTracker(String name, LatencyObjective objective, MetricRegistry metricRegistry) {
+        this(name, objective, metricRegistry, Clock.defaultClock());
+    }
+
+    LatencyObjectiveTracker(String name, LatencyObjective objective, MetricRegistry metricRegistry, Clock clock) {
+        this.objective = objective;
+        this.satisfied = ClockedMetrics.meter(metricRegistry, MetricRegistry.name(name, "slo", "satisfied"), clock);
+        this.tolerating = ClockedMetrics.meter(metricRegistry, MetricRegistry.name(name, "slo", "tolerating"), clock);
+        this.frustrated = ClockedMetrics.meter(metricRegistry, MetricRegistry.name(name, "slo", "frustrated"), clock);
+    }
+
+    void record(long durationNanos, boolean error) {
+        if (error || durationNanos > objective.getToleratingNanos()) {
+            frustrated.mark();
+        } else if (durationNanos > objective.getThresholdNanos()) {
+            tolerating.mark();
+        } else {
+            satisfied.mark();
+        }
+    }
+}
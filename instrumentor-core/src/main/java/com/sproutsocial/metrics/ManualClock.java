@@ -0,0 +1,41 @@
+package com.sproutsocial.metrics;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.codahale.metrics.Clock;
+
+/**
+ * Created on 10/19/26
+ *
+ * A {@link Clock} that only moves when it's told to, for testing
+ * durations, EWMA rates and health checks deterministically.
+ *
+ * Both the tick and the wall clock time start at zero and move together.
+ * Meters only update their rates every five seconds, so advance
+ * the clock past that before reading them.
+ */
+public final class ManualClock extends Clock {
+
+    private final AtomicLong tickNanos = new AtomicLong();
+
+    @Override
+    public long getTick() {
+        return tickNanos.get();
+    }
+
+    @Override
+    public long getTime() {
+        return TimeUnit.NANOSECONDS.toMillis(tickNanos.get());
+    }
+
+    public ManualClock advance(long amount, TimeUnit unit) {
+        tickNanos.addAndGet(unit.toNanos(amount));
+        return this;
+    }
+
+    public ManualClock advance(Duration duration) {
+        return advance(duration.toNanos(), TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,81 @@
+package com.sproutsocial.metrics;
+
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Created on 10/19/26
+ *
+ * Where an {@link Instrumentor} records calls. The first time a name is
+ * called the instrumentor looks up a {@link Timer} of calls, a {@link Meter}
+ * of errors and a {@link Counter} of calls in flight, and every call after
+ * that records into them directly, so lookups don't need to be fast but
+ * recording does. Gauges and health checks derived from them are registered
+ * through the backend as well.
+ *
+ * A name's timer is always looked up first, and everything else the
+ * instrumentor records for that name is named {@code name.something}, so
+ * backends that tag by operation can tell the operation from the rest.
+ *
+ * {@link CodahaleBackend}, over a {@code MetricRegistry} and a
+ * {@code HealthCheckRegistry}, is the default. Its meters and timers keep
+ * 1, 5 and 15 minute rates, which the {@code *_pct} gauges, rollup metrics
+ * and the {@link StateStore} are built on. With any other backend, those are
+ * left out and error rate health checks count the exact calls and errors in
+ * their {@link Instrumentor.Builder#errorRateWindow(java.time.Duration)},
+ * a minute unless configured.
+ *
+ * Retries, coalescing, payload sizes and latency objectives don't go through
+ * the backend, they keep their meters and histograms in the instrumentor's
+ * metric registry whatever the backend. Unless one is given to
+ * {@link Instrumentor.Builder#metricRegistry(com.codahale.metrics.MetricRegistry)},
+ * that's a registry of the instrumentor's own that nothing reports, so pass
+ * a registry that's reported to see them.
+ */
+public interface MetricsBackend {
+
+    interface Counter {
+        void inc();
+
+        void dec();
+
+        long getCount();
+    }
+
+    interface Meter {
+        void mark();
+
+        void mark(long n);
+
+        long getCount();
+    }
+
+    interface Timer {
+        void update(long nanos);
+
+        long getCount();
+    }
+
+    Counter counter(String name);
+
+    Meter meter(String name);
+
+    Timer timer(String name);
+
+    /**
+     * Registers a gauge, unless {@code name} already has one. Gauges are only
+     * read when they're reported, so their values are boxed.
+     *
+     * @return whether the gauge was registered
+     */
+    boolean registerGauge(String name, Supplier<? extends Number> gauge);
+
+    /**
+     * Registers a health check that's healthy while {@code value} is below
+     * {@code ceiling}, or {@link Double#NaN}, unless {@code name} already has one
+     *
+     * @return whether the health check was registered, always false for
+     * backends without health checks
+     */
+    boolean registerHealthCheck(String name, DoubleSupplier value, double ceiling);
+}
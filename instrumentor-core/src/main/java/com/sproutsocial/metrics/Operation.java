@@ -0,0 +1,233 @@
+package com.sproutsocial.metrics;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import com.codahale.metrics.Clock;
+import com.codahale.metrics.Meter;
+import com.sproutsocial.metrics.histograms.HistogramSnapshot;
+import com.sproutsocial.metrics.histograms.LatencyHistogram;
+
+/**
+ * Created on 10/19/26
+ *
+ * The metrics for a single instrumented name, looked up once
+ * and shared by every call to that name.
+ */
+/* package */ final class Operation {
+
+    /* package */ static final int NO_RULE = -1;
+    /**
+     * with an overhead budget, 1 in this many recorded calls is measured
+     */
+    private static final int OVERHEAD_SAMPLE_EVERY = 16;
+
+    final String name;
+    final MetricsBackend.Meter errorMeter;
+    final MetricsBackend.Timer timer;
+    final MetricsBackend.Counter inFlight;
+    final LatencyHistogram latency = new LatencyHistogram();
+    final long restoredErrors;
+    final HistogramSnapshot restoredLatency;
+    volatile LatencyObjectiveTracker objective;
+    final SlowCalls slowCalls;
+    final ErrorWindow errorWindow;
+    private final Clock clock;
+    private final CallTreeProfiler profiler;
+    private final CallJournal journal;
+    private final int journalId;
+    private final long flightRecorderThresholdNanos;
+    private final double overheadBudget;
+    private final AtomicBoolean healthCheckClaimed = new AtomicBoolean();
+    /**
+     * 0 to record no calls, or 1 in this many, read once by every call
+     */
+    private volatile int sampleEvery = 1;
+    // both only change with the operation locked
+    private volatile int ruleSampleEvery = NO_RULE;
+    private volatile int budgetSampleEvery = 1;
+    // moving averages of measured calls, lost updates only make them a little less smooth
+    private volatile double overheadNanos;
+    private volatile double durationNanos;
+
+    /**
+     * @param clock times every call
+     * @param profiler null unless call tree profiling is enabled
+     * @param slowCalls null unless slow calls are captured
+     * @param journal null unless calls are journaled
+     * @param stateStore null unless state is saved across restarts, which needs a {@link CodahaleBackend}
+     * @param errorWindow null unless health checks use a sliding window
+     * @param flightRecorderThresholdNanos the shortest call to emit a {@link CallEvent} for, -1 to emit none
+     * @param overheadBudget the most recording a call may cost, as a fraction of the call's own
+     *                       duration, before calls are downsampled, 0 for no budget
+     */
+    Operation(
+            String name,
+            MetricsBackend backend,
+            Clock clock,
+            CallTreeProfiler profiler,
+            SlowCalls slowCalls,
+            CallJournal journal,
+            StateStore stateStore,
+            ErrorWindow errorWindow,
+            long flightRecorderThresholdNanos,
+            double overheadBudget
+    ) {
+        this.name = name;
+        this.clock = clock;
+        this.profiler = profiler;
+        this.slowCalls = slowCalls;
+        this.journal = journal;
+        this.errorWindow = errorWindow;
+        this.flightRecorderThresholdNanos = flightRecorderThresholdNanos;
+        this.overheadBudget = overheadBudget;
+        this.journalId = journal == null ? -1 : journal.register(name);
+        final StateStore.State restored = stateStore == null ? null : stateStore.restore(name);
+        if (restored == null) {
+            this.timer = backend.timer(name);
+            this.errorMeter = backend.meter(name + ".errors");
+            this.restoredErrors = 0;
+            this.restoredLatency = HistogramSnapshot.empty();
+        } else {
+            final CodahaleBackend codahale = (CodahaleBackend) backend;
+            final Meter restoredMeter = new RestoredRates.RestoredMeter(restored.errors, clock);
+            this.timer = codahale.register(name, new RestoredRates.RestoredTimer(restored.calls, clock));
+            this.errorMeter = codahale.register(name + ".errors", restoredMeter);
+            this.restoredErrors = CodahaleBackend.metered(errorMeter) == restoredMeter ? restored.errors.count : 0;
+            this.restoredLatency = restored.latency;
+            latency.add(restored.latency);
+        }
+        this.inFlight = backend.counter(name + ".inFlight");
+        if (stateStore != null) {
+            stateStore.track(this);
+        }
+    }
+
+    /**
+     * @return true for exactly one caller, the one that registers the operation's
+     * error rate health check, a volatile read for everyone after it
+     */
+    boolean claimHealthCheck() {
+        return !healthCheckClaimed.get() && healthCheckClaimed.compareAndSet(false, true);
+    }
+
+    /**
+     * @return whether to record this call, a single volatile read unless the
+     * operation is downsampled
+     */
+    boolean sampled() {
+        final int every = sampleEvery;
+        return every == 1 || every > 1 && ThreadLocalRandom.current().nextInt(every) == 0;
+    }
+
+    /**
+     * @return the fraction of calls that are recorded
+     */
+    double sampleRate() {
+        final int every = sampleEvery;
+        return every == 0 ? 0 : 1d / every;
+    }
+
+    /**
+     * @param ruleSampleEvery from the longest matching {@link SamplingRules} rule, which
+     *                        overrides the overhead budget, or {@link #NO_RULE}
+     */
+    synchronized void setRule(int ruleSampleEvery) {
+        this.ruleSampleEvery = ruleSampleEvery;
+        this.sampleEvery = ruleSampleEvery == NO_RULE ? budgetSampleEvery : ruleSampleEvery;
+    }
+
+    /**
+     * @return the start time to pass to {@link #end(long, boolean)}
+     */
+    long begin() {
+        inFlight.inc();
+        if (profiler != null) {
+            profiler.enter(name);
+        }
+        return clock.getTick();
+    }
+
+    /**
+     * @return the event to pass to {@link #end(long, boolean, CallEvent)}, called
+     * before {@link #begin()} so the event covers the whole call, null unless
+     * flight recorder events are enabled and being recorded. Nothing is
+     * allocated while no recording is running.
+     */
+    CallEvent beginEvent() {
+        return flightRecorderThresholdNanos < 0 ? null : CallEvent.start();
+    }
+
+    void end(long startNanos, boolean error, CallEvent event) {
+        end(startNanos, error, null, event);
+    }
+
+    /**
+     * @param context describes the call if it's captured as a slow call, may be null
+     * @param event from {@link #beginEvent()}, may be null
+     */
+    void end(long startNanos, boolean error, Supplier<String> context, CallEvent event) {
+        final long overheadStart = overheadBudget > 0 &&
+                ThreadLocalRandom.current().nextInt(OVERHEAD_SAMPLE_EVERY) == 0 ?
+                System.nanoTime() :
+                0;
+        final long endNanos = clock.getTick();
+        final long duration = endNanos - startNanos;
+        timer.update(duration);
+        latency.record(duration);
+        final LatencyObjectiveTracker objective = this.objective;
+        if (objective != null) {
+            objective.record(duration, error);
+        }
+        if (error) {
+            errorMeter.mark();
+        }
+        if (errorWindow != null) {
+            errorWindow.record(endNanos, error);
+        }
+        inFlight.dec();
+        if (profiler != null) {
+            profiler.exit(duration);
+        }
+        if (slowCalls != null) {
+            slowCalls.record(endNanos, duration, error, context);
+        }
+        if (journal != null) {
+            journal.append(journalId, startNanos, duration, error);
+        }
+        if (event != null && duration >= flightRecorderThresholdNanos) {
+            event.finish(name, error);
+        }
+        if (overheadStart != 0) {
+            measured(System.nanoTime() - overheadStart, duration);
+        }
+    }
+
+    /**
+     * Downsamples until recording costs no more than the budget, so a call that
+     * costs twice the budget is recorded 1 in 2 times. The cost of ending a call
+     * is measured, which is where nearly all of the recording is done.
+     */
+    private void measured(long overhead, long duration) {
+        final double overheadNanos = this.overheadNanos == 0 ?
+                overhead :
+                this.overheadNanos + (overhead - this.overheadNanos) / 8;
+        final double durationNanos = this.durationNanos == 0 ?
+                duration :
+                this.durationNanos + (duration - this.durationNanos) / 8;
+        this.overheadNanos = overheadNanos;
+        this.durationNanos = durationNanos;
+
+        final double over = overheadNanos / (overheadBudget * Math.max(1, durationNanos));
+        final int budgetSampleEvery = (int) Math.min(SamplingRules.MAX_SAMPLE_EVERY, Math.max(1, Math.ceil(over)));
+        if (budgetSampleEvery != this.budgetSampleEvery) {
+            synchronized (this) {
+                this.budgetSampleEvery = budgetSampleEvery;
+                if (ruleSampleEvery == NO_RULE) {
+                    sampleEvery = budgetSampleEvery;
+                }
+            }
+        }
+    }
+}
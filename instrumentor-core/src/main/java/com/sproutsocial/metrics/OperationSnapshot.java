@@ -0,0 +1,56 @@
+package com.sproutsocial.metrics;
+
+import com.sproutsocial.metrics.histograms.HistogramSnapshot;
+
+/**
+ * Created on 10/19/26
+ *
+ * What happened to a single instrumented name during
+ * the interval covered by an {@link InstrumentorSnapshot}.
+ */
+public final class OperationSnapshot {
+
+    private final String name;
+    private final long errors;
+    private final long inFlight;
+    private final HistogramSnapshot latency;
+
+    /* package */ OperationSnapshot(String name, long errors, long inFlight, HistogramSnapshot latency) {
+        this.name = name;
+        this.errors = errors;
+        this.inFlight = inFlight;
+        this.latency = latency;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the number of calls that completed during the interval
+     */
+    public long getCalls() {
+        return latency.getCount();
+    }
+
+    /**
+     * @return the number of calls marked as errors during the interval
+     */
+    public long getErrors() {
+        return errors;
+    }
+
+    /**
+     * @return the number of calls in flight when the snapshot was taken
+     */
+    public long getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * @return the latencies, in nanoseconds, of the calls that completed during the interval
+     */
+    public HistogramSnapshot getLatency() {
+        return latency;
+    }
+}
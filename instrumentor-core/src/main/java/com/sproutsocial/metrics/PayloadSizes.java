@@ -0,0 +1,78 @@
+package com.sproutsocial.metrics;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import com.codahale.metrics.Clock;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+
+/**
+ * Created on 10/19/26
+ *
+ * The sizes of one name's payloads, an argument or the result, as
+ * {@code name.size}, and optionally its latency split by size, as a timer for
+ * each bucket. With buckets 100 and 10000 those are {@code name.size.le_100},
+ * {@code name.size.le_10000} and {@code name.size.gt_10000}, so a name that
+ * got slower can be told from one that was called with bigger payloads.
+ *
+ * Package scoped, used in AOP module
+ */
+/* package */ final class PayloadSizes {
+
+    final Histogram sizes;
+    private final long[] bounds;
+    private final Timer[] latencies;
+    private final Clock clock;
+
+    /**
+     * @param bounds ascending upper bounds of the size buckets, empty to not split latency
+     */
+    PayloadSizes(String name, long[] bounds, MetricRegistry metricRegistry, Clock clock) {
+        for (int i = 1; i < bounds.length; i++) {
+            if (bounds[i] <= bounds[i - 1]) {
+                throw new IllegalArgumentException("size buckets must be ascending, were " + Arrays.toString(bounds));
+            }
+        }
+        this.sizes = ClockedMetrics.histogram(metricRegistry, MetricRegistry.name(name, "size"), clock);
+        this.bounds = bounds.clone();
+        this.latencies = new Timer[bounds.length == 0 ? 0 : bounds.length + 1];
+        for (int i = 0; i < bounds.length; i++) {
+            latencies[i] = ClockedMetrics.timer(metricRegistry, MetricRegistry.name(name, "size", "le_" + bounds[i]), clock);
+        }
+        if (bounds.length > 0) {
+            final String overflow = MetricRegistry.name(name, "size", "gt_" + bounds[bounds.length - 1]);
+            latencies[bounds.length] = ClockedMetrics.timer(metricRegistry, overflow, clock);
+        }
+        this.clock = clock;
+    }
+
+    /**
+     * @return the start time to pass to {@link #record(long, long)}, 0 unless latency is split by size
+     */
+    long start() {
+        return latencies.length == 0 ? 0 : clock.getTick();
+    }
+
+    /**
+     * @param size negative if there was nothing to size, which records nothing
+     */
+    void record(long size, long startNanos) {
+        if (size < 0) {
+            return;
+        }
+        sizes.update(size);
+        if (latencies.length > 0) {
+            latencies[bucket(size)].update(clock.getTick() - startNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private int bucket(long size) {
+        int bucket = 0;
+        while (bucket < bounds.length && size > bounds[bucket]) {
+            bucket++;
+        }
+        return bucket;
+    }
+}
@@ -0,0 +1,243 @@
+package com.sproutsocial.metrics;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import com.codahale.metrics.Clock;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Metered;
+import com.codahale.metrics.Timer;
+
+/**
+ * Created on 10/19/26
+ *
+ * The count and EWMA rates of a {@link Metered} saved by a previous process.
+ *
+ * An EWMA that sees no events decays by {@code e^(-t/window)} over {@code t},
+ * so the saved rates are decayed by how long ago they were saved. A restored
+ * meter's EWMAs start from those rates rather than from the first interval's
+ * rate, and carry on from there, giving the rates the old meter would have
+ * had, as if the process had never restarted.
+ * Mean rates aren't restored, they only cover this process.
+ */
+/* package */ final class RestoredRates {
+
+    private static final double M1_WINDOW_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private static final double M5_WINDOW_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    private static final double M15_WINDOW_MILLIS = TimeUnit.MINUTES.toMillis(15);
+
+    // the same interval as a codahale Meter's
+    private static final long TICK_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(5);
+    private static final double TICK_INTERVAL_MILLIS = TimeUnit.NANOSECONDS.toMillis(TICK_INTERVAL_NANOS);
+
+    final long count;
+    private final double m1Rate;
+    private final double m5Rate;
+    private final double m15Rate;
+    private final long savedAtMillis;
+    private final LongSupplier clock;
+
+    RestoredRates(long count, double m1Rate, double m5Rate, double m15Rate, long savedAtMillis, LongSupplier clock) {
+        this.count = count;
+        this.m1Rate = m1Rate;
+        this.m5Rate = m5Rate;
+        this.m15Rate = m15Rate;
+        this.savedAtMillis = savedAtMillis;
+        this.clock = clock;
+    }
+
+    double getOneMinuteRate() {
+        return decay(m1Rate, M1_WINDOW_MILLIS);
+    }
+
+    double getFiveMinuteRate() {
+        return decay(m5Rate, M5_WINDOW_MILLIS);
+    }
+
+    double getFifteenMinuteRate() {
+        return decay(m15Rate, M15_WINDOW_MILLIS);
+    }
+
+    private double decay(double rate, double windowMillis) {
+        final long age = Math.max(0, clock.getAsLong() - savedAtMillis);
+        return rate * Math.exp(-age / windowMillis);
+    }
+
+    /**
+     * An exponentially weighted moving average that starts from a
+     * given rate, ticked like a codahale EWMA.
+     */
+    private static final class Ewma {
+        private final double alpha;
+        private final LongAdder uncounted = new LongAdder();
+        private volatile double ratePerSecond;
+
+        Ewma(double windowMillis, double ratePerSecond) {
+            this.alpha = 1 - Math.exp(-TICK_INTERVAL_MILLIS / windowMillis);
+            this.ratePerSecond = ratePerSecond;
+        }
+
+        void update(long n) {
+            uncounted.add(n);
+        }
+
+        void tick() {
+            final double instantRate = uncounted.sumThenReset() * 1000d / TICK_INTERVAL_MILLIS;
+            ratePerSecond += alpha * (instantRate - ratePerSecond);
+        }
+
+        double getRate() {
+            return ratePerSecond;
+        }
+    }
+
+    /**
+     * A {@link Meter} whose EWMAs start from restored rates. It keeps its own
+     * count and EWMAs, so none of {@link Meter}'s own state is used.
+     */
+    static final class RestoredMeter extends Meter {
+        private final RestoredRates restored;
+        private final Ewma m1Rate;
+        private final Ewma m5Rate;
+        private final Ewma m15Rate;
+        private final LongAdder count = new LongAdder();
+        private final Clock clock;
+        private final long startTime;
+        private final AtomicLong lastTick;
+
+        RestoredMeter(RestoredRates restored, Clock clock) {
+            super(clock);
+            this.restored = restored;
+            this.m1Rate = new Ewma(M1_WINDOW_MILLIS, restored.getOneMinuteRate());
+            this.m5Rate = new Ewma(M5_WINDOW_MILLIS, restored.getFiveMinuteRate());
+            this.m15Rate = new Ewma(M15_WINDOW_MILLIS, restored.getFifteenMinuteRate());
+            this.clock = clock;
+            this.startTime = clock.getTick();
+            this.lastTick = new AtomicLong(startTime);
+        }
+
+        @Override
+        public void mark() {
+            mark(1);
+        }
+
+        @Override
+        public void mark(long n) {
+            tickIfNecessary();
+            count.add(n);
+            m1Rate.update(n);
+            m5Rate.update(n);
+            m15Rate.update(n);
+        }
+
+        private void tickIfNecessary() {
+            final long oldTick = lastTick.get();
+            final long newTick = clock.getTick();
+            final long age = newTick - oldTick;
+            if (age > TICK_INTERVAL_NANOS && lastTick.compareAndSet(oldTick, newTick - age % TICK_INTERVAL_NANOS)) {
+                for (long i = 0; i < age / TICK_INTERVAL_NANOS; i++) {
+                    m1Rate.tick();
+                    m5Rate.tick();
+                    m15Rate.tick();
+                }
+            }
+        }
+
+        @Override
+        public long getCount() {
+            return count.sum() + restored.count;
+        }
+
+        @Override
+        public double getMeanRate() {
+            final long marked = count.sum();
+            if (marked == 0) {
+                return 0;
+            }
+            final double elapsedNanos = clock.getTick() - startTime;
+            return marked / elapsedNanos * TimeUnit.SECONDS.toNanos(1);
+        }
+
+        @Override
+        public double getOneMinuteRate() {
+            tickIfNecessary();
+            return m1Rate.getRate();
+        }
+
+        @Override
+        public double getFiveMinuteRate() {
+            tickIfNecessary();
+            return m5Rate.getRate();
+        }
+
+        @Override
+        public double getFifteenMinuteRate() {
+            tickIfNecessary();
+            return m15Rate.getRate();
+        }
+    }
+
+    /**
+     * A {@link Timer} whose rates start from restored rates. Its reservoir
+     * starts empty, percentiles only cover this process.
+     */
+    static final class RestoredTimer extends Timer {
+        private final RestoredRates restored;
+        private final RestoredMeter meter;
+        private final Clock clock;
+
+        RestoredTimer(RestoredRates restored, Clock clock) {
+            super(ClockedMetrics.reservoir(clock), clock);
+            this.restored = restored;
+            this.meter = new RestoredMeter(restored, clock);
+            this.clock = clock;
+        }
+
+        @Override
+        public void update(long duration, TimeUnit unit) {
+            super.update(duration, unit);
+            if (duration >= 0) {
+                meter.mark();
+            }
+        }
+
+        @Override
+        public <T> T time(Callable<T> event) throws Exception {
+            // Timer#time(Callable) doesn't go through update(long, TimeUnit)
+            final long start = clock.getTick();
+            try {
+                return event.call();
+            } finally {
+                update(clock.getTick() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        @Override
+        public long getCount() {
+            return super.getCount() + restored.count;
+        }
+
+        @Override
+        public double getMeanRate() {
+            return meter.getMeanRate();
+        }
+
+        @Override
+        public double getOneMinuteRate() {
+            return meter.getOneMinuteRate();
+        }
+
+        @Override
+        public double getFiveMinuteRate() {
+            return meter.getFiveMinuteRate();
+        }
+
+        @Override
+        public double getFifteenMinuteRate() {
+            return meter.getFifteenMinuteRate();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.sproutsocial.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+
+/**
+ * Created on 10/19/26
+ *
+ * The retry loop for a name, and the state shared by every retried call to it.
+ *
+ * The name's own timer and error meter see one call however many attempts it
+ * took, attempts are timed separately in {@code name.attempts}.
+ */
+/* package */ final class Retries {
+
+    /**
+     * the reserve of retries the budget starts with, and can build back up to
+     */
+    static final double MAX_TOKENS = 10d;
+
+    final Timer attempts;
+    final Histogram attemptsPerCall;
+    final Meter retries;
+    final Meter throttled;
+
+    private final TokenBucket budget = new TokenBucket(MAX_TOKENS, MAX_TOKENS);
+
+    Retries(String name, MetricRegistry metricRegistry) {
+        this.attempts = metricRegistry.timer(MetricRegistry.name(name, "attempts"));
+        this.attemptsPerCall = metricRegistry.histogram(MetricRegistry.name(name, "attempts", "per_call"));
+        this.retries = metricRegistry.meter(MetricRegistry.name(name, "retries"));
+        this.throttled = metricRegistry.meter(MetricRegistry.name(name, "retries", "throttled"));
+    }
+
+    /**
+     * If the thread is interrupted while backing off, gives up
+     * and throws the last failure with the interrupt restored.
+     */
+    <T> T call(ThrowableCallable<T> callable, RetryPolicy policy) throws Throwable {
+        for (int attempt = 1; ; attempt++) {
+            final long start = System.nanoTime();
+            try {
+                final T result = callable.call();
+                attempts.update(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                attemptsPerCall.update(attempt);
+                budget.deposit(policy.getBudgetRatio());
+                return result;
+            } catch (Throwable e) {
+                attempts.update(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                if (!shouldRetry(e, attempt, policy)) {
+                    attemptsPerCall.update(attempt);
+                    throw e;
+                }
+                retries.mark();
+                try {
+                    TimeUnit.NANOSECONDS.sleep(policy.backoffNanos(attempt));
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    attemptsPerCall.update(attempt);
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private boolean shouldRetry(Throwable e, int attempt, RetryPolicy policy) {
+        if (attempt >= policy.getMaxAttempts() || !policy.shouldRetry(e)) {
+            return false;
+        }
+        if (!budget.tryWithdraw()) {
+            throttled.mark();
+            return false;
+        }
+        return true;
+    }
+}
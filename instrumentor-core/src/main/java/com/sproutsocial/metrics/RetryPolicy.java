@@ -0,0 +1,119 @@
+package com.sproutsocial.metrics;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+
+/**
+ * Created on 10/19/26
+ *
+ * How {@link Instrumentor#callWithRetry} retries a failed call.
+ *
+ * Backoff is exponential with full jitter, the nth retry sleeps for a random
+ * time up to {@code min(maxBackoff, initialBackoff * multiplier^(n-1))}, so
+ * callers that failed together don't retry together.
+ *
+ * Retries are also capped by a budget, every successful call earns
+ * {@code budgetRatio} of a retry, so during an outage retries
+ * stop multiplying the load on a struggling dependency.
+ */
+public final class RetryPolicy {
+
+    private final int maxAttempts;
+    private final long initialBackoffNanos;
+    private final long maxBackoffNanos;
+    private final double multiplier;
+    private final double budgetRatio;
+    private final Predicate<Throwable> retryOn;
+
+    private RetryPolicy(Builder builder) {
+        this.maxAttempts = builder.maxAttempts;
+        this.initialBackoffNanos = builder.initialBackoff.toNanos();
+        this.maxBackoffNanos = builder.maxBackoff.toNanos();
+        this.multiplier = builder.multiplier;
+        this.budgetRatio = builder.budgetRatio;
+        this.retryOn = builder.retryOn;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public double getBudgetRatio() {
+        return budgetRatio;
+    }
+
+    /* package */ boolean shouldRetry(Throwable e) {
+        return retryOn.test(e);
+    }
+
+    /**
+     * @param retry the retry about to be made, starting at 1
+     */
+    /* package */ long backoffNanos(int retry) {
+        final double ceiling = Math.min(maxBackoffNanos, initialBackoffNanos * Math.pow(multiplier, retry - 1));
+        return (long) (ThreadLocalRandom.current().nextDouble() * ceiling);
+    }
+
+    public static class Builder {
+        private int maxAttempts = 3;
+        private Duration initialBackoff = Duration.ofMillis(100);
+        private Duration maxBackoff = Duration.ofSeconds(10);
+        private double multiplier = 2d;
+        private double budgetRatio = 0.1;
+        private Predicate<Throwable> retryOn = e -> e instanceof Exception;
+
+        private Builder() {}
+
+        /**
+         * the most attempts for a single call, including the first
+         */
+        public Builder maxAttempts(int maxAttempts) {
+            if (maxAttempts < 1) {
+                throw new IllegalArgumentException("maxAttempts must be at least 1, got " + maxAttempts);
+            }
+            this.maxAttempts = maxAttempts;
+            return this;
+        }
+
+        public Builder initialBackoff(Duration initialBackoff) {
+            this.initialBackoff = initialBackoff;
+            return this;
+        }
+
+        public Builder maxBackoff(Duration maxBackoff) {
+            this.maxBackoff = maxBackoff;
+            return this;
+        }
+
+        public Builder multiplier(double multiplier) {
+            this.multiplier = multiplier;
+            return this;
+        }
+
+        /**
+         * the retries earned by each successful call, 0.1 allows one
+         * retry for every ten successes on top of a small reserve
+         */
+        public Builder budgetRatio(double budgetRatio) {
+            this.budgetRatio = budgetRatio;
+            return this;
+        }
+
+        /**
+         * which failures are worth retrying, by default any {@link Exception}
+         */
+        public Builder retryOn(Predicate<Throwable> retryOn) {
+            this.retryOn = retryOn;
+            return this;
+        }
+
+        public RetryPolicy build() {
+            return new RetryPolicy(this);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.sproutsocial.metrics;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+import com.codahale.metrics.Counting;
+import com.codahale.metrics.Metered;
+
+/**
+ * Created on 10/19/26
+ *
+ * Aggregates the operations under a class or a configured name prefix.
+ *
+ * Nothing is recorded on the hot path, the rollup's sums add up their
+ * members' metrics when they're read. Only counts and EWMA rates add up
+ * exactly. Each member's mean rate is over its own lifetime, so the summed
+ * mean rate is only close once the members have existed for about as long
+ * as each other. The rates need their members' codahale meters, so they're
+ * only registered with a {@link CodahaleBackend}.
+ *
+ * The sums are read only, so they're registered as gauges rather than as
+ * meters and counters that something else sharing the registry could mark.
+ */
+/* package */ final class Rollup {
+
+    /* package */ static final String SUFFIX = "rollup";
+
+    final String name;
+    final List<Operation> members = new CopyOnWriteArrayList<>();
+    final Metered calls = new SummingMetered(operation -> CodahaleBackend.metered(operation.timer));
+    final Metered errors = new SummingMetered(operation -> CodahaleBackend.metered(operation.errorMeter));
+    final Counting inFlight = () -> sum(operation -> operation.inFlight.getCount());
+
+    Rollup(String name) {
+        this.name = name;
+    }
+
+    private long sum(ToLongFunction<Operation> accessor) {
+        long sum = 0;
+        for (Operation member : members) {
+            sum += accessor.applyAsLong(member);
+        }
+        return sum;
+    }
+
+    private double sumRates(ToDoubleFunction<Operation> accessor) {
+        double sum = 0;
+        for (Operation member : members) {
+            sum += accessor.applyAsDouble(member);
+        }
+        return sum;
+    }
+
+    private class SummingMetered implements Metered {
+        private final Function<Operation, Metered> accessor;
+
+        SummingMetered(Function<Operation, Metered> accessor) {
+            this.accessor = accessor;
+        }
+
+        @Override
+        public long getCount() {
+            return sum(operation -> accessor.apply(operation).getCount());
+        }
+
+        @Override
+        public double getMeanRate() {
+            return sumRates(operation -> accessor.apply(operation).getMeanRate());
+        }
+
+        @Override
+        public double getOneMinuteRate() {
+            return sumRates(operation -> accessor.apply(operation).getOneMinuteRate());
+        }
+
+        @Override
+        public double getFiveMinuteRate() {
+            return sumRates(operation -> accessor.apply(operation).getFiveMinuteRate());
+        }
+
+        @Override
+        public double getFifteenMinuteRate() {
+            return sumRates(operation -> accessor.apply(operation).getFifteenMinuteRate());
+        }
+    }
+}
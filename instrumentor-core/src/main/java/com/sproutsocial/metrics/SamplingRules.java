@@ -0,0 +1,85 @@
+package com.sproutsocial.metrics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Created on 10/19/26
+ *
+ * Runtime rules for how many of each operation's calls are recorded, keyed by
+ * a name or a prefix of whole segments, so {@code com.mycompany.UserService}
+ * covers {@code com.mycompany.UserService.getUser} but not
+ * {@code com.mycompany.UserServiceImpl.getUser}. The longest matching rule wins.
+ *
+ * Changing rules is rare, so it's done under a lock, and pushes each affected
+ * operation's new rate into the operation. Calls only ever read the rate
+ * the operation already holds.
+ */
+/* package */ final class SamplingRules {
+
+    /**
+     * the most calls one recorded call can stand for, about 0.0015%
+     */
+    static final int MAX_SAMPLE_EVERY = 1 << 16;
+
+    private final Map<String, Integer> rules = new HashMap<>();
+    private final List<Operation> operations = new ArrayList<>();
+
+    /**
+     * @return 0 to record no calls, or {@code n} to record 1 in {@code n}
+     */
+    static int sampleEvery(double fraction) {
+        if (fraction < 0 || fraction > 1) {
+            throw new IllegalArgumentException("a sample rate must be between 0 and 1, was " + fraction);
+        }
+        return fraction == 0 ? 0 : (int) Math.min(MAX_SAMPLE_EVERY, Math.round(1 / fraction));
+    }
+
+    synchronized void register(Operation operation) {
+        operations.add(operation);
+        operation.setRule(resolve(operation.name));
+    }
+
+    synchronized void set(String prefix, int sampleEvery) {
+        rules.put(prefix, sampleEvery);
+        apply(prefix);
+    }
+
+    synchronized void clear(String prefix) {
+        if (rules.remove(prefix) != null) {
+            apply(prefix);
+        }
+    }
+
+    private void apply(String prefix) {
+        for (Operation operation : operations) {
+            if (matches(operation.name, prefix)) {
+                operation.setRule(resolve(operation.name));
+            }
+        }
+    }
+
+    /**
+     * @return the longest matching rule's sample every, or {@link Operation#NO_RULE}
+     */
+    private int resolve(String name) {
+        for (String prefix = name; ; ) {
+            final Integer rule = rules.get(prefix);
+            if (rule != null) {
+                return rule;
+            }
+            final int lastSegment = prefix.lastIndexOf('.');
+            if (lastSegment <= 0) {
+                return Operation.NO_RULE;
+            }
+            prefix = prefix.substring(0, lastSegment);
+        }
+    }
+
+    private static boolean matches(String name, String prefix) {
+        return name.startsWith(prefix) &&
+                (name.length() == prefix.length() || name.charAt(prefix.length()) == '.');
+    }
+}
@@ -0,0 +1,55 @@
+package com.sproutsocial.metrics;
+
+import java.util.Optional;
+
+/**
+ * Created on 10/19/26
+ *
+ * One of the slowest calls to an instrumented name, see {@link Instrumentor#getSlowCalls(String)}.
+ */
+public final class SlowCall {
+
+    private final long timestampMillis;
+    private final long durationNanos;
+    private final String threadName;
+    private final boolean error;
+    private final String context;
+
+    /* package */ SlowCall(long timestampMillis, long durationNanos, String threadName, boolean error, String context) {
+        this.timestampMillis = timestampMillis;
+        this.durationNanos = durationNanos;
+        this.threadName = threadName;
+        this.error = error;
+        this.context = context;
+    }
+
+    /**
+     * @return when the call finished, in epoch millis
+     */
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    public String getThreadName() {
+        return threadName;
+    }
+
+    /**
+     * @return true if the call was marked as an error
+     */
+    public boolean isError() {
+        return error;
+    }
+
+    /**
+     * @return what the caller said about the call, like the arguments
+     * of an {@code @Instrumented} method
+     */
+    public Optional<String> getContext() {
+        return Optional.ofNullable(context);
+    }
+}
@@ -0,0 +1,157 @@
+package com.sproutsocial.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+import com.codahale.metrics.Clock;
+
+/**
+ * Created on 10/19/26
+ *
+ * The slowest calls to a name in the current and previous window.
+ *
+ * A window is a fixed array of slots and a threshold, the duration of its fastest
+ * captured call once it's full. Calls at or under the threshold, which is most
+ * of them, are rejected with a single comparison. A slower call replaces the
+ * fastest captured call with a compare-and-set, retrying if another call got there
+ * first. Captured durations only grow, so a stale threshold only lets extra
+ * calls through to the compare-and-set, it never rejects a call that belongs.
+ */
+/* package */ final class SlowCalls {
+
+    private final int size;
+    private final long windowNanos;
+    private final Clock clock;
+    private final AtomicReference<Window> current;
+    private volatile Window previous;
+
+    SlowCalls(int size, long windowNanos) {
+        this(size, windowNanos, Clock.defaultClock());
+    }
+
+    SlowCalls(int size, long windowNanos, Clock clock) {
+        this.size = size;
+        this.windowNanos = windowNanos;
+        this.clock = clock;
+        this.current = new AtomicReference<>(new Window(size, clock.getTick()));
+    }
+
+    /**
+     * @param context evaluated only if the call is captured, may be null
+     */
+    void record(long endNanos, long durationNanos, boolean error, Supplier<String> context) {
+        Window window = current.get();
+        if (endNanos - window.startNanos >= windowNanos) {
+            window = rotate(window, endNanos);
+        }
+        if (durationNanos <= window.threshold) {
+            return;
+        }
+        window.offer(new SlowCall(
+                clock.getTime(),
+                durationNanos,
+                Thread.currentThread().getName(),
+                error,
+                describe(context)
+        ));
+    }
+
+    /**
+     * a context that fails to describe the call, like an argument whose
+     * {@code toString} throws, is replaced rather than failing the call
+     */
+    private static String describe(Supplier<String> context) {
+        if (context == null) {
+            return null;
+        }
+        try {
+            return context.get();
+        } catch (RuntimeException e) {
+            return "<context unavailable: " + e + ">";
+        }
+    }
+
+    private Window rotate(Window expired, long nowNanos) {
+        final Window next = new Window(size, nowNanos);
+        if (current.compareAndSet(expired, next)) {
+            previous = expired;
+        }
+        return current.get();
+    }
+
+    /**
+     * @return the slowest calls finished in the current and previous
+     * windows, at most {@code size} of them, slowest first
+     */
+    List<SlowCall> get() {
+        final long now = clock.getTick();
+        final List<SlowCall> calls = new ArrayList<>();
+        final Window current = this.current.get();
+        if (now - current.startNanos < windowNanos * 2) {
+            current.addTo(calls);
+        }
+        final Window previous = this.previous;
+        if (previous != null && previous != current && now - previous.startNanos < windowNanos * 2) {
+            previous.addTo(calls);
+        }
+        calls.sort(Comparator.comparingLong(SlowCall::getDurationNanos).reversed());
+        return calls.size() > size ? new ArrayList<>(calls.subList(0, size)) : calls;
+    }
+
+    private static final class Window {
+        private final long startNanos;
+        private final AtomicReferenceArray<SlowCall> slots;
+        private volatile long threshold = -1;
+
+        Window(int size, long startNanos) {
+            this.startNanos = startNanos;
+            this.slots = new AtomicReferenceArray<>(size);
+        }
+
+        void offer(SlowCall call) {
+            while (true) {
+                int fastestIndex = 0;
+                SlowCall fastest = slots.get(0);
+                for (int i = 1; i < slots.length() && fastest != null; i++) {
+                    final SlowCall slot = slots.get(i);
+                    if (slot == null || slot.getDurationNanos() < fastest.getDurationNanos()) {
+                        fastestIndex = i;
+                        fastest = slot;
+                    }
+                }
+                if (fastest != null && call.getDurationNanos() <= fastest.getDurationNanos()) {
+                    return;
+                }
+                if (slots.compareAndSet(fastestIndex, fastest, call)) {
+                    threshold = fastestDuration();
+                    return;
+                }
+            }
+        }
+
+        private long fastestDuration() {
+            long fastest = Long.MAX_VALUE;
+            for (int i = 0; i < slots.length(); i++) {
+                final SlowCall slot = slots.get(i);
+                if (slot == null) {
+                    return -1;
+                }
+                fastest = Math.min(fastest, slot.getDurationNanos());
+            }
+            return fastest;
+        }
+
+        void addTo(List<SlowCall> calls) {
+            for (int i = 0; i < slots.length(); i++) {
+                final SlowCall slot = slots.get(i);
+                if (slot != null) {
+                    calls.add(slot);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.sproutsocial.metrics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.ImmutableSortedMap;
+import com.sproutsocial.metrics.histograms.HistogramSnapshot;
+
+/**
+ * Created on 10/19/26
+ *
+ * Tracks where a single consumer, like a reporter, left off so that each
+ * {@link #snapshot()} covers only what happened since its previous one.
+ *
+ * Cursors are independent, so two reporters on different schedules each
+ * see complete intervals. Each snapshot copies an operation's histogram
+ * once, and keeps that copy as the starting point for the next interval.
+ * Rollups are merged from their members' intervals, without copying anything else.
+ *
+ * @see Instrumentor#newSnapshotCursor()
+ */
+public final class SnapshotCursor {
+
+    private final Instrumentor instrumentor;
+    private final Map<String, Baseline> baselines = new HashMap<>();
+    private long lastSnapshotMillis;
+
+    /**
+     * starts from whatever the operation restored, so a restart
+     * doesn't report everything before it as the first interval
+     */
+    private static final class Baseline {
+        private long errors;
+        private HistogramSnapshot latency;
+
+        Baseline(Operation operation) {
+            this.errors = operation.restoredErrors;
+            this.latency = operation.restoredLatency;
+        }
+    }
+
+    /* package */ SnapshotCursor(Instrumentor instrumentor) {
+        this.instrumentor = instrumentor;
+        this.lastSnapshotMillis = System.currentTimeMillis();
+    }
+
+    public synchronized InstrumentorSnapshot snapshot() {
+        final long now = System.currentTimeMillis();
+        final ImmutableSortedMap.Builder<String, OperationSnapshot> operations =
+                ImmutableSortedMap.naturalOrder();
+
+        for (Operation operation : instrumentor.getOperations()) {
+            final Baseline baseline = baselines.computeIfAbsent(operation.name, name -> new Baseline(operation));
+
+            final long inFlight = operation.inFlight.getCount();
+            final long errors = operation.errorMeter.getCount();
+            final HistogramSnapshot latency = operation.latency.snapshot();
+
+            operations.put(operation.name, new OperationSnapshot(
+                    operation.name,
+                    errors - baseline.errors,
+                    inFlight,
+                    latency.minus(baseline.latency)
+            ));
+
+            baseline.errors = errors;
+            baseline.latency = latency;
+        }
+
+        final ImmutableSortedMap<String, OperationSnapshot> operationSnapshots = operations.build();
+        final InstrumentorSnapshot snapshot = new InstrumentorSnapshot(
+                lastSnapshotMillis,
+                now,
+                operationSnapshots,
+                rollups(operationSnapshots)
+        );
+        lastSnapshotMillis = now;
+        return snapshot;
+    }
+
+    private ImmutableSortedMap<String, OperationSnapshot> rollups(Map<String, OperationSnapshot> operations) {
+        final ImmutableSortedMap.Builder<String, OperationSnapshot> rollups = ImmutableSortedMap.naturalOrder();
+
+        for (Rollup rollup : instrumentor.getRollups()) {
+            long errors = 0;
+            long inFlight = 0;
+            final List<HistogramSnapshot> latencies = new ArrayList<>(rollup.members.size());
+            for (Operation member : rollup.members) {
+                final OperationSnapshot operation = operations.get(member.name);
+                if (operation != null) {
+                    errors += operation.getErrors();
+                    inFlight += operation.getInFlight();
+                    latencies.add(operation.getLatency());
+                }
+            }
+            rollups.put(rollup.name, new OperationSnapshot(
+                    rollup.name,
+                    errors,
+                    inFlight,
+                    HistogramSnapshot.merge(latencies)
+            ));
+        }
+        return rollups.build();
+    }
+}
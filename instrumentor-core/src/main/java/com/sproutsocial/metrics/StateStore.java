@@ -0,0 +1,224 @@
+package com.sproutsocial.metrics;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import com.codahale.metrics.Metered;
+import com.sproutsocial.metrics.histograms.HistogramSnapshot;
+
+/**
+ * Created on 10/19/26
+ *
+ * Saves the state of every operation to a local file, periodically and when
+ * the JVM shuts down, and restores it when an operation is next created, so
+ * {@code name.errors}, the {@code *_pct} gauges and the error rate health
+ * check carry on across restarts instead of starting from nothing.
+ *
+ * For every operation the store keeps the count and the 1, 5 and 15 minute
+ * rates of {@code name} and {@code name.errors}, and the latency histogram.
+ * Restored rates are decayed by how long ago they were saved, exactly as the
+ * EWMAs would have decayed had the process been idle, see {@link RestoredRates}.
+ * Counts and histograms are cumulative and are restored as they were saved.
+ * Snapshots older than {@code maxAge} are ignored. Only instrumentors with
+ * a {@link CodahaleBackend} can use a store, other backends don't keep rates.
+ *
+ * The file is written to a temporary file and moved into place,
+ * all big-endian
+ *
+ * - int magic {@link #MAGIC}, int version, long wall clock millis when saved, int operation count
+ * - for each operation, its UTF name, then long count and double m1, m5 and m15
+ *   rates for {@code name} and then {@code name.errors}, then its histogram,
+ *   see {@link HistogramSnapshot#writeTo(java.io.DataOutput)}
+ */
+public final class StateStore implements Closeable {
+
+    public static final int MAGIC = 0x49535453;
+    public static final int VERSION = 2;
+
+    private final Path path;
+    private final LongSupplier clock;
+    private final ConcurrentMap<String, Operation> operations = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, State> restored;
+    private final ScheduledExecutorService scheduler;
+    private final Thread shutdownHook;
+    private final AtomicLong failedSaves = new AtomicLong();
+
+    /* package */ StateStore(Path path, Duration saveInterval, Duration maxAge, LongSupplier clock) throws IOException {
+        this.path = path;
+        this.clock = clock;
+        this.restored = new ConcurrentHashMap<>(read(path, maxAge.toMillis(), clock));
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "instrumentor-state-store");
+            thread.setDaemon(true);
+            return thread;
+        });
+        final long interval = saveInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::trySave, interval, interval, TimeUnit.MILLISECONDS);
+        this.shutdownHook = new Thread(this::trySave, "instrumentor-state-store-shutdown");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    /**
+     * Restores the state saved at {@code path}, if there is any, and
+     * saves every minute. Snapshots older than a day are ignored.
+     */
+    public static StateStore open(Path path) throws IOException {
+        return open(path, Duration.ofMinutes(1), Duration.ofDays(1));
+    }
+
+    /**
+     * @param saveInterval how often to save, state is also saved on shutdown and close
+     * @param maxAge snapshots saved longer ago than this are ignored
+     */
+    public static StateStore open(Path path, Duration saveInterval, Duration maxAge) throws IOException {
+        return new StateStore(path, saveInterval, maxAge, System::currentTimeMillis);
+    }
+
+    /**
+     * @return the number of periodic or shutdown saves that failed
+     */
+    public long getFailedSaves() {
+        return failedSaves.get();
+    }
+
+    /**
+     * @return the state saved for {@code name}, null if there is none
+     */
+    /* package */ State restore(String name) {
+        return restored.remove(name);
+    }
+
+    /* package */ void track(Operation operation) {
+        operations.put(operation.name, operation);
+    }
+
+    /**
+     * Writes the state of every tracked operation, along with restored
+     * state that hasn't been claimed by an operation yet.
+     */
+    public synchronized void save() throws IOException {
+        final long now = clock.getAsLong();
+        final Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(now);
+            out.writeInt(operations.size() + restored.size());
+            for (Operation operation : operations.values()) {
+                out.writeUTF(operation.name);
+                writeMetered(out, CodahaleBackend.metered(operation.timer));
+                writeMetered(out, CodahaleBackend.metered(operation.errorMeter));
+                operation.latency.snapshot().writeTo(out);
+            }
+            for (Map.Entry<String, State> entry : restored.entrySet()) {
+                out.writeUTF(entry.getKey());
+                writeRates(out, entry.getValue().calls);
+                writeRates(out, entry.getValue().errors);
+                entry.getValue().latency.writeTo(out);
+            }
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void trySave() {
+        try {
+            save();
+        } catch (IOException | RuntimeException e) {
+            failedSaves.incrementAndGet();
+        }
+    }
+
+    /**
+     * Stops saving periodically and saves one last time
+     */
+    @Override
+    public void close() throws IOException {
+        scheduler.shutdownNow();
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException alreadyShuttingDown) {}
+        save();
+    }
+
+    private static void writeMetered(DataOutputStream out, Metered metered) throws IOException {
+        out.writeLong(metered.getCount());
+        out.writeDouble(metered.getOneMinuteRate());
+        out.writeDouble(metered.getFiveMinuteRate());
+        out.writeDouble(metered.getFifteenMinuteRate());
+    }
+
+    private static void writeRates(DataOutputStream out, RestoredRates rates) throws IOException {
+        out.writeLong(rates.count);
+        out.writeDouble(rates.getOneMinuteRate());
+        out.writeDouble(rates.getFiveMinuteRate());
+        out.writeDouble(rates.getFifteenMinuteRate());
+    }
+
+    private static Map<String, State> read(Path path, long maxAgeMillis, LongSupplier clock) throws IOException {
+        final Map<String, State> states = new HashMap<>();
+        try (InputStream file = Files.newInputStream(path)) {
+            final DataInputStream in = new DataInputStream(new BufferedInputStream(file));
+            if (in.readInt() != MAGIC) {
+                throw new IOException(path + " is not a state file");
+            }
+            final int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported state file version " + version + " in " + path);
+            }
+            final long savedAtMillis = in.readLong();
+            if (clock.getAsLong() - savedAtMillis > maxAgeMillis) {
+                return states;
+            }
+            final int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                final String name = in.readUTF();
+                final RestoredRates calls = readRates(in, savedAtMillis, clock);
+                final RestoredRates errors = readRates(in, savedAtMillis, clock);
+                states.put(name, new State(calls, errors, HistogramSnapshot.readFrom(in)));
+            }
+        } catch (NoSuchFileException nothingSavedYet) {}
+        return states;
+    }
+
+    private static RestoredRates readRates(DataInputStream in, long savedAtMillis, LongSupplier clock) throws IOException {
+        return new RestoredRates(
+                in.readLong(),
+                in.readDouble(),
+                in.readDouble(),
+                in.readDouble(),
+                savedAtMillis,
+                clock
+        );
+    }
+
+    /* package */ static final class State {
+        final RestoredRates calls;
+        final RestoredRates errors;
+        final HistogramSnapshot latency;
+
+        State(RestoredRates calls, RestoredRates errors, HistogramSnapshot latency) {
+            this.calls = calls;
+            this.errors = errors;
+            this.latency = latency;
+        }
+    }
+}
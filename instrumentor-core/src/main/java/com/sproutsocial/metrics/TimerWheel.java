@@ -0,0 +1,154 @@
+package com.sproutsocial.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Created on 10/19/26
+ *
+ * A hashed timer wheel that interrupts threads whose deadline has passed.
+ *
+ * Scheduling a deadline only appends to a queue, the single worker thread
+ * moves new deadlines into their bucket and expires one bucket per tick.
+ * Cancelled deadlines are dropped when the worker next visits their bucket,
+ * so a call that finishes in time costs an allocation, a queue offer and an
+ * uncontended lock, however many calls are in flight.
+ *
+ * Deadlines fire up to one tick late.
+ */
+/* package */ final class TimerWheel {
+
+    private static final long DEFAULT_TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final int WHEEL_SIZE = 512;
+    private static final int MASK = WHEEL_SIZE - 1;
+
+    private static final TimerWheel SHARED = new TimerWheel(DEFAULT_TICK_NANOS);
+
+    private final long tickNanos;
+    private final Queue<Deadline> pending = new ConcurrentLinkedQueue<>();
+    private final List<List<Deadline>> buckets = new ArrayList<>(WHEEL_SIZE);
+    private final AtomicBoolean started = new AtomicBoolean();
+    private long startNanos;
+    private long tick;
+
+    TimerWheel(long tickNanos) {
+        this.tickNanos = tickNanos;
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            buckets.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * @return the wheel shared by every {@link Instrumentor}
+     */
+    static TimerWheel shared() {
+        return SHARED;
+    }
+
+    /**
+     * @param deadlineNanos the {@link System#nanoTime()} after which
+     *                      the current thread should be interrupted
+     */
+    Deadline schedule(long deadlineNanos) {
+        if (!started.get() && started.compareAndSet(false, true)) {
+            start();
+        }
+        final Deadline deadline = new Deadline(Thread.currentThread(), deadlineNanos);
+        pending.offer(deadline);
+        return deadline;
+    }
+
+    private void start() {
+        startNanos = System.nanoTime();
+        final Thread worker = new Thread(this::work, "instrumentor-timer-wheel");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    private void work() {
+        while (true) {
+            final long nextTick = startNanos + (tick + 1) * tickNanos;
+            for (long now = System.nanoTime(); now < nextTick; now = System.nanoTime()) {
+                LockSupport.parkNanos(nextTick - now);
+            }
+            transferPending();
+            expire(buckets.get((int) (tick & MASK)));
+            tick++;
+        }
+    }
+
+    private void transferPending() {
+        for (Deadline deadline = pending.poll(); deadline != null; deadline = pending.poll()) {
+            // deadlines that already passed go in the current bucket
+            final long deadlineTick = Math.max((deadline.deadlineNanos - startNanos) / tickNanos, tick);
+            deadline.remainingRounds = (deadlineTick - tick) / WHEEL_SIZE;
+            buckets.get((int) (deadlineTick & MASK)).add(deadline);
+        }
+    }
+
+    private static void expire(List<Deadline> bucket) {
+        int kept = 0;
+        for (Deadline deadline : bucket) {
+            if (deadline.isPending()) {
+                if (deadline.remainingRounds > 0) {
+                    deadline.remainingRounds--;
+                    bucket.set(kept++, deadline);
+                } else {
+                    deadline.expire();
+                }
+            }
+        }
+        bucket.subList(kept, bucket.size()).clear();
+    }
+
+    /* package */ static final class Deadline {
+        private static final int PENDING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private final Thread thread;
+        private final long deadlineNanos;
+        private long remainingRounds;
+        private int state = PENDING;
+
+        private Deadline(Thread thread, long deadlineNanos) {
+            this.thread = thread;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        /**
+         * Must be called by the thread that scheduled the deadline. If the deadline
+         * has expired, clears the interrupt the wheel delivered to this thread.
+         *
+         * @return true if the deadline was cancelled before it expired
+         */
+        synchronized boolean cancel() {
+            if (state == PENDING) {
+                state = CANCELLED;
+            } else if (state == EXPIRED) {
+                Thread.interrupted();
+            }
+            return state == CANCELLED;
+        }
+
+        private synchronized boolean isPending() {
+            return state == PENDING;
+        }
+
+        /**
+         * holding the lock while interrupting means {@link #cancel()} can't
+         * clear the interrupt before it's been delivered
+         */
+        private synchronized void expire() {
+            if (state == PENDING) {
+                state = EXPIRED;
+                thread.interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.sproutsocial.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Created on 10/19/26
+ *
+ * A lock-free bucket of fractional tokens, used to budget
+ * extra work like hedges and retries as a fraction of calls.
+ */
+/* package */ final class TokenBucket {
+
+    private static final long MICROS_PER_TOKEN = 1_000_000L;
+
+    private final long maxMicroTokens;
+    private final AtomicLong microTokens;
+
+    TokenBucket(double maxTokens, double initialTokens) {
+        this.maxMicroTokens = toMicros(maxTokens);
+        this.microTokens = new AtomicLong(Math.min(maxMicroTokens, toMicros(initialTokens)));
+    }
+
+    void deposit(double tokens) {
+        final long deposit = toMicros(tokens);
+        if (deposit > 0) {
+            microTokens.getAndUpdate(current -> Math.min(maxMicroTokens, current + deposit));
+        }
+    }
+
+    /**
+     * @return true if a whole token was withdrawn
+     */
+    boolean tryWithdraw() {
+        for (long current = microTokens.get(); current >= MICROS_PER_TOKEN; current = microTokens.get()) {
+            if (microTokens.compareAndSet(current, current - MICROS_PER_TOKEN)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long toMicros(double tokens) {
+        return (long) (tokens * MICROS_PER_TOKEN);
+    }
+}
@@ -0,0 +1,38 @@
+package com.sproutsocial.metrics.gauges;
+
+import java.time.Duration;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Created on 10/19/26
+ *
+ * An {@link AsyncGauge} over a {@link DoubleSupplier}. The value is kept
+ * as a primitive and only boxed when read through {@link #getValue()},
+ * {@link Double#NaN} until the first value has been computed.
+ */
+public final class AsyncDoubleGauge extends AsyncGauge<Double> implements DoubleSupplier {
+
+    private final DoubleSupplier supplier;
+    private volatile double value = Double.NaN;
+
+    /* package */ AsyncDoubleGauge(DoubleSupplier supplier, Duration refreshInterval, Duration maxStaleness) {
+        super(refreshInterval, maxStaleness);
+        this.supplier = supplier;
+    }
+
+    @Override
+    /* package */ void compute() {
+        value = supplier.getAsDouble();
+    }
+
+    @Override
+    public double getAsDouble() {
+        checkStaleness();
+        return value;
+    }
+
+    @Override
+    public Double getValue() {
+        return getAsDouble();
+    }
+}
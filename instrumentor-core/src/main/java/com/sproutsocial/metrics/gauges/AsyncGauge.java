@@ -0,0 +1,180 @@
+package com.sproutsocial.metrics.gauges;
+
+import java.io.Closeable;
+import java.lang.ref.WeakReference;
+import java.time.Duration;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.codahale.metrics.Gauge;
+
+/**
+ * Created on 10/19/26
+ *
+ * A {@link Gauge} whose value is computed on a shared background scheduler
+ * every {@code refreshInterval}, so reading it only returns the last value.
+ *
+ * Refreshes of the same gauge never overlap. If the scheduler has fallen
+ * behind, and the value is older than {@code maxStaleness}, a read asks for
+ * a refresh right away, but still returns the last value without waiting.
+ * However many reads find it stale, only one refresh is queued at a time.
+ * If computing a value throws, even an {@link Error}, the last value is kept,
+ * the failure is counted in {@link #getFailures()}, and the gauge keeps
+ * refreshing, where an escaped throwable would cancel its schedule.
+ *
+ * The schedule only holds a weak reference to the gauge, so a gauge
+ * stops refreshing once it's unreachable, or when it's closed.
+ */
+public abstract class AsyncGauge<T> implements Gauge<T>, Closeable {
+
+    private final long refreshNanos;
+    private final long maxStalenessNanos;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private final AtomicLong failures = new AtomicLong();
+    private volatile Throwable lastFailure;
+    private volatile long refreshedAtNanos;
+    private volatile boolean refreshed;
+    private volatile ScheduledFuture<?> schedule;
+
+    /* package */ AsyncGauge(Duration refreshInterval, Duration maxStaleness) {
+        this.refreshNanos = refreshInterval.toNanos();
+        this.maxStalenessNanos = maxStaleness.toNanos();
+        if (refreshNanos <= 0 || maxStalenessNanos < refreshNanos) {
+            throw new IllegalArgumentException("refresh interval " + refreshInterval +
+                    " must be positive and no more than the maximum staleness " + maxStaleness);
+        }
+    }
+
+    /**
+     * computes a value and publishes it, called on the scheduler
+     */
+    /* package */ abstract void compute();
+
+    /**
+     * @return true once the first value has been computed
+     */
+    public boolean hasValue() {
+        return refreshed;
+    }
+
+    /**
+     * @return how long ago the current value was computed, in nanoseconds,
+     * or {@link Long#MAX_VALUE} if there is no value yet
+     */
+    public long getAgeNanos() {
+        return refreshed ? System.nanoTime() - refreshedAtNanos : Long.MAX_VALUE;
+    }
+
+    /**
+     * @return how many times computing a value has thrown
+     */
+    public long getFailures() {
+        return failures.get();
+    }
+
+    /**
+     * @return what computing a value last threw, null if it never has
+     */
+    public Throwable getLastFailure() {
+        return lastFailure;
+    }
+
+    /**
+     * starts refreshing, once the subclass has been constructed
+     */
+    /* package */ final void start() {
+        final ScheduledTask task = new ScheduledTask(this);
+        schedule = RefreshScheduler.INSTANCE.scheduleWithFixedDelay(task, 0, refreshNanos, TimeUnit.NANOSECONDS);
+        task.schedule = schedule;
+    }
+
+    /**
+     * requests a refresh if the value is older than the maximum staleness,
+     * call before reading the value
+     */
+    /* package */ final void checkStaleness() {
+        if (refreshed && System.nanoTime() - refreshedAtNanos > maxStalenessNanos &&
+                refreshing.compareAndSet(false, true)) {
+            try {
+                RefreshScheduler.INSTANCE.execute(this::computeAndRelease);
+            } catch (RuntimeException rejected) {
+                refreshing.set(false);
+                throw rejected;
+            }
+        }
+    }
+
+    /* package */ final void refresh() {
+        if (refreshing.compareAndSet(false, true)) {
+            computeAndRelease();
+        }
+    }
+
+    /**
+     * called holding {@code refreshing}
+     */
+    private void computeAndRelease() {
+        try {
+            compute();
+            refreshedAtNanos = System.nanoTime();
+            refreshed = true;
+        } catch (Throwable keepLastValue) {
+            failures.incrementAndGet();
+            lastFailure = keepLastValue;
+        } finally {
+            refreshing.set(false);
+        }
+    }
+
+    /**
+     * stops refreshing, the gauge keeps returning its last value
+     */
+    @Override
+    public void close() {
+        final ScheduledFuture<?> schedule = this.schedule;
+        if (schedule != null) {
+            schedule.cancel(false);
+        }
+    }
+
+    private static final class ScheduledTask implements Runnable {
+        private final WeakReference<AsyncGauge<?>> gauge;
+        private volatile ScheduledFuture<?> schedule;
+
+        ScheduledTask(AsyncGauge<?> gauge) {
+            this.gauge = new WeakReference<>(gauge);
+        }
+
+        @Override
+        public void run() {
+            final AsyncGauge<?> gauge = this.gauge.get();
+            if (gauge != null) {
+                gauge.refresh();
+            } else if (schedule != null) {
+                schedule.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * shared by every async gauge, suppliers that block for
+     * milliseconds don't belong on the common fork join pool
+     */
+    private static final class RefreshScheduler {
+        private static final ScheduledExecutorService INSTANCE = newScheduler();
+
+        private static ScheduledExecutorService newScheduler() {
+            final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(2, runnable -> {
+                final Thread thread = new Thread(runnable, "instrumentor-gauge-refresh");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.setRemoveOnCancelPolicy(true);
+            return scheduler;
+        }
+    }
+}
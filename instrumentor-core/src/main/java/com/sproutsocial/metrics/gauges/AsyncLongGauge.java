@@ -0,0 +1,43 @@
+package com.sproutsocial.metrics.gauges;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Created on 10/19/26
+ *
+ * An {@link AsyncGauge} over a {@link LongSupplier}. The value is kept
+ * as a primitive and only boxed when read through {@link #getValue()},
+ * which is null, and skipped by reporters, until the first value has been computed.
+ */
+public final class AsyncLongGauge extends AsyncGauge<Long> implements LongSupplier {
+
+    private final LongSupplier supplier;
+    private volatile long value;
+
+    /* package */ AsyncLongGauge(LongSupplier supplier, Duration refreshInterval, Duration maxStaleness) {
+        super(refreshInterval, maxStaleness);
+        this.supplier = supplier;
+    }
+
+    @Override
+    /* package */ void compute() {
+        value = supplier.getAsLong();
+    }
+
+    /**
+     * @return the last value, 0 until the first value has been computed
+     */
+    @Override
+    public long getAsLong() {
+        checkStaleness();
+        return value;
+    }
+
+    @Override
+    public Long getValue() {
+        final boolean hasValue = hasValue();
+        final long value = getAsLong();
+        return hasValue ? value : null;
+    }
+}
@@ -1,6 +1,9 @@
 package com.sproutsocial.metrics.gauges;
 
+import java.time.Duration;
+import java.util.function.DoubleSupplier;
 import java.util.function.Function;
+import java.util.function.LongSupplier;
 import java.util.function.Supplier;
 
 import com.codahale.metrics.Gauge;
@@ -42,4 +45,59 @@ public final class Gauges {
     ) {
         return new MeteredRatioGauge(numerator, denominator, accessor);
     }
+
+    /**
+     * @return a gauge that computes {@code supplier} on a background scheduler every
+     * {@code refreshInterval}, see {@link AsyncGauge}. Reads return the last value
+     * and ask for a refresh once it's more than twice the interval old.
+     */
+    public static AsyncDoubleGauge asyncDouble(DoubleSupplier supplier, Duration refreshInterval) {
+        return asyncDouble(supplier, refreshInterval, refreshInterval.multipliedBy(2));
+    }
+
+    public static AsyncDoubleGauge asyncDouble(
+            DoubleSupplier supplier,
+            Duration refreshInterval,
+            Duration maxStaleness
+    ) {
+        final AsyncDoubleGauge gauge = new AsyncDoubleGauge(supplier, refreshInterval, maxStaleness);
+        gauge.start();
+        return gauge;
+    }
+
+    /**
+     * @return a gauge that computes {@code supplier} on a background scheduler every
+     * {@code refreshInterval}, see {@link AsyncGauge}. Reads return the last value
+     * and ask for a refresh once it's more than twice the interval old.
+     */
+    public static AsyncLongGauge asyncLong(LongSupplier supplier, Duration refreshInterval) {
+        return asyncLong(supplier, refreshInterval, refreshInterval.multipliedBy(2));
+    }
+
+    public static AsyncLongGauge asyncLong(
+            LongSupplier supplier,
+            Duration refreshInterval,
+            Duration maxStaleness
+    ) {
+        final AsyncLongGauge gauge = new AsyncLongGauge(supplier, refreshInterval, maxStaleness);
+        gauge.start();
+        return gauge;
+    }
+
+    /**
+     * @return the ratio of {@code numerator} to {@code denominator}, computed on a
+     * background scheduler like {@link #asyncDouble(DoubleSupplier, Duration, Duration)}
+     */
+    public static AsyncDoubleGauge asyncRatioOf(
+            DoubleSupplier numerator,
+            DoubleSupplier denominator,
+            Duration refreshInterval,
+            Duration maxStaleness
+    ) {
+        return asyncDouble(
+                () -> RatioGauge.Ratio.of(numerator.getAsDouble(), denominator.getAsDouble()).getValue(),
+                refreshInterval,
+                maxStaleness
+        );
+    }
 }
@@ -0,0 +1,248 @@
+package com.sproutsocial.metrics.histograms;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Created on 10/19/26
+ *
+ * An immutable, sparse copy of a {@link LatencyHistogram}.
+ *
+ * Only non-empty buckets are kept, in increasing order. Values are estimated
+ * from the {@link LogLinearBuckets#midpoint(int)} of the bucket they fall in.
+ */
+public final class HistogramSnapshot {
+
+    private static final HistogramSnapshot EMPTY = new HistogramSnapshot(new int[0], new long[0], 0, 0);
+
+    private final int[] indexes;
+    private final long[] counts;
+    private final long totalCount;
+    private final long sum;
+
+    private HistogramSnapshot(int[] indexes, long[] counts, long totalCount, long sum) {
+        this.indexes = indexes;
+        this.counts = counts;
+        this.totalCount = totalCount;
+        this.sum = sum;
+    }
+
+    public static HistogramSnapshot empty() {
+        return EMPTY;
+    }
+
+    /* package */ static HistogramSnapshot of(int[] indexes, long[] counts, int size, long sum) {
+        long totalCount = 0;
+        for (int i = 0; i < size; i++) {
+            totalCount += counts[i];
+        }
+        return new HistogramSnapshot(
+                Arrays.copyOf(indexes, size),
+                Arrays.copyOf(counts, size),
+                totalCount,
+                sum
+        );
+    }
+
+    /**
+     * @return a snapshot holding every value in {@code snapshots}
+     */
+    public static HistogramSnapshot merge(Iterable<HistogramSnapshot> snapshots) {
+        final long[] merged = new long[LogLinearBuckets.BUCKET_COUNT];
+        long sum = 0;
+        for (HistogramSnapshot snapshot : snapshots) {
+            for (int i = 0; i < snapshot.indexes.length; i++) {
+                merged[snapshot.indexes[i]] += snapshot.counts[i];
+            }
+            sum += snapshot.sum;
+        }
+
+        final int[] indexes = new int[LogLinearBuckets.BUCKET_COUNT];
+        final long[] counts = new long[LogLinearBuckets.BUCKET_COUNT];
+        int size = 0;
+        for (int i = 0; i < merged.length; i++) {
+            if (merged[i] != 0) {
+                indexes[size] = i;
+                counts[size] = merged[i];
+                size++;
+            }
+        }
+        return of(indexes, counts, size, sum);
+    }
+
+    /**
+     * Writes the snapshot in a compact, portable form, every field a varint
+     *
+     * - the number of non-empty buckets, and the zigzag encoded sum
+     * - for each non-empty bucket, the gap from the previous bucket's index and the bucket's count
+     *
+     * A typical latency histogram takes a few hundred bytes.
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        VarInts.write(out, indexes.length);
+        VarInts.write(out, (sum << 1) ^ (sum >> 63));
+        int previous = -1;
+        for (int i = 0; i < indexes.length; i++) {
+            VarInts.write(out, indexes[i] - previous - 1);
+            VarInts.write(out, counts[i]);
+            previous = indexes[i];
+        }
+    }
+
+    /**
+     * reads a snapshot written by {@link #writeTo(DataOutput)}
+     */
+    public static HistogramSnapshot readFrom(DataInput in) throws IOException {
+        final long size = VarInts.read(in);
+        if (size < 0 || size > LogLinearBuckets.BUCKET_COUNT) {
+            throw new IOException("Invalid histogram bucket count " + size);
+        }
+        final long zigzagSum = VarInts.read(in);
+        final long sum = (zigzagSum >>> 1) ^ -(zigzagSum & 1);
+        final int[] indexes = new int[(int) size];
+        final long[] counts = new long[(int) size];
+        long index = -1;
+        for (int i = 0; i < size; i++) {
+            index += VarInts.read(in) + 1;
+            counts[i] = VarInts.read(in);
+            if (index < 0 || index >= LogLinearBuckets.BUCKET_COUNT || counts[i] <= 0) {
+                throw new IOException("Invalid histogram bucket " + index + "=" + counts[i]);
+            }
+            indexes[i] = (int) index;
+        }
+        return size == 0 && sum == 0 ? EMPTY : of(indexes, counts, (int) size, sum);
+    }
+
+    /**
+     * @return the snapshot written by {@link #writeTo(DataOutput)}, to send to an aggregator
+     */
+    public byte[] toByteArray() {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 + indexes.length * 4);
+        try {
+            writeTo(new DataOutputStream(bytes));
+        } catch (IOException e) {
+            throw new IllegalStateException("ByteArrayOutputStream does not throw", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code bytes} isn't a histogram snapshot
+     */
+    public static HistogramSnapshot fromByteArray(byte[] bytes) {
+        final DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        try {
+            final HistogramSnapshot snapshot = readFrom(in);
+            if (in.available() > 0) {
+                throw new IOException(in.available() + " trailing bytes");
+            }
+            return snapshot;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Not a histogram snapshot", e);
+        }
+    }
+
+    /**
+     * @return the number of recorded values
+     */
+    public long getCount() {
+        return totalCount;
+    }
+
+    /**
+     * @return the exact sum of the recorded values, in nanoseconds
+     */
+    public long getSum() {
+        return sum;
+    }
+
+    public double getMean() {
+        return totalCount == 0 ? 0d : (double) sum / totalCount;
+    }
+
+    /**
+     * @param quantile in {@code [0, 1]}
+     * @return the estimated value at the quantile, or 0 if nothing was recorded
+     */
+    public long getValue(double quantile) {
+        if (quantile < 0d || quantile > 1d || Double.isNaN(quantile)) {
+            throw new IllegalArgumentException(quantile + " is not in [0..1]");
+        }
+        if (totalCount == 0) {
+            return 0;
+        }
+        final long rank = Math.max(1, (long) Math.ceil(quantile * totalCount));
+        long seen = 0;
+        for (int i = 0; i < indexes.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return LogLinearBuckets.midpoint(indexes[i]);
+            }
+        }
+        return LogLinearBuckets.midpoint(indexes[indexes.length - 1]);
+    }
+
+    public long getMin() {
+        return totalCount == 0 ? 0 : LogLinearBuckets.lowerBound(indexes[0]);
+    }
+
+    public long getMax() {
+        return totalCount == 0 ? 0 : LogLinearBuckets.upperBound(indexes[indexes.length - 1]) - 1;
+    }
+
+    /**
+     * @return the number of non-empty buckets
+     */
+    public int size() {
+        return indexes.length;
+    }
+
+    /**
+     * @return the {@link LogLinearBuckets} index of the i-th non-empty bucket
+     */
+    public int bucketIndex(int i) {
+        return indexes[i];
+    }
+
+    /**
+     * @return the number of values in the i-th non-empty bucket
+     */
+    public long bucketCount(int i) {
+        return counts[i];
+    }
+
+    /**
+     * @return the values recorded in this snapshot but not in {@code earlier},
+     * where {@code earlier} is a previous snapshot of the same histogram
+     */
+    public HistogramSnapshot minus(HistogramSnapshot earlier) {
+        if (earlier.totalCount == 0) {
+            return this;
+        }
+        final int[] resultIndexes = new int[indexes.length];
+        final long[] resultCounts = new long[indexes.length];
+        int size = 0;
+        int j = 0;
+        for (int i = 0; i < indexes.length; i++) {
+            while (j < earlier.indexes.length && earlier.indexes[j] < indexes[i]) {
+                j++;
+            }
+            long count = counts[i];
+            if (j < earlier.indexes.length && earlier.indexes[j] == indexes[i]) {
+                count -= earlier.counts[j];
+            }
+            if (count > 0) {
+                resultIndexes[size] = indexes[i];
+                resultCounts[size] = count;
+                size++;
+            }
+        }
+        return of(resultIndexes, resultCounts, size, sum - earlier.sum);
+    }
+}
@@ -0,0 +1,99 @@
+package com.sproutsocial.metrics.histograms;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.google.common.collect.ImmutableSortedMap;
+
+/**
+ * Created on 10/19/26
+ *
+ * Ships latency histograms between JVMs and merges them.
+ *
+ * Percentiles can't be averaged, but {@link LogLinearBuckets} are the same in
+ * every JVM, so adding up the bucket counts from every node gives exactly the
+ * histogram a single JVM would have recorded had it seen every call. The
+ * fleet-wide percentiles are as accurate as any one node's, to within a bucket.
+ *
+ * <pre>
+ * // on every node
+ * byte[] payload = Histograms.toByteArray(instrumentor.getLatencyHistograms());
+ *
+ * // on the aggregator
+ * Map&lt;String, HistogramSnapshot&gt; fleet = Histograms.merge(
+ *         payloads.stream().map(Histograms::fromByteArray).collect(toList()));
+ * fleet.get("com.mycompany.UserService.getUser").getValue(0.99);
+ * </pre>
+ */
+public final class Histograms {
+
+    private Histograms() {}
+
+    /**
+     * @return a histogram per name holding every value recorded under
+     * that name in any of {@code histograms}
+     */
+    public static ImmutableSortedMap<String, HistogramSnapshot> merge(
+            Iterable<? extends Map<String, HistogramSnapshot>> histograms
+    ) {
+        final Map<String, List<HistogramSnapshot>> byName = new TreeMap<>();
+        for (Map<String, HistogramSnapshot> node : histograms) {
+            for (Map.Entry<String, HistogramSnapshot> entry : node.entrySet()) {
+                byName.computeIfAbsent(entry.getKey(), name -> new ArrayList<>()).add(entry.getValue());
+            }
+        }
+
+        final ImmutableSortedMap.Builder<String, HistogramSnapshot> merged = ImmutableSortedMap.naturalOrder();
+        for (Map.Entry<String, List<HistogramSnapshot>> entry : byName.entrySet()) {
+            final List<HistogramSnapshot> snapshots = entry.getValue();
+            merged.put(entry.getKey(), snapshots.size() == 1 ?
+                    snapshots.get(0) :
+                    HistogramSnapshot.merge(snapshots));
+        }
+        return merged.build();
+    }
+
+    /**
+     * @return a UTF name and a {@link HistogramSnapshot#writeTo(java.io.DataOutput)}
+     * histogram for each entry, preceded by the number of entries
+     */
+    public static byte[] toByteArray(Map<String, HistogramSnapshot> histograms) {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(256 * histograms.size());
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            VarInts.write(out, histograms.size());
+            for (Map.Entry<String, HistogramSnapshot> entry : histograms.entrySet()) {
+                out.writeUTF(entry.getKey());
+                entry.getValue().writeTo(out);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("ByteArrayOutputStream does not throw", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code bytes} wasn't written by {@link #toByteArray(Map)}
+     */
+    public static ImmutableSortedMap<String, HistogramSnapshot> fromByteArray(byte[] bytes) {
+        final ImmutableSortedMap.Builder<String, HistogramSnapshot> histograms = ImmutableSortedMap.naturalOrder();
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            final long size = VarInts.read(in);
+            for (long i = 0; i < size; i++) {
+                histograms.put(in.readUTF(), HistogramSnapshot.readFrom(in));
+            }
+            if (in.available() > 0) {
+                throw new IOException(in.available() + " trailing bytes");
+            }
+            return histograms.build();
+        } catch (IOException | RuntimeException e) {
+            throw new IllegalArgumentException("Not a set of histograms", e);
+        }
+    }
+}
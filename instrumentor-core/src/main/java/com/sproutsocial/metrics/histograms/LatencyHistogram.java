@@ -0,0 +1,51 @@
+package com.sproutsocial.metrics.histograms;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Created on 10/19/26
+ *
+ * A cumulative histogram of latencies in {@link LogLinearBuckets}.
+ *
+ * Recording is a single atomic increment of the value's bucket,
+ * reading it copies the non-empty buckets into a {@link HistogramSnapshot}.
+ */
+public class LatencyHistogram {
+
+    private final AtomicLongArray counts = new AtomicLongArray(LogLinearBuckets.BUCKET_COUNT);
+    private final LongAdder sum = new LongAdder();
+
+    public void record(long nanos) {
+        counts.incrementAndGet(LogLinearBuckets.index(nanos));
+        sum.add(nanos);
+    }
+
+    /**
+     * adds every value in {@code snapshot}, as though they had been recorded here
+     */
+    public void add(HistogramSnapshot snapshot) {
+        for (int i = 0; i < snapshot.size(); i++) {
+            counts.addAndGet(snapshot.bucketIndex(i), snapshot.bucketCount(i));
+        }
+        sum.add(snapshot.getSum());
+    }
+
+    /**
+     * @return everything recorded so far
+     */
+    public HistogramSnapshot snapshot() {
+        final int[] indexes = new int[LogLinearBuckets.BUCKET_COUNT];
+        final long[] bucketCounts = new long[LogLinearBuckets.BUCKET_COUNT];
+        int size = 0;
+        for (int i = 0; i < LogLinearBuckets.BUCKET_COUNT; i++) {
+            final long count = counts.get(i);
+            if (count != 0) {
+                indexes[size] = i;
+                bucketCounts[size] = count;
+                size++;
+            }
+        }
+        return HistogramSnapshot.of(indexes, bucketCounts, size, sum.sum());
+    }
+}
@@ -0,0 +1,64 @@
+package com.sproutsocial.metrics.histograms;
+
+/**
+ * Created on 10/19/26
+ *
+ * Maps latencies in nanoseconds to log-linear buckets.
+ *
+ * Every power of two is split into {@value #SUB_BUCKET_COUNT} equal buckets,
+ * so a bucket is never wider than 1/16th of its lower bound. Values below
+ * {@value #SUB_BUCKET_COUNT} nanoseconds get a bucket each, values of
+ * 2^{@value #MAX_EXPONENT} nanoseconds (about 18 minutes) and above
+ * share the last bucket.
+ */
+public final class LogLinearBuckets {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    public static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    public static final int MAX_EXPONENT = 40;
+    public static final int BUCKET_COUNT = (MAX_EXPONENT - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT;
+
+    private LogLinearBuckets() {}
+
+    public static int index(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return value < 0 ? 0 : (int) value;
+        }
+        final int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent >= MAX_EXPONENT) {
+            return BUCKET_COUNT - 1;
+        }
+        final int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) - SUB_BUCKET_COUNT;
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    /**
+     * @return the smallest value that falls in the bucket
+     */
+    public static long lowerBound(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        final int shift = index / SUB_BUCKET_COUNT - 1;
+        final long subBucket = SUB_BUCKET_COUNT + index % SUB_BUCKET_COUNT;
+        return subBucket << shift;
+    }
+
+    /**
+     * @return the smallest value that falls in the next bucket
+     */
+    public static long upperBound(int index) {
+        return lowerBound(index) + width(index);
+    }
+
+    /**
+     * @return the value used to represent everything recorded in the bucket
+     */
+    public static long midpoint(int index) {
+        return lowerBound(index) + width(index) / 2;
+    }
+
+    private static long width(int index) {
+        return index < SUB_BUCKET_COUNT ? 1 : 1L << (index / SUB_BUCKET_COUNT - 1);
+    }
+}
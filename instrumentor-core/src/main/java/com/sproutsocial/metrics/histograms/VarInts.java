@@ -0,0 +1,38 @@
+package com.sproutsocial.metrics.histograms;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Created on 10/19/26
+ *
+ * Unsigned LEB128 varints, seven bits a byte with the high bit set on every
+ * byte but the last, so small bucket gaps and counts take a byte each.
+ */
+/* package */ final class VarInts {
+
+    private static final int MAX_BYTES = 10;
+
+    private VarInts() {}
+
+    static void write(DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    static long read(DataInput in) throws IOException {
+        long value = 0;
+        for (int i = 0; i < MAX_BYTES; i++) {
+            final int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << (i * 7);
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+}
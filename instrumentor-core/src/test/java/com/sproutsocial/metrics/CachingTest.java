@@ -0,0 +1,129 @@
+package com.sproutsocial.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * Created on 10/19/26
+ */
+public class CachingTest {
+
+    private MetricRegistry metricRegistry;
+    private Instrumentor instrumentor;
+    private AtomicInteger loads;
+    private CacheLoader<String, String> loader;
+
+    @Before
+    public void setUp() throws Exception {
+        metricRegistry = new MetricRegistry();
+        instrumentor = Instrumentor.builder()
+                .metricRegistry(metricRegistry)
+                .build();
+        loads = new AtomicInteger();
+        loader = new CacheLoader<String, String>() {
+            @Override
+            public String load(String key) {
+                if (key.isEmpty()) {
+                    throw new IllegalArgumentException();
+                }
+                return key + "-" + loads.incrementAndGet();
+            }
+        };
+    }
+
+    private Object gauge(String name) {
+        return metricRegistry.getGauges().get(name).getValue();
+    }
+
+    @Test
+    public void testHitsAndMisses() throws Exception {
+        final LoadingCache<String, String> cache = instrumentor.caching("foo", loader, "maximumSize=100");
+
+        assertEquals("a-1", cache.get("a"));
+        assertEquals("a-1", cache.get("a"));
+        assertEquals("a-1", cache.get("a"));
+        assertEquals("b-2", cache.get("b"));
+
+        assertEquals(2, metricRegistry.timer("foo").getCount());
+        assertEquals(2L, gauge("foo.cache.hits"));
+        assertEquals(2L, gauge("foo.cache.misses"));
+        assertEquals(0.5, (Double) gauge("foo.cache.hit_ratio"), 0.0001);
+        assertEquals(2L, gauge("foo.cache.size"));
+    }
+
+    @Test
+    public void testFailedLoads() throws Exception {
+        final LoadingCache<String, String> cache = instrumentor.caching("foo", loader, "maximumSize=100");
+        try {
+            cache.getUnchecked("");
+            fail();
+        } catch (UncheckedExecutionException expected) {}
+
+        assertEquals(1, metricRegistry.meter("foo.errors").getCount());
+    }
+
+    @Test
+    public void testEvictions() throws Exception {
+        final LoadingCache<String, String> cache = instrumentor.caching("foo", loader, "maximumSize=1");
+        cache.get("a");
+        cache.get("b");
+        cache.get("c");
+
+        assertEquals(2, metricRegistry.meter("foo.cache.evictions").getCount());
+        assertEquals(1L, gauge("foo.cache.size"));
+    }
+
+    @Test
+    public void testRefreshAhead() throws Exception {
+        final CountDownLatch reloading = new CountDownLatch(1);
+        final CacheLoader<String, String> slowReloads = new CacheLoader<String, String>() {
+            @Override
+            public String load(String key) throws Exception {
+                if (loads.get() > 0) {
+                    reloading.await();
+                }
+                return key + "-" + loads.incrementAndGet();
+            }
+        };
+        final LoadingCache<String, String> cache = instrumentor.caching(
+                "foo",
+                slowReloads,
+                "maximumSize=100,refreshAfterWrite=1s"
+        );
+        assertEquals("a-1", cache.get("a"));
+        Thread.sleep(1100);
+
+        // the stale value is served while it's reloaded in the background
+        assertEquals("a-1", cache.get("a"));
+        reloading.countDown();
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!"a-2".equals(cache.getIfPresent("a")) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals("a-2", cache.get("a"));
+        assertEquals(2, loads.get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnbounded() throws Exception {
+        instrumentor.caching("foo", loader, "expireAfterWrite=10m");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOneCachePerName() throws Exception {
+        instrumentor.caching("foo", loader, "maximumSize=100");
+        instrumentor.caching("foo", loader, "maximumSize=100");
+    }
+}
@@ -0,0 +1,114 @@
+package com.sproutsocial.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableSortedMap;
+
+/**
+ * Created on 10/19/26
+ */
+public class CallTreeProfilerTest {
+
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final ManualClock clock = new ManualClock();
+    private Instrumentor instrumentor;
+    private CallTreeProfiler profiler;
+
+    @Before
+    public void setUp() throws Exception {
+        instrumentor = Instrumentor.builder()
+                .clock(clock)
+                .callTreeProfiling(true)
+                .build();
+        profiler = instrumentor.getCallTreeProfiler().get();
+    }
+
+    private void sleep(long millis) {
+        clock.advance(millis, TimeUnit.MILLISECONDS);
+    }
+
+    private void getUser() {
+        instrumentor.run(() -> {
+            sleep(20);
+            instrumentor.run(() -> sleep(30), "dao.getUser");
+            instrumentor.run(() -> sleep(30), "dao.getPermissions");
+        }, "service.getUser");
+    }
+
+    @Test
+    public void testSelfTime() throws Exception {
+        getUser();
+
+        final ImmutableSortedMap<String, Long> self = profiler.getSelfNanos();
+        final ImmutableSortedMap<String, Long> total = profiler.getTotalNanos();
+
+        assertEquals(80 * MILLIS, total.get("service.getUser").longValue());
+        assertEquals(20 * MILLIS, self.get("service.getUser").longValue());
+        assertEquals(30 * MILLIS, total.get("dao.getUser").longValue());
+        assertEquals(30 * MILLIS, self.get("dao.getUser").longValue());
+        assertEquals(30 * MILLIS, total.get("dao.getPermissions").longValue());
+        assertEquals(30 * MILLIS, self.get("dao.getPermissions").longValue());
+    }
+
+    @Test
+    public void testCollapsedStacks() throws Exception {
+        getUser();
+        instrumentor.run(() -> {
+            sleep(1);
+            instrumentor.run(() -> sleep(1), "dao.getUser");
+        }, "service.listUsers");
+
+        final StringBuilder out = new StringBuilder();
+        profiler.writeCollapsedStacks(out);
+        final List<String> stacks = Arrays.stream(out.toString().split("\n"))
+                .map(line -> line.substring(0, line.lastIndexOf(' ')))
+                .sorted()
+                .collect(Collectors.toList());
+
+        assertEquals(
+                Arrays.asList(
+                        "service.getUser",
+                        "service.getUser;dao.getPermissions",
+                        "service.getUser;dao.getUser",
+                        "service.listUsers",
+                        "service.listUsers;dao.getUser"
+                ),
+                stacks
+        );
+    }
+
+    @Test
+    public void testBoundedTree() throws Exception {
+        final CallTreeProfiler bounded = new CallTreeProfiler(1);
+        bounded.enter("parent");
+        bounded.enter("child");
+        bounded.exit(10);
+        bounded.exit(100);
+
+        assertEquals(ImmutableSortedMap.of("parent", 100L), bounded.getSelfNanos());
+    }
+
+    @Test
+    public void testReset() throws Exception {
+        getUser();
+        profiler.reset();
+
+        assertTrue(profiler.getSelfNanos().isEmpty());
+    }
+
+    @Test
+    public void testDisabledByDefault() throws Exception {
+        assertFalse(new Instrumentor().getCallTreeProfiler().isPresent());
+    }
+}
@@ -0,0 +1,91 @@
+package com.sproutsocial.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Timer;
+import com.codahale.metrics.health.HealthCheckRegistry;
+
+/**
+ * Created on 10/19/26
+ */
+public class ClockTest {
+
+    private static final String NAME = "com.mycompany.UserService.getUser";
+
+    @Test
+    public void testManualClockTimesCalls() throws Exception {
+        final ManualClock clock = new ManualClock();
+        final Instrumentor instrumentor = Instrumentor.builder()
+                .clock(clock)
+                .build();
+
+        instrumentor.run(() -> clock.advance(25, TimeUnit.MILLISECONDS), NAME);
+
+        final Timer timer = instrumentor.getMetricRegistry().timer(NAME);
+        assertEquals(1, timer.getCount());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(25), timer.getSnapshot().getMax());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(25),
+                instrumentor.getLatencyHistograms().get(NAME).getSum());
+    }
+
+    @Test
+    public void testManualClockDrivesHealthChecks() throws Exception {
+        final ManualClock clock = new ManualClock();
+        final HealthCheckRegistry healthCheckRegistry = new HealthCheckRegistry();
+        final Instrumentor instrumentor = Instrumentor.builder()
+                .clock(clock)
+                .healthCheckRegistry(healthCheckRegistry)
+                .build();
+
+        for (int i = 0; i < 100; i++) {
+            final boolean error = i % 5 == 0;
+            try {
+                instrumentor.run(() -> {
+                    if (error) {
+                        throw new IllegalStateException();
+                    }
+                }, NAME, 0.1);
+            } catch (IllegalStateException expected) {}
+        }
+
+        // the EWMAs haven't ticked yet
+        final Meter errors = instrumentor.getMetricRegistry().meter(NAME + ".errors");
+        assertEquals(0d, errors.getFifteenMinuteRate(), 0d);
+        assertTrue(healthCheckRegistry.runHealthCheck(NAME).isHealthy());
+
+        clock.advance(6, TimeUnit.SECONDS);
+        assertEquals(20d / 5, errors.getOneMinuteRate(), 1e-9);
+        assertFalse(healthCheckRegistry.runHealthCheck(NAME).isHealthy());
+        assertEquals(0.2, (Double) instrumentor.getMetricRegistry().getGauges()
+                .get(NAME + ".errors.m15_pct").getValue(), 1e-9);
+    }
+
+    @Test
+    public void testCoarseClockPublishes() throws Exception {
+        try (CoarseClock clock = CoarseClock.start(Duration.ofMillis(1))) {
+            final long first = clock.getTick();
+            final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (clock.getTick() == first && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            assertTrue(clock.getTick() > first);
+            assertTrue(clock.getTick() <= System.nanoTime());
+
+            final Instrumentor instrumentor = Instrumentor.builder()
+                    .clock(clock)
+                    .build();
+            instrumentor.runChecked(() -> Thread.sleep(20), NAME);
+
+            final long duration = instrumentor.getLatencyHistograms().get(NAME).getSum();
+            assertTrue(duration >= TimeUnit.MILLISECONDS.toNanos(15));
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.sproutsocial.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.MetricRegistry;
+
+/**
+ * Created on 10/19/26
+ */
+public class CoalescingTest {
+
+    private static final int CALLERS = 10;
+
+    private MetricRegistry metricRegistry;
+    private Instrumentor instrumentor;
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() throws Exception {
+        metricRegistry = new MetricRegistry();
+        instrumentor = Instrumentor.builder()
+                .metricRegistry(metricRegistry)
+                .build();
+        executor = Executors.newFixedThreadPool(CALLERS);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        executor.shutdownNow();
+    }
+
+    /**
+     * starts {@link #CALLERS} concurrent calls for the same key,
+     * and releases the execution once the rest have joined it
+     */
+    private List<Future<String>> callConcurrently(String key, CountDownLatch release, AtomicInteger executions, boolean fail) throws Exception {
+        final List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(() -> instrumentor.callCoalesced(key, () -> {
+                executions.incrementAndGet();
+                release.await();
+                if (fail) {
+                    throw new IllegalStateException();
+                }
+                return "value-" + key;
+            }, "foo")));
+        }
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (metricRegistry.meter("foo.coalesced").getCount() < CALLERS - 1 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        release.countDown();
+        return results;
+    }
+
+    @Test
+    public void testConcurrentCallsShareOneExecution() throws Exception {
+        final AtomicInteger executions = new AtomicInteger();
+        final List<Future<String>> results = callConcurrently("a", new CountDownLatch(1), executions, false);
+
+        for (Future<String> result : results) {
+            assertEquals("value-a", result.get(10, TimeUnit.SECONDS));
+        }
+        assertEquals(1, executions.get());
+        assertEquals(1, metricRegistry.timer("foo").getCount());
+        assertEquals(CALLERS - 1, metricRegistry.meter("foo.coalesced").getCount());
+        assertEquals(CALLERS - 1, metricRegistry.histogram("foo.coalesced.waiters").getSnapshot().getMax());
+    }
+
+    @Test
+    public void testWaitersShareFailure() throws Exception {
+        final List<Future<String>> results = callConcurrently("a", new CountDownLatch(1), new AtomicInteger(), true);
+
+        for (Future<String> result : results) {
+            try {
+                result.get(10, TimeUnit.SECONDS);
+                fail();
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof IllegalStateException);
+            }
+        }
+        assertEquals(1, metricRegistry.meter("foo.errors").getCount());
+    }
+
+    @Test
+    public void testCompletedFlightIsRemoved() throws Exception {
+        final AtomicInteger executions = new AtomicInteger();
+
+        assertEquals("first", instrumentor.callCoalesced("a", () -> "first", "foo"));
+        assertEquals("second", instrumentor.callCoalesced("a", () -> "second", "foo"));
+        instrumentor.callCoalesced("b", executions::incrementAndGet, "foo");
+
+        assertEquals(1, executions.get());
+        assertEquals(3, metricRegistry.timer("foo").getCount());
+        assertEquals(0, metricRegistry.meter("foo.coalesced").getCount());
+    }
+
+    @Test
+    public void testWaitersMatchCoalescedCalls() throws Exception {
+        final int calls = 100;
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Future<?>> threads = new ArrayList<>();
+        for (int t = 0; t < CALLERS; t++) {
+            threads.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < calls; i++) {
+                    instrumentor.callCoalesced("a", () -> "value", "foo");
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> thread : threads) {
+            thread.get(10, TimeUnit.SECONDS);
+        }
+
+        // every call either led a flight, counted once in the histogram, or joined one
+        final long coalesced = metricRegistry.meter("foo.coalesced").getCount();
+        final Histogram waiters = metricRegistry.histogram("foo.coalesced.waiters");
+        assertEquals(CALLERS * calls, waiters.getCount() + coalesced);
+        assertEquals(coalesced, LongStream.of(waiters.getSnapshot().getValues()).sum());
+    }
+}
@@ -0,0 +1,142 @@
+package com.sproutsocial.metrics;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.codahale.metrics.health.HealthCheckRegistry;
+
+/**
+ * Created on 10/19/26
+ */
+public class ErrorWindowTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final String NAME = "com.mycompany.UserService.getUser";
+
+    @Test
+    public void testCountsWithinWindow() throws Exception {
+        final ErrorWindow window = new ErrorWindow(10);
+        final long start = 1_000 * SECOND;
+        for (int second = 0; second < 20; second++) {
+            window.record(start + second * SECOND, second % 4 == 0);
+            window.record(start + second * SECOND + SECOND / 2, false);
+        }
+
+        // seconds 10 through 19, errors in 12 and 16
+        assertArrayEquals(new long[]{20, 2}, window.counts(start + 19 * SECOND));
+        assertEquals(0.1, window.errorRate(start + 19 * SECOND, 0), 1e-9);
+
+        // seconds 15 through 19 and the five empty seconds after
+        assertArrayEquals(new long[]{10, 1}, window.counts(start + 24 * SECOND));
+        assertArrayEquals(new long[]{0, 0}, window.counts(start + 40 * SECOND));
+    }
+
+    @Test
+    public void testReusesStaleSlots() throws Exception {
+        final ErrorWindow window = new ErrorWindow(5);
+        window.record(0, true);
+        window.record(6 * SECOND, false);
+
+        assertArrayEquals(new long[]{1, 0}, window.counts(6 * SECOND));
+
+        // a call from a thread stalled for a lap of the ring is dropped
+        window.record(0, true);
+        assertArrayEquals(new long[]{1, 0}, window.counts(6 * SECOND));
+    }
+
+    @Test
+    public void testSaturatesAtSlotLimit() throws Exception {
+        final ErrorWindow window = new ErrorWindow(5);
+        final long limit = (1 << 22) - 1;
+        for (long i = 0; i < limit; i++) {
+            window.record(SECOND, false);
+        }
+        assertArrayEquals(new long[]{limit, 0}, window.counts(SECOND));
+
+        // past the limit calls are dropped instead of carrying into errors or the stamp
+        for (int i = 0; i < 10; i++) {
+            window.record(SECOND, i % 2 == 0);
+        }
+        assertArrayEquals(new long[]{limit, 0}, window.counts(SECOND));
+
+        window.record(2 * SECOND, true);
+        assertArrayEquals(new long[]{limit + 1, 1}, window.counts(2 * SECOND));
+    }
+
+    @Test
+    public void testMinimumCalls() throws Exception {
+        final ErrorWindow window = new ErrorWindow(60);
+        window.record(SECOND, true);
+        window.record(SECOND, true);
+        window.record(SECOND, false);
+
+        assertTrue(Double.isNaN(window.errorRate(SECOND, 10)));
+        assertEquals(2d / 3, window.errorRate(SECOND, 3), 1e-9);
+        assertTrue(Double.isNaN(new ErrorWindow(60).errorRate(SECOND, 0)));
+    }
+
+    @Test
+    public void testConcurrentCountsAreExact() throws Exception {
+        final ErrorWindow window = new ErrorWindow(60);
+        final long now = 5 * SECOND;
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 100_000; i++) {
+                        window.record(now, i % 10 == 0);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertArrayEquals(new long[]{800_000, 80_000}, window.counts(now));
+    }
+
+    @Test
+    public void testHealthCheckWaitsForVolume() throws Exception {
+        final HealthCheckRegistry healthCheckRegistry = new HealthCheckRegistry();
+        final Instrumentor instrumentor = Instrumentor.builder()
+                .healthCheckRegistry(healthCheckRegistry)
+                .errorRateWindow(Duration.ofSeconds(30))
+                .healthCheckMinimumCalls(10)
+                .build();
+
+        for (int i = 0; i < 3; i++) {
+            final boolean error = i < 2;
+            try {
+                instrumentor.run(() -> {
+                    if (error) {
+                        throw new IllegalStateException();
+                    }
+                }, NAME, 0.1);
+            } catch (IllegalStateException expected) {}
+        }
+        assertTrue(healthCheckRegistry.runHealthCheck(NAME).isHealthy());
+
+        for (int i = 0; i < 7; i++) {
+            instrumentor.run(() -> {}, NAME, 0.1);
+        }
+        assertFalse(healthCheckRegistry.runHealthCheck(NAME).isHealthy());
+        assertEquals(0.2, (Double) instrumentor.getMetricRegistry().getGauges()
+                .get(NAME + ".errors.window_pct").getValue(), 1e-9);
+    }
+}
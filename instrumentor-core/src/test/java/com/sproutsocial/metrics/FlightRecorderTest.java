@@ -0,0 +1,101 @@
+package com.sproutsocial.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Created on 10/19/26
+ */
+public class FlightRecorderTest {
+
+    private static final String NAME = "com.mycompany.UserService.getUser";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final ManualClock clock = new ManualClock();
+    private final Instrumentor instrumentor = Instrumentor.builder()
+            .clock(clock)
+            .flightRecorderEvents(Duration.ofMillis(100))
+            .build();
+
+    private void call(long millis, boolean error) {
+        try {
+            instrumentor.run(() -> {
+                clock.advance(millis, TimeUnit.MILLISECONDS);
+                if (error) {
+                    throw new IllegalStateException();
+                }
+            }, NAME);
+        } catch (IllegalStateException expected) {}
+    }
+
+    private List<RecordedEvent> record(Runnable calls) throws Exception {
+        final Path file = folder.getRoot().toPath().resolve("calls.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(CallEvent.NAME);
+            recording.start();
+            calls.run();
+            recording.stop();
+            recording.dump(file);
+        }
+        return RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getEventType().getName().equals(CallEvent.NAME))
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    public void testRecordsSlowCalls() throws Exception {
+        final List<RecordedEvent> events = record(() -> {
+            call(10, false);
+            call(150, false);
+            call(10, true);
+            call(200, true);
+        });
+
+        assertEquals(2, events.size());
+        assertEquals(NAME, events.get(0).getString("operation"));
+        assertEquals(CallEvent.SUCCESS, events.get(0).getString("outcome"));
+        assertEquals(NAME, events.get(1).getString("operation"));
+        assertEquals(CallEvent.ERROR, events.get(1).getString("outcome"));
+        assertFalse(events.get(0).getDuration().isNegative());
+    }
+
+    @Test
+    public void testNothingOutsideRecordings() throws Exception {
+        call(150, false);
+        assertTrue(record(() -> {}).isEmpty());
+        // no event is even allocated once the recording has stopped
+        assertEquals(null, CallEvent.start());
+    }
+
+    @Test
+    public void testEventsOnlyWhileRecording() throws Exception {
+        assertEquals(null, CallEvent.start());
+        record(() -> assertTrue(CallEvent.start() != null));
+        assertEquals(null, CallEvent.start());
+    }
+
+    @Test
+    public void testOffByDefault() throws Exception {
+        final Instrumentor quiet = Instrumentor.builder()
+                .clock(clock)
+                .build();
+        assertTrue(record(() -> quiet.run(() -> clock.advance(1, TimeUnit.SECONDS), NAME)).isEmpty());
+    }
+}
@@ -0,0 +1,166 @@
+package com.sproutsocial.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.codahale.metrics.MetricRegistry;
+
+/**
+ * Created on 10/19/26
+ */
+public class HedgingTest {
+
+    private MetricRegistry metricRegistry;
+    private Instrumentor instrumentor;
+    private ExecutorService executor;
+    private FakeBackend backend;
+
+    @Before
+    public void setUp() throws Exception {
+        metricRegistry = new MetricRegistry();
+        instrumentor = Instrumentor.builder()
+                .metricRegistry(metricRegistry)
+                .build();
+        executor = Executors.newCachedThreadPool();
+        backend = new FakeBackend();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        executor.shutdownNow();
+    }
+
+    /**
+     * a replica that answers in about five milliseconds, unless told to stall
+     */
+    private static class FakeBackend implements Callable<String> {
+        private final AtomicInteger calls = new AtomicInteger();
+        private final CountDownLatch interrupted = new CountDownLatch(1);
+        private volatile int stallCall = -1;
+        private volatile long stallMillis;
+
+        void stall(int call, long millis) {
+            this.stallCall = call;
+            this.stallMillis = millis;
+        }
+
+        @Override
+        public String call() throws Exception {
+            final int call = calls.incrementAndGet();
+            try {
+                Thread.sleep(call == stallCall ? stallMillis : 5);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw e;
+            }
+            return "replica-" + call;
+        }
+    }
+
+    private void warmUp(double hedgeFraction) throws Exception {
+        for (int i = 0; i < Hedging.MIN_SAMPLES * 2; i++) {
+            instrumentor.callHedged(backend, "foo", executor, hedgeFraction);
+        }
+        // let the hedge delay refresh from the warmed up timer
+        Thread.sleep(1100);
+    }
+
+    @Test
+    public void testHedgeWins() throws Exception {
+        warmUp(0.05);
+        final long hedges = metricRegistry.meter("foo.hedges").getCount();
+        final long won = metricRegistry.meter("foo.hedges.won").getCount();
+        final long cancelled = metricRegistry.meter("foo.hedges.cancelled").getCount();
+        final int slowCall = backend.calls.get() + 1;
+        backend.stall(slowCall, TimeUnit.SECONDS.toMillis(10));
+
+        final long start = System.nanoTime();
+        final String result = instrumentor.callHedged(backend, "foo", executor, 0.05);
+
+        assertEquals("replica-" + (slowCall + 1), result);
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+        assertEquals(hedges + 1, metricRegistry.meter("foo.hedges").getCount());
+        assertEquals(won + 1, metricRegistry.meter("foo.hedges.won").getCount());
+        assertEquals(cancelled + 1, metricRegistry.meter("foo.hedges.cancelled").getCount());
+        assertTrue(backend.interrupted.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testNoHedgeWhenFast() throws Exception {
+        warmUp(0.05);
+        final long hedges = metricRegistry.meter("foo.hedges").getCount();
+        for (int i = 0; i < 10; i++) {
+            instrumentor.callHedged(() -> "fast", "foo", executor, 0.05);
+        }
+
+        assertEquals(hedges, metricRegistry.meter("foo.hedges").getCount());
+    }
+
+    @Test
+    public void testNoHedgeWithoutSamples() throws Exception {
+        backend.stall(1, 200);
+
+        assertEquals("replica-1", instrumentor.callHedged(backend, "foo", executor, 1d));
+        assertEquals(0, metricRegistry.meter("foo.hedges").getCount());
+    }
+
+    @Test
+    public void testBudgetThrottlesHedges() throws Exception {
+        warmUp(0d);
+        final long throttled = metricRegistry.meter("foo.hedges.throttled").getCount();
+        final int slowCall = backend.calls.get() + 1;
+        backend.stall(slowCall, 200);
+
+        assertEquals("replica-" + slowCall, instrumentor.callHedged(backend, "foo", executor, 0d));
+        assertEquals(0, metricRegistry.meter("foo.hedges").getCount());
+        assertEquals(throttled + 1, metricRegistry.meter("foo.hedges.throttled").getCount());
+    }
+
+    @Test
+    public void testAllAttemptsFail() throws Exception {
+        try {
+            instrumentor.callHedged(() -> {
+                throw new IllegalStateException();
+            }, "foo", executor, 0.05);
+            fail();
+        } catch (IllegalStateException expected) {}
+
+        assertEquals(1, metricRegistry.meter("foo.errors").getCount());
+        assertEquals(0, metricRegistry.counter("foo.inFlight").getCount());
+    }
+
+    @Test(timeout = 10_000)
+    public void testAttemptsThrowingTheSameFailure() throws Exception {
+        warmUp(0.05);
+        final long hedges = metricRegistry.meter("foo.hedges").getCount();
+        final IllegalStateException shared = new IllegalStateException();
+        final AtomicInteger attempts = new AtomicInteger();
+
+        try {
+            instrumentor.callHedged(() -> {
+                if (attempts.incrementAndGet() == 1) {
+                    Thread.sleep(200);
+                }
+                throw shared;
+            }, "foo", executor, 0.05);
+            fail();
+        } catch (IllegalStateException expected) {
+            assertTrue(expected == shared);
+        }
+
+        assertEquals(hedges + 1, metricRegistry.meter("foo.hedges").getCount());
+        assertEquals(0, shared.getSuppressed().length);
+    }
+}
@@ -0,0 +1,74 @@
+package com.sproutsocial.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.sproutsocial.metrics.histograms.HistogramSnapshot;
+import com.sproutsocial.metrics.histograms.Histograms;
+import com.sproutsocial.metrics.histograms.LatencyHistogram;
+import com.sproutsocial.metrics.histograms.LogLinearBuckets;
+
+/**
+ * Created on 10/19/26
+ */
+public class HistogramMergeTest {
+
+    private static final String NAME = "com.mycompany.UserService.getUser";
+    private static final int NODES = 5;
+    private static final int CALLS = 20_000;
+
+    @Test
+    public void testMergesAcrossInstrumentors() throws Exception {
+        final Random random = new Random(42);
+        final List<Long> groundTruth = new ArrayList<>();
+        final LatencyHistogram expected = new LatencyHistogram();
+        final List<Map<String, HistogramSnapshot>> received = new ArrayList<>();
+        double sumOfP99s = 0;
+
+        for (int node = 0; node < NODES; node++) {
+            final Instrumentor instrumentor = Instrumentor.builder().build();
+            instrumentor.run(() -> {}, NAME);
+            final Operation operation = instrumentor.getOperations().iterator().next();
+            expected.add(operation.latency.snapshot());
+            groundTruth.add(LogLinearBuckets.midpoint(operation.latency.snapshot().bucketIndex(0)));
+
+            // every node is slower than the last, one much slower
+            final double scale = node == NODES - 1 ? 20 : node + 1;
+            for (int i = 0; i < CALLS; i++) {
+                final long nanos = (long) (1_000_000 * scale * Math.exp(random.nextGaussian()));
+                operation.latency.record(nanos);
+                expected.record(nanos);
+                groundTruth.add(nanos);
+            }
+
+            sumOfP99s += instrumentor.getLatencyHistograms().get(NAME).getValue(0.99);
+            received.add(Histograms.fromByteArray(Histograms.toByteArray(instrumentor.getLatencyHistograms())));
+        }
+
+        final HistogramSnapshot fleet = Histograms.merge(received).get(NAME);
+
+        assertEquals(NODES * (CALLS + 1), fleet.getCount());
+        assertEquals(expected.snapshot().getSum(), fleet.getSum());
+        for (int i = 0; i < fleet.size(); i++) {
+            assertEquals(expected.snapshot().bucketIndex(i), fleet.bucketIndex(i));
+            assertEquals(expected.snapshot().bucketCount(i), fleet.bucketCount(i));
+        }
+
+        Collections.sort(groundTruth);
+        for (double quantile : new double[]{0.5, 0.9, 0.99, 0.999}) {
+            final long actual = groundTruth.get((int) Math.ceil(quantile * groundTruth.size()) - 1);
+            assertEquals(actual, fleet.getValue(quantile), actual / LogLinearBuckets.SUB_BUCKET_COUNT);
+        }
+
+        final long p99 = groundTruth.get((int) Math.ceil(0.99 * groundTruth.size()) - 1);
+        assertTrue(Math.abs(sumOfP99s / NODES - p99) > p99 / 4);
+    }
+}
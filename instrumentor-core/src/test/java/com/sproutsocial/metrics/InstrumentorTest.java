@@ -1,11 +1,14 @@
 package com.sproutsocial.metrics;
 
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.when;
 
 import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -32,7 +35,6 @@ public class InstrumentorTest {
     private @Mock Meter errorMeter;
     private @Mock Timer timer;
     private @Mock Counter counter;
-    private @Mock Timer.Context context;
     private @Mock MetricRegistry metricRegistry;
     private HealthCheckRegistry healthCheckRegistry = new HealthCheckRegistry();
 
@@ -51,7 +53,6 @@ public class InstrumentorTest {
         when(metricRegistry.timer(NAME)).thenReturn(timer);
         when(metricRegistry.meter(NAME + ".errors")).thenReturn(errorMeter);
         when(metricRegistry.counter(NAME + ".inFlight")).thenReturn(counter);
-        when(timer.time()).thenReturn(context);
         Runnable runnable =  () -> { throw new RuntimeException();};
 
         try {
@@ -60,11 +61,11 @@ public class InstrumentorTest {
 
         assertTrue(healthCheckRegistry.getNames().contains(NAME));
 
-        InOrder inOrder = inOrder(errorMeter, context, counter);
+        InOrder inOrder = inOrder(errorMeter, timer, counter);
 
 
         inOrder.verify(counter, times(1)).inc();
-        inOrder.verify(context, times(1)).close();
+        inOrder.verify(timer, times(1)).update(anyLong(), eq(TimeUnit.NANOSECONDS));
         inOrder.verify(errorMeter, times(1)).mark();
         inOrder.verify(counter, times(1)).dec();
 
@@ -75,7 +76,6 @@ public class InstrumentorTest {
         when(metricRegistry.timer(NAME)).thenReturn(timer);
         when(metricRegistry.meter(NAME + ".errors")).thenReturn(errorMeter);
         when(metricRegistry.counter(NAME + ".inFlight")).thenReturn(counter);
-        when(timer.time()).thenReturn(context);
         CheckedRunnable runnable =  () -> { throw new Exception();};
 
 
@@ -86,9 +86,9 @@ public class InstrumentorTest {
         assertTrue(healthCheckRegistry.getNames().contains(NAME));
 
 
-        final InOrder inOrder = inOrder(counter, errorMeter, context);
+        final InOrder inOrder = inOrder(counter, errorMeter, timer);
         inOrder.verify(counter, times(1)).inc();
-        inOrder.verify(context, times(1)).close();
+        inOrder.verify(timer, times(1)).update(anyLong(), eq(TimeUnit.NANOSECONDS));
         inOrder.verify(errorMeter, times(1)).mark();
         inOrder.verify(counter, times(1)).dec();
     }
@@ -98,7 +98,6 @@ public class InstrumentorTest {
         when(metricRegistry.timer(NAME)).thenReturn(timer);
         when(metricRegistry.meter(NAME + ".errors")).thenReturn(errorMeter);
         when(metricRegistry.counter(NAME + ".inFlight")).thenReturn(counter);
-        when(timer.time()).thenReturn(context);
         Callable<Void> callable =  () -> { throw new Exception();};
 
 
@@ -109,9 +108,9 @@ public class InstrumentorTest {
         assertTrue(healthCheckRegistry.getNames().contains(NAME));
 
 
-        final InOrder inOrder = inOrder(counter, errorMeter, context);
+        final InOrder inOrder = inOrder(counter, errorMeter, timer);
         inOrder.verify(counter, times(1)).inc();
-        inOrder.verify(context, times(1)).close();
+        inOrder.verify(timer, times(1)).update(anyLong(), eq(TimeUnit.NANOSECONDS));
         inOrder.verify(errorMeter, times(1)).mark();
         inOrder.verify(counter, times(1)).dec();
     }
@@ -121,7 +120,6 @@ public class InstrumentorTest {
         when(metricRegistry.timer(NAME)).thenReturn(timer);
         when(metricRegistry.meter(NAME + ".errors")).thenReturn(errorMeter);
         when(metricRegistry.counter(NAME + ".inFlight")).thenReturn(counter);
-        when(timer.time()).thenReturn(context);
         Callable<Void> callable =  () -> { throw new Exception();};
 
 
@@ -132,9 +130,9 @@ public class InstrumentorTest {
         assertTrue(healthCheckRegistry.getNames().contains(NAME));
 
 
-        final InOrder inOrder = inOrder(counter, errorMeter, context);
+        final InOrder inOrder = inOrder(counter, errorMeter, timer);
         inOrder.verify(counter, times(1)).inc();
-        inOrder.verify(context, times(1)).close();
+        inOrder.verify(timer, times(1)).update(anyLong(), eq(TimeUnit.NANOSECONDS));
         inOrder.verify(errorMeter, times(1)).mark();
         inOrder.verify(counter, times(1)).dec();
     }
@@ -144,7 +142,6 @@ public class InstrumentorTest {
         when(metricRegistry.timer(NAME)).thenReturn(timer);
         when(metricRegistry.meter(NAME + ".errors")).thenReturn(errorMeter);
         when(metricRegistry.counter(NAME + ".inFlight")).thenReturn(counter);
-        when(timer.time()).thenReturn(context);
         ThrowableCallable<Void> callable =  () -> { throw new Throwable();};
 
 
@@ -155,9 +152,9 @@ public class InstrumentorTest {
         assertTrue(healthCheckRegistry.getNames().contains(NAME));
 
 
-        final InOrder inOrder = inOrder(counter, errorMeter, context);
+        final InOrder inOrder = inOrder(counter, errorMeter, timer);
         inOrder.verify(counter, times(1)).inc();
-        inOrder.verify(context, times(1)).close();
+        inOrder.verify(timer, times(1)).update(anyLong(), eq(TimeUnit.NANOSECONDS));
         inOrder.verify(errorMeter, times(1)).mark();
         inOrder.verify(counter, times(1)).dec();
     }
@@ -0,0 +1,96 @@
+package com.sproutsocial.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.health.HealthCheckRegistry;
+
+/**
+ * Created on 10/19/26
+ */
+public class LatencyObjectiveTest {
+
+    private static final LatencyObjective P99_UNDER_250MS = LatencyObjective.of(0.99, 250, TimeUnit.MILLISECONDS);
+
+    private MetricRegistry metricRegistry;
+    private HealthCheckRegistry healthCheckRegistry;
+    private Instrumentor instrumentor;
+
+    @Before
+    public void setUp() throws Exception {
+        metricRegistry = new MetricRegistry();
+        healthCheckRegistry = new HealthCheckRegistry();
+        instrumentor = Instrumentor.builder()
+                .metricRegistry(metricRegistry)
+                .healthCheckRegistry(healthCheckRegistry)
+                .build();
+    }
+
+    @Test
+    public void testRecordClassifiesCalls() throws Exception {
+        final LatencyObjectiveTracker tracker = new LatencyObjectiveTracker("foo", P99_UNDER_250MS, metricRegistry);
+
+        tracker.record(TimeUnit.MILLISECONDS.toNanos(250), false);
+        tracker.record(TimeUnit.MILLISECONDS.toNanos(251), false);
+        tracker.record(TimeUnit.MILLISECONDS.toNanos(1000), false);
+        tracker.record(TimeUnit.MILLISECONDS.toNanos(1001), false);
+        tracker.record(TimeUnit.MILLISECONDS.toNanos(1), true);
+
+        assertEquals(1, metricRegistry.meter("foo.slo.satisfied").getCount());
+        assertEquals(2, metricRegistry.meter("foo.slo.tolerating").getCount());
+        assertEquals(2, metricRegistry.meter("foo.slo.frustrated").getCount());
+    }
+
+    @Test
+    public void testRegisterLatencyObjective() throws Exception {
+        instrumentor.registerLatencyObjective("foo", P99_UNDER_250MS);
+        instrumentor.run(() -> {}, "foo");
+        try {
+            instrumentor.run(() -> { throw new RuntimeException(); }, "foo");
+        } catch (RuntimeException ignored) {}
+
+        assertEquals(1, metricRegistry.meter("foo.slo.satisfied").getCount());
+        assertEquals(1, metricRegistry.meter("foo.slo.frustrated").getCount());
+        for (String window : new String[]{"m1", "m5", "m15"}) {
+            assertTrue(metricRegistry.getGauges().containsKey("foo.slo." + window + "_burn_rate"));
+            assertTrue(metricRegistry.getGauges().containsKey("foo.slo." + window + "_apdex"));
+        }
+
+        // rates haven't ticked yet, so the burn rate is NaN which is healthy
+        assertTrue(healthCheckRegistry.getNames().contains("foo.slo"));
+        assertTrue(healthCheckRegistry.runHealthCheck("foo.slo").isHealthy());
+    }
+
+    @Test
+    public void testRegisterEqualObjectiveIsIdempotent() throws Exception {
+        instrumentor.registerLatencyObjective("foo", P99_UNDER_250MS);
+        instrumentor.registerLatencyObjective("foo", LatencyObjective.of(0.99, 250_000, TimeUnit.MICROSECONDS));
+        instrumentor.run(() -> {}, "foo");
+
+        assertEquals(1, metricRegistry.meter("foo.slo.satisfied").getCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRegisterDifferentObjective() throws Exception {
+        instrumentor.registerLatencyObjective("foo", P99_UNDER_250MS);
+        instrumentor.registerLatencyObjective("foo", LatencyObjective.of(0.995, 100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTargetOutOfRange() throws Exception {
+        LatencyObjective.of(1d, 100, TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    public void testWithoutObjective() throws Exception {
+        instrumentor.run(() -> {}, "foo");
+
+        assertTrue(metricRegistry.getMeters().keySet().stream().noneMatch(name -> name.contains(".slo.")));
+    }
+}
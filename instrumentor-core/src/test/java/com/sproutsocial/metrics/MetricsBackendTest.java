@@ -0,0 +1,208 @@
+package com.sproutsocial.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+
+/**
+ * Created on 10/19/26
+ */
+public class MetricsBackendTest {
+
+    private static final String NAME = "com.mycompany.UserService.getUser";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final RecordingBackend backend = new RecordingBackend();
+    private final Instrumentor instrumentor = Instrumentor.builder()
+            .backend(backend)
+            .build();
+
+    private void call(boolean error) {
+        try {
+            instrumentor.run(() -> {
+                if (error) {
+                    throw new IllegalStateException();
+                }
+            }, NAME, 0.1);
+        } catch (IllegalStateException expected) {}
+    }
+
+    @Test
+    public void testRecordsIntoBackend() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            call(i % 5 == 0);
+        }
+
+        assertEquals(10, backend.timers.get(NAME).getCount());
+        assertEquals(2, backend.meters.get(NAME + ".errors").getCount());
+        assertEquals(0, backend.counters.get(NAME + ".inFlight").getCount());
+        assertTrue(instrumentor.getMetricRegistry().getMetrics().isEmpty());
+
+        final OperationSnapshot snapshot = instrumentor.snapshot().getOperation(NAME).get();
+        assertEquals(2, snapshot.getErrors());
+        assertEquals(10, snapshot.getCalls());
+    }
+
+    @Test
+    public void testErrorRatesFromWindow() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            call(i % 5 == 0);
+        }
+
+        // no rates, so no *_pct gauges, only the window's
+        assertEquals(0.2, backend.gauges.get(NAME + ".errors.window_pct").get().doubleValue(), 1e-9);
+        assertFalse(backend.gauges.containsKey(NAME + ".errors.m15_pct"));
+
+        final HealthCheck healthCheck = backend.healthChecks.get(NAME);
+        assertEquals(0.1, healthCheck.ceiling, 0d);
+        assertEquals(0.2, healthCheck.value.getAsDouble(), 1e-9);
+    }
+
+    @Test
+    public void testCaches() throws Exception {
+        final LoadingCache<String, String> cache = instrumentor.caching(
+                "foo",
+                CacheLoader.from(key -> key + "!"),
+                "maximumSize=100"
+        );
+        cache.get("a");
+        cache.get("a");
+
+        assertEquals(1L, backend.gauges.get("foo.cache.hits").get());
+        assertEquals(1L, backend.gauges.get("foo.cache.size").get());
+        assertEquals(1, backend.timers.get("foo").getCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOneCachePerName() throws Exception {
+        instrumentor.caching("foo", CacheLoader.from(key -> key), "maximumSize=100");
+        instrumentor.caching("foo", CacheLoader.from(key -> key), "maximumSize=100");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testStateStoreNeedsRates() throws Exception {
+        try (StateStore stateStore = StateStore.open(folder.getRoot().toPath().resolve("state"))) {
+            Instrumentor.builder()
+                    .backend(backend)
+                    .stateStore(stateStore)
+                    .build();
+        }
+    }
+
+    @Test
+    public void testCodahaleByDefault() throws Exception {
+        final Instrumentor codahale = Instrumentor.builder().build();
+        codahale.run(() -> {}, NAME);
+
+        assertTrue(codahale.getBackend() instanceof CodahaleBackend);
+        assertEquals(1, codahale.getMetricRegistry().timer(NAME).getCount());
+        assertTrue(codahale.getMetricRegistry().getGauges().containsKey(NAME + ".errors.m15_pct"));
+    }
+
+    private static final class HealthCheck {
+        private final DoubleSupplier value;
+        private final double ceiling;
+
+        HealthCheck(DoubleSupplier value, double ceiling) {
+            this.value = value;
+            this.ceiling = ceiling;
+        }
+    }
+
+    private static final class RecordingBackend implements MetricsBackend {
+        private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+        private final Map<String, Meter> meters = new ConcurrentHashMap<>();
+        private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+        private final Map<String, Supplier<? extends Number>> gauges = new ConcurrentHashMap<>();
+        private final Map<String, HealthCheck> healthChecks = new ConcurrentHashMap<>();
+
+        @Override
+        public Counter counter(String name) {
+            return counters.computeIfAbsent(name, any -> {
+                final LongAdder count = new LongAdder();
+                return new Counter() {
+                    @Override
+                    public void inc() {
+                        count.increment();
+                    }
+
+                    @Override
+                    public void dec() {
+                        count.decrement();
+                    }
+
+                    @Override
+                    public long getCount() {
+                        return count.sum();
+                    }
+                };
+            });
+        }
+
+        @Override
+        public Meter meter(String name) {
+            return meters.computeIfAbsent(name, any -> {
+                final LongAdder count = new LongAdder();
+                return new Meter() {
+                    @Override
+                    public void mark() {
+                        count.increment();
+                    }
+
+                    @Override
+                    public void mark(long n) {
+                        count.add(n);
+                    }
+
+                    @Override
+                    public long getCount() {
+                        return count.sum();
+                    }
+                };
+            });
+        }
+
+        @Override
+        public Timer timer(String name) {
+            return timers.computeIfAbsent(name, any -> {
+                final LongAdder count = new LongAdder();
+                return new Timer() {
+                    @Override
+                    public void update(long nanos) {
+                        count.increment();
+                    }
+
+                    @Override
+                    public long getCount() {
+                        return count.sum();
+                    }
+                };
+            });
+        }
+
+        @Override
+        public boolean registerGauge(String name, Supplier<? extends Number> gauge) {
+            return gauges.putIfAbsent(name, gauge) == null;
+        }
+
+        @Override
+        public boolean registerHealthCheck(String name, DoubleSupplier value, double ceiling) {
+            return healthChecks.putIfAbsent(name, new HealthCheck(value, ceiling)) == null;
+        }
+    }
+}
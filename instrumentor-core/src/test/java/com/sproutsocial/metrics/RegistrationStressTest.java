@@ -0,0 +1,185 @@
+package com.sproutsocial.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.health.HealthCheck;
+import com.codahale.metrics.health.HealthCheckRegistry;
+
+/**
+ * Created on 10/19/26
+ *
+ * Many threads calling the same fresh names at once, as when a fleet restarts
+ * into full traffic.
+ */
+public class RegistrationStressTest {
+
+    private static final int THREADS = 16;
+    private static final int NAMES = 500;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    private final CountingMetricRegistry metricRegistry = new CountingMetricRegistry();
+    private final CountingHealthCheckRegistry healthCheckRegistry = new CountingHealthCheckRegistry();
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private static String name(int i) {
+        return "com.mycompany.Service" + i + ".call";
+    }
+
+    /**
+     * @param timeouts whether to make calls with a timeout too
+     * @return the slowest call, in nanos
+     */
+    private long hammer(Instrumentor instrumentor, boolean timeouts) throws Exception {
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicLong slowest = new AtomicLong();
+        final List<Future<?>> threads = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            threads.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < NAMES; i++) {
+                    final long before = System.nanoTime();
+                    instrumentor.run(() -> {}, name(i), 0.5);
+                    if (timeouts) {
+                        instrumentor.callWithTimeout(() -> null, name(i), Duration.ofMinutes(1));
+                    } else {
+                        instrumentor.call(() -> null, name(i));
+                    }
+                    slowest.accumulateAndGet(System.nanoTime() - before, Math::max);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> thread : threads) {
+            thread.get(1, TimeUnit.MINUTES);
+        }
+        return slowest.get();
+    }
+
+    private void assertRegisteredOnce(Instrumentor instrumentor, boolean timeouts) {
+        for (int i = 0; i < NAMES; i++) {
+            final String name = name(i);
+            assertEquals(2L * THREADS, instrumentor.getMetricRegistry().timer(name).getCount());
+            assertEquals(1, metricRegistry.registrations(name));
+            assertEquals(1, metricRegistry.registrations(name + ".errors"));
+            assertEquals(1, metricRegistry.registrations(name + ".errors.m15_pct"));
+            assertEquals(timeouts ? 1 : 0, metricRegistry.registrations(name + ".timeouts"));
+            assertEquals(1, healthCheckRegistry.registrations(name));
+        }
+        assertEquals(0, metricRegistry.rejected.get());
+    }
+
+    @Test
+    public void testOneRegistrationPerName() throws Exception {
+        final Instrumentor instrumentor = Instrumentor.builder()
+                .metricRegistry(metricRegistry)
+                .healthCheckRegistry(healthCheckRegistry)
+                .build();
+
+        final long slowest = hammer(instrumentor, true);
+
+        assertRegisteredOnce(instrumentor, true);
+        assertTrue("slowest call took " + slowest + "ns", slowest < TimeUnit.SECONDS.toNanos(5));
+    }
+
+    @Test
+    public void testOneRegistrationPerNameWithClock() throws Exception {
+        // meters and timers on a clock other than the default are registered by the instrumentor
+        final Instrumentor instrumentor = Instrumentor.builder()
+                .metricRegistry(metricRegistry)
+                .healthCheckRegistry(healthCheckRegistry)
+                .clock(new ManualClock())
+                .build();
+
+        hammer(instrumentor, false);
+
+        assertRegisteredOnce(instrumentor, false);
+    }
+
+    @Test
+    public void testInstrumentorsSharingRegistries() throws Exception {
+        final Instrumentor first = Instrumentor.builder()
+                .metricRegistry(metricRegistry)
+                .healthCheckRegistry(healthCheckRegistry)
+                .clock(new ManualClock())
+                .build();
+        final Instrumentor second = Instrumentor.builder()
+                .metricRegistry(metricRegistry)
+                .healthCheckRegistry(healthCheckRegistry)
+                .clock(new ManualClock())
+                .build();
+
+        final Future<Long> firstCalls = Executors.newSingleThreadExecutor().submit(() -> hammer(first, false));
+        hammer(second, false);
+        firstCalls.get(1, TimeUnit.MINUTES);
+
+        assertEquals(0, metricRegistry.rejected.get());
+        for (int i = 0; i < NAMES; i++) {
+            assertEquals(4L * THREADS, metricRegistry.timer(name(i)).getCount());
+            assertEquals(1, metricRegistry.registrations(name(i)));
+        }
+    }
+
+    /**
+     * counts every attempt to register a name, and the attempts that were rejected
+     * because the name was taken
+     */
+    private static final class CountingMetricRegistry extends MetricRegistry {
+        private final ConcurrentMap<String, AtomicInteger> registrations = new ConcurrentHashMap<>();
+        private final AtomicInteger rejected = new AtomicInteger();
+
+        @Override
+        public <T extends Metric> T register(String name, T metric) {
+            registrations.computeIfAbsent(name, any -> new AtomicInteger()).incrementAndGet();
+            try {
+                return super.register(name, metric);
+            } catch (IllegalArgumentException taken) {
+                rejected.incrementAndGet();
+                throw taken;
+            }
+        }
+
+        int registrations(String name) {
+            final AtomicInteger count = registrations.get(name);
+            return count == null ? 0 : count.get();
+        }
+    }
+
+    private static final class CountingHealthCheckRegistry extends HealthCheckRegistry {
+        private final ConcurrentMap<String, AtomicInteger> registrations = new ConcurrentHashMap<>();
+
+        @Override
+        public void register(String name, HealthCheck healthCheck) {
+            registrations.computeIfAbsent(name, any -> new AtomicInteger()).incrementAndGet();
+            super.register(name, healthCheck);
+        }
+
+        int registrations(String name) {
+            final AtomicInteger count = registrations.get(name);
+            return count == null ? 0 : count.get();
+        }
+    }
+}
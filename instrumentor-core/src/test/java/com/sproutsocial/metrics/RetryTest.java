@@ -0,0 +1,114 @@
+package com.sproutsocial.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.codahale.metrics.MetricRegistry;
+
+/**
+ * Created on 10/19/26
+ */
+public class RetryTest {
+
+    private MetricRegistry metricRegistry;
+    private Instrumentor instrumentor;
+
+    @Before
+    public void setUp() throws Exception {
+        metricRegistry = new MetricRegistry();
+        instrumentor = Instrumentor.builder()
+                .metricRegistry(metricRegistry)
+                .build();
+    }
+
+    private static RetryPolicy.Builder policy() {
+        return RetryPolicy.builder()
+                .initialBackoff(Duration.ofMillis(1));
+    }
+
+    private static Callable<String> failingTimes(int failures) {
+        final AtomicInteger calls = new AtomicInteger();
+        return () -> {
+            if (calls.incrementAndGet() <= failures) {
+                throw new IllegalStateException("attempt " + calls.get());
+            }
+            return "done";
+        };
+    }
+
+    @Test
+    public void testSucceedsAfterRetries() throws Exception {
+        final String result = instrumentor.callWithRetry(failingTimes(2), "foo", policy().build());
+
+        assertEquals("done", result);
+        assertEquals(1, metricRegistry.timer("foo").getCount());
+        assertEquals(0, metricRegistry.meter("foo.errors").getCount());
+        assertEquals(3, metricRegistry.timer("foo.attempts").getCount());
+        assertEquals(2, metricRegistry.meter("foo.retries").getCount());
+        assertEquals(3, metricRegistry.histogram("foo.attempts.per_call").getSnapshot().getMax());
+    }
+
+    @Test
+    public void testEveryAttemptFails() throws Exception {
+        try {
+            instrumentor.callWithRetry(failingTimes(5), "foo", policy().maxAttempts(3).build());
+            fail();
+        } catch (IllegalStateException e) {
+            assertEquals("attempt 3", e.getMessage());
+        }
+
+        assertEquals(1, metricRegistry.timer("foo").getCount());
+        assertEquals(1, metricRegistry.meter("foo.errors").getCount());
+        assertEquals(3, metricRegistry.timer("foo.attempts").getCount());
+        assertEquals(2, metricRegistry.meter("foo.retries").getCount());
+    }
+
+    @Test
+    public void testRetryOn() throws Exception {
+        final RetryPolicy policy = policy()
+                .retryOn(e -> !(e instanceof IllegalStateException))
+                .build();
+        try {
+            instrumentor.callWithRetry(failingTimes(1), "foo", policy);
+            fail();
+        } catch (IllegalStateException expected) {}
+
+        assertEquals(1, metricRegistry.timer("foo.attempts").getCount());
+        assertEquals(0, metricRegistry.meter("foo.retries").getCount());
+    }
+
+    @Test
+    public void testBudgetStopsRetryStorm() throws Exception {
+        final RetryPolicy policy = policy()
+                .maxAttempts(2)
+                .budgetRatio(0.1)
+                .build();
+        for (int i = 0; i < 20; i++) {
+            try {
+                instrumentor.callWithRetry(failingTimes(Integer.MAX_VALUE), "foo", policy);
+                fail();
+            } catch (IllegalStateException expected) {}
+        }
+
+        assertEquals((long) Retries.MAX_TOKENS, metricRegistry.meter("foo.retries").getCount());
+        assertEquals(20 - (long) Retries.MAX_TOKENS, metricRegistry.meter("foo.retries.throttled").getCount());
+
+        // every success earns back a tenth of a retry
+        for (int i = 0; i < 10; i++) {
+            instrumentor.callWithRetry(() -> "done", "foo", policy);
+        }
+        try {
+            instrumentor.callWithRetry(failingTimes(1), "foo", policy);
+        } catch (IllegalStateException e) {
+            fail();
+        }
+        assertEquals((long) Retries.MAX_TOKENS + 1, metricRegistry.meter("foo.retries").getCount());
+    }
+}
@@ -0,0 +1,136 @@
+package com.sproutsocial.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.codahale.metrics.MetricRegistry;
+
+/**
+ * Created on 10/19/26
+ */
+public class RollupTest {
+
+    private MetricRegistry metricRegistry;
+    private Instrumentor instrumentor;
+
+    @Before
+    public void setUp() throws Exception {
+        metricRegistry = new MetricRegistry();
+        instrumentor = Instrumentor.builder()
+                .metricRegistry(metricRegistry)
+                .rollupByClass(true)
+                .rollupPrefixes("com.mycompany")
+                .build();
+    }
+
+    private long gauge(String name) {
+        return ((Number) metricRegistry.getGauges().get(name).getValue()).longValue();
+    }
+
+    private void fail(String name) {
+        try {
+            instrumentor.run(() -> { throw new RuntimeException(); }, name);
+        } catch (RuntimeException ignored) {}
+    }
+
+    @Test
+    public void testRollupByClass() throws Exception {
+        instrumentor.run(() -> {}, "com.mycompany.UserService.getUser");
+        instrumentor.run(() -> {}, "com.mycompany.UserService.getUser");
+        fail("com.mycompany.UserService.saveUser");
+        instrumentor.run(() -> {}, "com.mycompany.OrderService.getOrder");
+
+        assertEquals(3, gauge("com.mycompany.UserService.rollup"));
+        assertEquals(1, gauge("com.mycompany.UserService.rollup.errors"));
+        assertEquals(0, gauge("com.mycompany.UserService.rollup.inFlight"));
+        assertEquals(1d / 3, (Double) metricRegistry.getGauges()
+                .get("com.mycompany.UserService.rollup.errors.total_pct").getValue(), 0.0001);
+
+        assertEquals(1, gauge("com.mycompany.OrderService.rollup"));
+    }
+
+    @Test
+    public void testRollupByPrefix() throws Exception {
+        instrumentor.run(() -> {}, "com.mycompany.UserService.getUser");
+        fail("com.mycompany.OrderService.getOrder");
+        instrumentor.run(() -> {}, "org.other.Service.call");
+
+        assertEquals(2, gauge("com.mycompany.rollup"));
+        assertEquals(1, gauge("com.mycompany.rollup.errors"));
+        assertFalse(metricRegistry.getGauges().containsKey("org.rollup"));
+    }
+
+    @Test
+    public void testNamesWithoutAClass() throws Exception {
+        instrumentor.run(() -> {}, "toplevel");
+        assertEquals(0, instrumentor.snapshot().getRollups().size());
+    }
+
+    @Test
+    public void testRollupsAreReadOnly() throws Exception {
+        instrumentor.run(() -> {}, "com.mycompany.UserService.getUser");
+
+        // nothing that could be marked is registered
+        assertFalse(metricRegistry.getMeters().keySet().stream().anyMatch(name -> name.contains(Rollup.SUFFIX)));
+        assertFalse(metricRegistry.getCounters().keySet().stream().anyMatch(name -> name.contains(Rollup.SUFFIX)));
+        assertTrue(metricRegistry.getGauges().containsKey("com.mycompany.UserService.rollup.m1_rate"));
+        assertTrue(metricRegistry.getGauges().containsKey("com.mycompany.UserService.rollup.errors.m15_rate"));
+    }
+
+    @Test
+    public void testInFlight() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final Future<?> call = executor.submit(() -> instrumentor.run(() -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, "com.mycompany.UserService.getUser"));
+
+            started.await();
+            assertEquals(1, gauge("com.mycompany.UserService.rollup.inFlight"));
+            assertEquals(1, instrumentor.snapshot().getRollup("com.mycompany").get().getInFlight());
+
+            release.countDown();
+            call.get();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testSnapshotMergesMembers() throws Exception {
+        instrumentor.run(() -> {}, "com.mycompany.UserService.getUser");
+        fail("com.mycompany.UserService.saveUser");
+
+        final InstrumentorSnapshot first = instrumentor.snapshot();
+        final OperationSnapshot rollup = first.getRollup("com.mycompany.UserService").get();
+        assertEquals(2, rollup.getCalls());
+        assertEquals(1, rollup.getErrors());
+        assertEquals(2, rollup.getLatency().getCount());
+        assertEquals(
+                first.getOperation("com.mycompany.UserService.getUser").get().getLatency().getSum() +
+                first.getOperation("com.mycompany.UserService.saveUser").get().getLatency().getSum(),
+                rollup.getLatency().getSum());
+
+        instrumentor.run(() -> {}, "com.mycompany.UserService.getUser");
+        final OperationSnapshot second = instrumentor.snapshot().getRollup("com.mycompany").get();
+        assertEquals(1, second.getCalls());
+        assertEquals(0, second.getErrors());
+        assertTrue(second.getLatency().getCount() == 1);
+    }
+}
@@ -0,0 +1,185 @@
+package com.sproutsocial.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * Created on 10/19/26
+ */
+public class SamplingTest {
+
+    private static final String GET_USER = "com.mycompany.UserService.getUser";
+    private static final String SAVE_USER = "com.mycompany.UserService.saveUser";
+    private static final String GET_ORDER = "com.mycompany.OrderService.getOrder";
+
+    private final Instrumentor instrumentor = Instrumentor.builder().build();
+
+    private long calls(String name) {
+        return instrumentor.getMetricRegistry().timer(name).getCount();
+    }
+
+    private void call(String name, int times) {
+        for (int i = 0; i < times; i++) {
+            instrumentor.run(() -> {}, name);
+        }
+    }
+
+    @Test
+    public void testDisable() throws Exception {
+        call(GET_USER, 1);
+        instrumentor.disable(GET_USER);
+
+        final AtomicInteger ran = new AtomicInteger();
+        instrumentor.run(ran::incrementAndGet, GET_USER);
+        assertEquals(1, ran.get());
+        assertEquals(1, calls(GET_USER));
+        assertEquals(0d, instrumentor.getSampleRate(GET_USER), 0d);
+
+        instrumentor.enable(GET_USER);
+        call(GET_USER, 1);
+        assertEquals(2, calls(GET_USER));
+    }
+
+    @Test
+    public void testDisableDoesNotCountErrors() throws Exception {
+        instrumentor.disable(GET_USER);
+        try {
+            instrumentor.call(() -> {
+                throw new IllegalStateException();
+            }, GET_USER);
+        } catch (IllegalStateException expected) {}
+        assertEquals(0, instrumentor.getMetricRegistry().meter(GET_USER + ".errors").getCount());
+    }
+
+    @Test
+    public void testPrefixes() throws Exception {
+        instrumentor.disable("com.mycompany");
+        instrumentor.enable("com.mycompany.UserService.saveUser");
+        // a prefix only matches whole segments
+        instrumentor.enable("com.mycompany.User");
+
+        call(GET_USER, 10);
+        call(SAVE_USER, 10);
+        call(GET_ORDER, 10);
+        assertEquals(0, calls(GET_USER));
+        assertEquals(10, calls(SAVE_USER));
+        assertEquals(0, calls(GET_ORDER));
+
+        instrumentor.clearSampling("com.mycompany");
+        call(GET_USER, 10);
+        call(GET_ORDER, 10);
+        assertEquals(10, calls(GET_USER));
+        assertEquals(10, calls(GET_ORDER));
+    }
+
+    @Test
+    public void testSample() throws Exception {
+        instrumentor.sample("com.mycompany.UserService", 0.1);
+        call(GET_USER, 10_000);
+
+        assertEquals(0.1, instrumentor.getSampleRate(GET_USER), 0d);
+        assertEquals(1000, calls(GET_USER), 200);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSampleRateOutOfRange() throws Exception {
+        instrumentor.sample(GET_USER, 1.5);
+    }
+
+    @Test
+    public void testOverheadBudget() throws Exception {
+        // a manual clock that never moves makes every call look free, so recording
+        // any of them is over budget
+        final Instrumentor budgeted = Instrumentor.builder()
+                .clock(new ManualClock())
+                .overheadBudget(0.01)
+                .build();
+        for (int i = 0; i < 10_000; i++) {
+            budgeted.run(() -> {}, GET_USER);
+        }
+
+        assertTrue(budgeted.getSampleRate(GET_USER) < 0.1);
+        assertTrue(budgeted.getMetricRegistry().timer(GET_USER).getCount() < 10_000);
+
+        budgeted.enable(GET_USER);
+        assertEquals(1d, budgeted.getSampleRate(GET_USER), 0d);
+        budgeted.clearSampling(GET_USER);
+        assertTrue(budgeted.getSampleRate(GET_USER) < 0.1);
+    }
+
+    @Test
+    public void testWithinBudget() throws Exception {
+        final ManualClock clock = new ManualClock();
+        final Instrumentor budgeted = Instrumentor.builder()
+                .clock(clock)
+                .overheadBudget(0.01)
+                .build();
+        for (int i = 0; i < 1000; i++) {
+            budgeted.run(() -> clock.advance(Duration.ofSeconds(1)), GET_USER);
+        }
+
+        assertEquals(1d, budgeted.getSampleRate(GET_USER), 0d);
+        assertEquals(1000, budgeted.getMetricRegistry().timer(GET_USER).getCount());
+    }
+
+    @Test
+    public void testDisabledTimeoutsStillEnforceDeadlines() throws Exception {
+        instrumentor.disable(GET_USER);
+
+        assertEquals("done", instrumentor.callWithTimeout(() -> "done", GET_USER, Duration.ofSeconds(10)));
+        try {
+            instrumentor.callWithTimeout(() -> {
+                Thread.sleep(TimeUnit.SECONDS.toMillis(10));
+                return "done";
+            }, GET_USER, Duration.ofMillis(20));
+            fail();
+        } catch (TimeoutException expected) {}
+
+        assertEquals(0, calls(GET_USER));
+        assertEquals(0, instrumentor.getMetricRegistry().meter(GET_USER + ".timeouts").getCount());
+        assertEquals(0, instrumentor.getMetricRegistry().meter(GET_USER + ".errors").getCount());
+    }
+
+    @Test
+    public void testDisabledHedgedCallsStillHedge() throws Exception {
+        final ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            for (int i = 0; i < Hedging.MIN_SAMPLES * 2; i++) {
+                instrumentor.callHedged(() -> {
+                    Thread.sleep(1);
+                    return "warm";
+                }, GET_USER, executor, 1d);
+            }
+            // let the hedge delay refresh from the warmed up timer
+            Thread.sleep(1100);
+            final long recorded = calls(GET_USER);
+            instrumentor.disable(GET_USER);
+
+            final AtomicInteger attempts = new AtomicInteger();
+            final long start = System.nanoTime();
+            final String result = instrumentor.callHedged(() -> {
+                if (attempts.incrementAndGet() == 1) {
+                    Thread.sleep(TimeUnit.SECONDS.toMillis(10));
+                }
+                return "hedge";
+            }, GET_USER, executor, 1d);
+
+            assertEquals("hedge", result);
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+            assertEquals(recorded, calls(GET_USER));
+            assertEquals(0, instrumentor.getMetricRegistry().meter(GET_USER + ".hedges.won").getCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.sproutsocial.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+/**
+ * Created on 10/19/26
+ */
+public class SlowCallsTest {
+
+    private static final long WINDOW = TimeUnit.MINUTES.toNanos(1);
+
+    private static List<Long> durations(SlowCalls slowCalls) {
+        return slowCalls.get().stream()
+                .map(SlowCall::getDurationNanos)
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    public void testKeepsSlowest() throws Exception {
+        final SlowCalls slowCalls = new SlowCalls(3, WINDOW);
+        final long now = System.nanoTime();
+        for (long duration : new long[]{5, 1, 9, 3, 7, 2, 8}) {
+            slowCalls.record(now, duration, false, null);
+        }
+
+        assertEquals(Arrays.asList(9L, 8L, 7L), durations(slowCalls));
+    }
+
+    @Test
+    public void testCallDetails() throws Exception {
+        final SlowCalls slowCalls = new SlowCalls(3, WINDOW);
+        slowCalls.record(System.nanoTime(), 10, true, () -> "[42]");
+
+        final SlowCall call = slowCalls.get().get(0);
+        assertEquals(Thread.currentThread().getName(), call.getThreadName());
+        assertTrue(call.isError());
+        assertEquals("[42]", call.getContext().get());
+        assertTrue(Math.abs(System.currentTimeMillis() - call.getTimestampMillis()) < TimeUnit.MINUTES.toMillis(1));
+    }
+
+    @Test
+    public void testFailingContextIsReplaced() throws Exception {
+        final SlowCalls slowCalls = new SlowCalls(3, WINDOW);
+        slowCalls.record(System.nanoTime(), 10, false, () -> {
+            throw new IllegalStateException("toString");
+        });
+
+        final SlowCall call = slowCalls.get().get(0);
+        assertTrue(call.getContext().get().contains("IllegalStateException"));
+    }
+
+    @Test
+    public void testContextOnlyEvaluatedWhenCaptured() throws Exception {
+        final SlowCalls slowCalls = new SlowCalls(1, WINDOW);
+        final long now = System.nanoTime();
+        slowCalls.record(now, 10, false, null);
+        slowCalls.record(now, 5, false, () -> {
+            throw new AssertionError("rejected calls shouldn't be described");
+        });
+    }
+
+    @Test
+    public void testWindowsExpire() throws Exception {
+        final SlowCalls slowCalls = new SlowCalls(3, WINDOW);
+        final long now = System.nanoTime();
+        slowCalls.record(now, 100, false, null);
+        slowCalls.record(now + WINDOW, 1, false, null);
+
+        // the previous window is still reported
+        assertEquals(Arrays.asList(100L, 1L), durations(slowCalls));
+
+        // but older windows aren't
+        slowCalls.record(now + WINDOW * 2, 2, false, null);
+        slowCalls.record(now + WINDOW * 3, 3, false, null);
+        assertEquals(Arrays.asList(3L, 2L), durations(slowCalls));
+    }
+
+    @Test
+    public void testConcurrentOffers() throws Exception {
+        final SlowCalls slowCalls = new SlowCalls(10, WINDOW);
+        final long now = System.nanoTime();
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                final int offset = thread;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        slowCalls.record(now, i * 4 + offset, false, null);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        final List<Long> durations = durations(slowCalls);
+        assertEquals(10, durations.size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(39_999L - i, (long) durations.get(i));
+        }
+    }
+
+    @Test
+    public void testInstrumentorJson() throws Exception {
+        final Instrumentor instrumentor = Instrumentor.builder()
+                .slowCalls(2)
+                .build();
+        instrumentor.run(() -> {}, "foo");
+        instrumentor.run(() -> {}, "com.mycompany.\"quoted\"");
+
+        assertEquals(1, instrumentor.getSlowCalls("foo").size());
+        final StringBuilder json = new StringBuilder();
+        instrumentor.writeSlowCallsJson(json);
+
+        assertTrue(json.toString().startsWith("{\"com.mycompany.\\\"quoted\\\"\":[{\"timestamp\":"));
+        assertTrue(json.toString().contains("\"error\":false,\"context\":null}]"));
+        assertTrue(json.toString().contains(",\"foo\":[{"));
+    }
+
+    @Test
+    public void testDisabledByDefault() throws Exception {
+        final Instrumentor instrumentor = new Instrumentor();
+        instrumentor.run(() -> {}, "foo");
+
+        assertTrue(instrumentor.getSlowCalls("foo").isEmpty());
+        assertFalse(instrumentor.capturesSlowCalls());
+    }
+}
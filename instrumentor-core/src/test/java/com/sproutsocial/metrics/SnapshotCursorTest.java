@@ -0,0 +1,115 @@
+package com.sproutsocial.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Created on 10/19/26
+ */
+public class SnapshotCursorTest {
+
+    private Instrumentor instrumentor;
+
+    @Before
+    public void setUp() throws Exception {
+        instrumentor = new Instrumentor();
+    }
+
+    private void fail(String name) {
+        try {
+            instrumentor.run(() -> { throw new RuntimeException(); }, name);
+        } catch (RuntimeException ignored) {}
+    }
+
+    @Test
+    public void testIntervals() throws Exception {
+        instrumentor.run(() -> {}, "a");
+        fail("a");
+
+        final OperationSnapshot first = instrumentor.snapshot().getOperation("a").get();
+        assertEquals(2, first.getCalls());
+        assertEquals(1, first.getErrors());
+        assertEquals(0, first.getInFlight());
+        assertEquals(2, first.getLatency().getCount());
+
+        instrumentor.run(() -> {}, "a");
+
+        final OperationSnapshot second = instrumentor.snapshot().getOperation("a").get();
+        assertEquals(1, second.getCalls());
+        assertEquals(0, second.getErrors());
+
+        final OperationSnapshot third = instrumentor.snapshot().getOperation("a").get();
+        assertEquals(0, third.getCalls());
+    }
+
+    @Test
+    public void testIndependentCursors() throws Exception {
+        final SnapshotCursor fast = instrumentor.newSnapshotCursor();
+        final SnapshotCursor slow = instrumentor.newSnapshotCursor();
+
+        instrumentor.run(() -> {}, "a");
+        assertEquals(1, fast.snapshot().getOperation("a").get().getCalls());
+
+        instrumentor.run(() -> {}, "a");
+        assertEquals(1, fast.snapshot().getOperation("a").get().getCalls());
+        assertEquals(2, slow.snapshot().getOperation("a").get().getCalls());
+    }
+
+    @Test
+    public void testIntervalBounds() throws Exception {
+        final SnapshotCursor cursor = instrumentor.newSnapshotCursor();
+        final InstrumentorSnapshot first = cursor.snapshot();
+        final InstrumentorSnapshot second = cursor.snapshot();
+
+        assertTrue(first.getStartMillis() <= first.getEndMillis());
+        assertEquals(first.getEndMillis(), second.getStartMillis());
+        assertFalse(second.getOperation("missing").isPresent());
+    }
+
+    @Test
+    public void testInFlight() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final Future<?> call = executor.submit(() -> instrumentor.run(() -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, "slow"));
+
+            started.await();
+            final OperationSnapshot during = instrumentor.snapshot().getOperation("slow").get();
+            assertEquals(1, during.getInFlight());
+            assertEquals(0, during.getCalls());
+
+            release.countDown();
+            call.get();
+            final OperationSnapshot after = instrumentor.snapshot().getOperation("slow").get();
+            assertEquals(0, after.getInFlight());
+            assertEquals(1, after.getCalls());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testSortedByName() throws Exception {
+        instrumentor.run(() -> {}, "b");
+        instrumentor.run(() -> {}, "a");
+
+        assertEquals("[a, b]", instrumentor.snapshot().asMap().keySet().toString());
+    }
+}
@@ -0,0 +1,211 @@
+package com.sproutsocial.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.codahale.metrics.Clock;
+import com.codahale.metrics.ExponentiallyDecayingReservoir;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+
+/**
+ * Created on 10/19/26
+ */
+public class StateStoreTest {
+
+    private static final String NAME = "com.mycompany.UserService.getUser";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final AtomicLong wallMillis = new AtomicLong(TimeUnit.DAYS.toMillis(10_000));
+    private final AtomicLong tickNanos = new AtomicLong();
+    private final Clock clock = new Clock() {
+        @Override
+        public long getTick() {
+            return tickNanos.get();
+        }
+    };
+    private Path path;
+    private StateStore store;
+
+    @Before
+    public void setUp() throws Exception {
+        path = folder.getRoot().toPath().resolve("instrumentor.state");
+        store = open();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        store.close();
+    }
+
+    private StateStore open() throws IOException {
+        return new StateStore(path, Duration.ofHours(1), Duration.ofDays(1), wallMillis::get);
+    }
+
+    private StateStore restart(long elapsedMillis) throws IOException {
+        store.close();
+        wallMillis.addAndGet(elapsedMillis);
+        store = open();
+        return store;
+    }
+
+    /**
+     * 100 calls, 10 of them errors, in a registry whose EWMAs
+     * tick on our clock so they have rates to save
+     */
+    private MetricRegistry record() {
+        final MetricRegistry metricRegistry = new MetricRegistry();
+        metricRegistry.register(NAME, new Timer(new ExponentiallyDecayingReservoir(), clock));
+        metricRegistry.register(NAME + ".errors", new Meter(clock));
+        final Instrumentor instrumentor = Instrumentor.builder()
+                .metricRegistry(metricRegistry)
+                .stateStore(store)
+                .build();
+        for (int i = 0; i < 100; i++) {
+            final boolean error = i % 10 == 0;
+            try {
+                instrumentor.run(() -> {
+                    if (error) {
+                        throw new IllegalStateException();
+                    }
+                }, NAME);
+            } catch (IllegalStateException expected) {}
+        }
+        tickNanos.addAndGet(TimeUnit.SECONDS.toNanos(6));
+        return metricRegistry;
+    }
+
+    @Test
+    public void testRestoresCountsRatesAndHistograms() throws Exception {
+        final MetricRegistry before = record();
+        final double errorRate = before.meter(NAME + ".errors").getFifteenMinuteRate();
+        assertTrue(errorRate > 0);
+
+        restart(0);
+        final Instrumentor instrumentor = Instrumentor.builder()
+                .stateStore(store)
+                .build();
+        instrumentor.run(() -> {}, NAME);
+
+        final MetricRegistry after = instrumentor.getMetricRegistry();
+        assertEquals(10, after.meter(NAME + ".errors").getCount());
+        assertEquals(101, after.timer(NAME).getCount());
+        assertEquals(errorRate, after.meter(NAME + ".errors").getFifteenMinuteRate(), 1e-9);
+        assertEquals(0.1, (Double) after.getGauges().get(NAME + ".errors.m15_pct").getValue(), 1e-6);
+
+        final OperationSnapshot interval = instrumentor.snapshot().getOperation(NAME).get();
+        assertEquals(1, interval.getCalls());
+        assertEquals(0, interval.getErrors());
+        assertEquals(101, instrumentor.getOperations().iterator().next().latency.snapshot().getCount());
+    }
+
+    @Test
+    public void testDecaysByAge() throws Exception {
+        final MetricRegistry before = record();
+        final double m1 = before.meter(NAME + ".errors").getOneMinuteRate();
+        final double m15 = before.meter(NAME + ".errors").getFifteenMinuteRate();
+
+        restart(TimeUnit.MINUTES.toMillis(15));
+        final ManualClock after = new ManualClock();
+        final Instrumentor instrumentor = Instrumentor.builder()
+                .stateStore(store)
+                .clock(after)
+                .build();
+        instrumentor.run(() -> {}, NAME);
+
+        final Meter errors = (Meter) instrumentor.getMetricRegistry().getMetrics().get(NAME + ".errors");
+        assertEquals(10, errors.getCount());
+        assertEquals(m1 * Math.exp(-15), errors.getOneMinuteRate(), 1e-12);
+        assertEquals(m15 * Math.exp(-1), errors.getFifteenMinuteRate(), 1e-9);
+
+        // and from there decays like any other meter
+        after.advance(15, TimeUnit.MINUTES);
+        assertEquals(m15 * Math.exp(-2), errors.getFifteenMinuteRate(), 1e-9);
+    }
+
+    private static void steadyTraffic(Instrumentor instrumentor, ManualClock clock, long minutes) {
+        for (long second = 0; second < TimeUnit.MINUTES.toSeconds(minutes); second++) {
+            for (int i = 0; i < 10; i++) {
+                instrumentor.run(() -> {}, NAME);
+            }
+            clock.advance(1, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void testSteadyTrafficAcrossRestart() throws Exception {
+        final ManualClock before = new ManualClock();
+        steadyTraffic(Instrumentor.builder().stateStore(store).clock(before).build(), before, 30);
+
+        restart(TimeUnit.SECONDS.toMillis(1));
+        final ManualClock after = new ManualClock();
+        final Instrumentor instrumentor = Instrumentor.builder()
+                .stateStore(store)
+                .clock(after)
+                .build();
+        steadyTraffic(instrumentor, after, 1);
+
+        // 10 calls a second throughout, not the old rate on top of the new one
+        final Timer calls = (Timer) instrumentor.getMetricRegistry().getMetrics().get(NAME);
+        assertEquals(10, calls.getOneMinuteRate(), 0.5);
+        assertEquals(10, calls.getFiveMinuteRate(), 0.5);
+        assertEquals(10, calls.getFifteenMinuteRate(), 0.5);
+        assertEquals(10 * 60 * 31, calls.getCount());
+    }
+
+    @Test
+    public void testIgnoresExpiredSnapshots() throws Exception {
+        record();
+
+        restart(TimeUnit.DAYS.toMillis(2));
+        final Instrumentor instrumentor = Instrumentor.builder()
+                .stateStore(store)
+                .build();
+        instrumentor.run(() -> {}, NAME);
+
+        assertEquals(0, instrumentor.getMetricRegistry().meter(NAME + ".errors").getCount());
+        assertEquals(1, instrumentor.getMetricRegistry().timer(NAME).getCount());
+    }
+
+    @Test
+    public void testKeepsUnclaimedState() throws Exception {
+        record();
+
+        restart(TimeUnit.MINUTES.toMillis(1));
+        restart(TimeUnit.MINUTES.toMillis(1));
+        final Instrumentor instrumentor = Instrumentor.builder()
+                .stateStore(store)
+                .build();
+        instrumentor.run(() -> {}, NAME);
+
+        assertEquals(10, instrumentor.getMetricRegistry().meter(NAME + ".errors").getCount());
+        assertEquals(101, instrumentor.getMetricRegistry().timer(NAME).getCount());
+    }
+
+    @Test
+    public void testRejectsOtherFiles() throws Exception {
+        final Path other = folder.newFile().toPath();
+        Files.write(other, new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+        try {
+            new StateStore(other, Duration.ofHours(1), Duration.ofDays(1), wallMillis::get);
+            fail("expected an IOException");
+        } catch (IOException expected) {}
+    }
+}
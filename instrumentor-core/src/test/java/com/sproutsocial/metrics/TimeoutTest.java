@@ -0,0 +1,125 @@
+package com.sproutsocial.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.codahale.metrics.MetricRegistry;
+
+/**
+ * Created on 10/19/26
+ */
+public class TimeoutTest {
+
+    private MetricRegistry metricRegistry;
+    private Instrumentor instrumentor;
+
+    @Before
+    public void setUp() throws Exception {
+        metricRegistry = new MetricRegistry();
+        instrumentor = Instrumentor.builder()
+                .metricRegistry(metricRegistry)
+                .build();
+    }
+
+    @Test
+    public void testCallWithinTimeout() throws Exception {
+        final String result = instrumentor.callWithTimeout(() -> "done", "foo", Duration.ofSeconds(10));
+
+        assertEquals("done", result);
+        assertEquals(1, metricRegistry.timer("foo").getCount());
+        assertEquals(0, metricRegistry.meter("foo.timeouts").getCount());
+        assertEquals(0, metricRegistry.meter("foo.errors").getCount());
+    }
+
+    @Test
+    public void testCallInterruptedAfterTimeout() throws Exception {
+        final long start = System.nanoTime();
+        try {
+            instrumentor.callWithTimeout(() -> {
+                Thread.sleep(TimeUnit.SECONDS.toMillis(10));
+                return "done";
+            }, "foo", Duration.ofMillis(50));
+            fail();
+        } catch (TimeoutException e) {
+            assertTrue(e.getCause() instanceof InterruptedException);
+        }
+
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+        assertFalse(Thread.currentThread().isInterrupted());
+        assertEquals(1, metricRegistry.meter("foo.timeouts").getCount());
+        assertEquals(1, metricRegistry.meter("foo.errors").getCount());
+        assertEquals(0, metricRegistry.counter("foo.inFlight").getCount());
+    }
+
+    @Test
+    public void testCallIgnoringInterruptStillTimesOut() throws Exception {
+        try {
+            instrumentor.callWithTimeout(() -> {
+                final long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+                while (System.nanoTime() < end) {
+                    Thread.yield();
+                }
+                return "done";
+            }, "foo", Duration.ofMillis(20));
+            fail();
+        } catch (TimeoutException e) {
+            assertEquals(null, e.getCause());
+        }
+
+        assertFalse(Thread.currentThread().isInterrupted());
+        assertEquals(1, metricRegistry.meter("foo.timeouts").getCount());
+    }
+
+    @Test
+    public void testExceptionWithinTimeout() throws Exception {
+        try {
+            instrumentor.callWithTimeout(() -> {
+                throw new IllegalStateException();
+            }, "foo", Duration.ofSeconds(10));
+            fail();
+        } catch (IllegalStateException expected) {}
+
+        assertEquals(0, metricRegistry.meter("foo.timeouts").getCount());
+        assertEquals(1, metricRegistry.meter("foo.errors").getCount());
+    }
+
+    @Test
+    public void testManyDeadlines() throws Exception {
+        for (int i = 0; i < 100_000; i++) {
+            instrumentor.callWithTimeout(() -> null, "foo", Duration.ofSeconds(10));
+        }
+
+        assertEquals(100_000, metricRegistry.timer("foo").getCount());
+        assertEquals(0, metricRegistry.meter("foo.timeouts").getCount());
+        assertFalse(Thread.currentThread().isInterrupted());
+    }
+
+    @Test
+    public void testDeadlinesIgnoreClock() throws Exception {
+        // the clock only times calls, deadlines are always on System.nanoTime()
+        final ManualClock clock = new ManualClock();
+        final Instrumentor clocked = Instrumentor.builder()
+                .metricRegistry(metricRegistry)
+                .clock(clock)
+                .build();
+
+        final String result = clocked.callWithTimeout(() -> {
+            Thread.sleep(200);
+            clock.advance(Duration.ofMillis(200));
+            return "done";
+        }, "foo", Duration.ofSeconds(10));
+
+        assertEquals("done", result);
+        assertEquals(0, metricRegistry.meter("foo.timeouts").getCount());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(200), metricRegistry.timer("foo").getSnapshot().getMax());
+    }
+}
@@ -0,0 +1,234 @@
+package com.sproutsocial.metrics.gauges;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+/**
+ * Created on 10/19/26
+ */
+public class AsyncGaugeTest {
+
+    private static void awaitValue(AsyncGauge<?> gauge) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!gauge.hasValue() && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertTrue(gauge.hasValue());
+    }
+
+    @Test
+    public void testReadsDoNotWaitForTheSupplier() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        try (AsyncLongGauge gauge = Gauges.asyncLong(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return 42L;
+        }, Duration.ofSeconds(10))) {
+
+            final long start = System.nanoTime();
+            assertNull(gauge.getValue());
+            assertEquals(0, gauge.getAsLong());
+            assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(100));
+
+            release.countDown();
+            awaitValue(gauge);
+            assertEquals((Long) 42L, gauge.getValue());
+        }
+    }
+
+    @Test
+    public void testRefreshes() throws Exception {
+        final AtomicLong source = new AtomicLong(1);
+        try (AsyncLongGauge gauge = Gauges.asyncLong(source::get, Duration.ofMillis(5))) {
+            awaitValue(gauge);
+            source.set(2);
+
+            final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (gauge.getAsLong() != 2 && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            assertEquals(2, gauge.getAsLong());
+        }
+    }
+
+    @Test
+    public void testRefreshesDoNotOverlap() throws Exception {
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger mostRunning = new AtomicInteger();
+        final ExecutorService readers = Executors.newFixedThreadPool(4);
+        try (AsyncDoubleGauge gauge = Gauges.asyncDouble(() -> {
+            mostRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            running.decrementAndGet();
+            return 1d;
+        }, Duration.ofMillis(1), Duration.ofMillis(1))) {
+            awaitValue(gauge);
+
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                futures.add(readers.submit(() -> {
+                    final long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(200);
+                    while (System.nanoTime() < end) {
+                        assertEquals(1d, gauge.getAsDouble(), 0d);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            readers.shutdownNow();
+        }
+
+        assertEquals(1, mostRunning.get());
+    }
+
+    @Test
+    public void testKeepsLastValueWhenSupplierFails() throws Exception {
+        final AtomicInteger calls = new AtomicInteger();
+        try (AsyncDoubleGauge gauge = Gauges.asyncDouble(() -> {
+            if (calls.incrementAndGet() > 1) {
+                throw new IllegalStateException();
+            }
+            return 0.5;
+        }, Duration.ofMillis(1))) {
+            awaitValue(gauge);
+
+            while (calls.get() < 5) {
+                Thread.sleep(1);
+            }
+            assertEquals(0.5, gauge.getValue(), 0d);
+            assertTrue(gauge.getFailures() >= 3);
+            assertTrue(gauge.getLastFailure() instanceof IllegalStateException);
+        }
+    }
+
+    @Test
+    public void testKeepsRefreshingAfterAnError() throws Exception {
+        final AtomicInteger calls = new AtomicInteger();
+        try (AsyncDoubleGauge gauge = Gauges.asyncDouble(() -> {
+            final int call = calls.incrementAndGet();
+            if (call == 2) {
+                throw new StackOverflowError();
+            }
+            return call < 2 ? 0.5 : 0.75;
+        }, Duration.ofMillis(1))) {
+            awaitValue(gauge);
+
+            final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (gauge.getValue() != 0.75 && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            assertEquals(0.75, gauge.getValue(), 0d);
+            assertEquals(1, gauge.getFailures());
+            assertTrue(gauge.getLastFailure() instanceof StackOverflowError);
+        }
+    }
+
+    @Test
+    public void testStaleReadsQueueOneRefresh() throws Exception {
+        final AtomicInteger calls = new AtomicInteger();
+        final CountDownLatch blocked = new CountDownLatch(2);
+        final CountDownLatch release = new CountDownLatch(1);
+        try (AsyncLongGauge gauge = Gauges.asyncLong(calls::incrementAndGet, Duration.ofMillis(50))) {
+            awaitValue(gauge);
+
+            // tie up both of the scheduler's threads so the gauge falls behind
+            final List<AsyncLongGauge> blockers = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                blockers.add(Gauges.asyncLong(() -> {
+                    blocked.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return 0L;
+                }, Duration.ofHours(1)));
+            }
+            blocked.await();
+            Thread.sleep(100);
+            final int before = calls.get();
+            for (int i = 0; i < 1000; i++) {
+                gauge.getAsLong();
+            }
+
+            release.countDown();
+            Thread.sleep(20);
+            blockers.forEach(AsyncGauge::close);
+            assertTrue("refreshed " + (calls.get() - before) + " times", calls.get() - before < 10);
+        }
+    }
+
+    @Test
+    public void testCloseStopsRefreshing() throws Exception {
+        final AtomicInteger calls = new AtomicInteger();
+        final AsyncLongGauge gauge = Gauges.asyncLong(calls::incrementAndGet, Duration.ofMillis(1));
+        awaitValue(gauge);
+
+        gauge.close();
+        Thread.sleep(20);
+        final int afterClose = calls.get();
+        Thread.sleep(50);
+
+        assertEquals(afterClose, calls.get());
+    }
+
+    @Test
+    public void testRatio() throws Exception {
+        try (AsyncDoubleGauge gauge = Gauges.asyncRatioOf(
+                () -> 1d,
+                () -> 4d,
+                Duration.ofSeconds(1),
+                Duration.ofSeconds(1)
+        )) {
+            awaitValue(gauge);
+            assertEquals(0.25, gauge.getValue(), 0d);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testStalenessBelowInterval() throws Exception {
+        Gauges.asyncDouble(() -> 1d, Duration.ofSeconds(2), Duration.ofSeconds(1));
+    }
+
+    @Test
+    public void testAgeWithoutValue() throws Exception {
+        final CountDownLatch never = new CountDownLatch(1);
+        try (AsyncLongGauge gauge = Gauges.asyncLong(() -> {
+            try {
+                never.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return 1L;
+        }, Duration.ofSeconds(10))) {
+            assertFalse(gauge.hasValue());
+            assertEquals(Long.MAX_VALUE, gauge.getAgeNanos());
+        } finally {
+            never.countDown();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.sproutsocial.metrics.histograms;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Created on 10/19/26
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void testBucketsAreContiguous() throws Exception {
+        for (int i = 0; i < LogLinearBuckets.BUCKET_COUNT - 1; i++) {
+            assertEquals(LogLinearBuckets.upperBound(i), LogLinearBuckets.lowerBound(i + 1));
+            assertEquals(i, LogLinearBuckets.index(LogLinearBuckets.lowerBound(i)));
+            assertEquals(i, LogLinearBuckets.index(LogLinearBuckets.upperBound(i) - 1));
+        }
+    }
+
+    @Test
+    public void testRelativeError() throws Exception {
+        for (long value = 1; value < (1L << LogLinearBuckets.MAX_EXPONENT); value = value * 3 + 1) {
+            final long estimate = LogLinearBuckets.midpoint(LogLinearBuckets.index(value));
+            assertTrue(Math.abs(estimate - value) <= value / LogLinearBuckets.SUB_BUCKET_COUNT);
+        }
+    }
+
+    @Test
+    public void testOutOfRangeValues() throws Exception {
+        assertEquals(0, LogLinearBuckets.index(-5));
+        assertEquals(LogLinearBuckets.BUCKET_COUNT - 1, LogLinearBuckets.index(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testSnapshot() throws Exception {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 100; i++) {
+            histogram.record(i * 1000);
+        }
+
+        final HistogramSnapshot snapshot = histogram.snapshot();
+        assertEquals(100, snapshot.getCount());
+        assertEquals(5050 * 1000, snapshot.getSum());
+        assertEquals(50500d, snapshot.getMean(), 0.001);
+        assertEquals(50000d, snapshot.getValue(0.5), 50000d / 16);
+        assertEquals(99000d, snapshot.getValue(0.99), 99000d / 16);
+        assertTrue(snapshot.getMax() >= 100000);
+        assertTrue(snapshot.getMin() <= 1000);
+    }
+
+    @Test
+    public void testMinus() throws Exception {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(10);
+        histogram.record(1000);
+        final HistogramSnapshot first = histogram.snapshot();
+
+        histogram.record(1000);
+        histogram.record(1_000_000);
+        final HistogramSnapshot interval = histogram.snapshot().minus(first);
+
+        assertEquals(2, interval.getCount());
+        assertEquals(1_001_000, interval.getSum());
+        assertEquals(2, interval.size());
+        assertEquals(LogLinearBuckets.index(1000), interval.bucketIndex(0));
+        assertEquals(1, interval.bucketCount(0));
+        assertEquals(LogLinearBuckets.index(1_000_000), interval.bucketIndex(1));
+
+        assertEquals(0, histogram.snapshot().minus(histogram.snapshot()).getCount());
+    }
+
+    @Test
+    public void testEmpty() throws Exception {
+        final HistogramSnapshot empty = HistogramSnapshot.empty();
+        assertEquals(0, empty.getCount());
+        assertEquals(0, empty.getValue(0.99));
+        assertEquals(0d, empty.getMean(), 0d);
+    }
+
+    @Test
+    public void testByteArrayRoundTrip() throws Exception {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 1000; i++) {
+            histogram.record(i * i * 997);
+        }
+        final HistogramSnapshot snapshot = histogram.snapshot();
+
+        final byte[] bytes = snapshot.toByteArray();
+        final HistogramSnapshot decoded = HistogramSnapshot.fromByteArray(bytes);
+
+        assertTrue(bytes.length < snapshot.size() * 4 + 16);
+        assertSameBuckets(snapshot, decoded);
+        assertEquals(snapshot.getSum(), decoded.getSum());
+        assertEquals(0, HistogramSnapshot.fromByteArray(HistogramSnapshot.empty().toByteArray()).getCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsMalformedBytes() throws Exception {
+        HistogramSnapshot.fromByteArray(new byte[]{2, 0, (byte) 0xFF, (byte) 0xFF, 3, 1});
+    }
+
+    @Test
+    public void testMergeMatchesSingleHistogram() throws Exception {
+        final LatencyHistogram all = new LatencyHistogram();
+        final List<HistogramSnapshot> parts = new ArrayList<>();
+        for (int part = 0; part < 3; part++) {
+            final LatencyHistogram histogram = new LatencyHistogram();
+            for (long i = 1; i <= 500; i++) {
+                final long value = i * 1000 * (part + 1);
+                histogram.record(value);
+                all.record(value);
+            }
+            parts.add(histogram.snapshot());
+        }
+
+        final HistogramSnapshot merged = HistogramSnapshot.merge(parts);
+
+        assertSameBuckets(all.snapshot(), merged);
+        assertEquals(all.snapshot().getSum(), merged.getSum());
+        for (double quantile : new double[]{0.5, 0.9, 0.99, 0.999}) {
+            assertEquals(all.snapshot().getValue(quantile), merged.getValue(quantile));
+        }
+    }
+
+    private static void assertSameBuckets(HistogramSnapshot expected, HistogramSnapshot actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.bucketIndex(i), actual.bucketIndex(i));
+            assertEquals(expected.bucketCount(i), actual.bucketCount(i));
+        }
+    }
+}
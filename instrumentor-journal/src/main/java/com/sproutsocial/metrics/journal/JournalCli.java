@@ -0,0 +1,124 @@
+package com.sproutsocial.metrics.journal;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import com.sproutsocial.metrics.histograms.HistogramSnapshot;
+import com.sproutsocial.metrics.histograms.LatencyHistogram;
+
+/**
+ * Created on 10/19/26
+ *
+ * Replays a call journal into latency percentiles per name.
+ *
+ * <pre>
+ * java -jar instrumentor-journal-&lt;version&gt;-cli.jar journal.bin [--from 2026-10-19T14:00:00Z] [--to 2026-10-19T14:05:00Z] [--prefix com.mycompany]
+ * </pre>
+ *
+ * Calls are included if they started in {@code [from, to)}.
+ */
+public final class JournalCli {
+
+    private static final String USAGE =
+            "usage: JournalCli <journal> [--from <instant>] [--to <instant>] [--prefix <name prefix>]";
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private JournalCli() {}
+
+    public static void main(String[] args) throws IOException {
+        System.exit(run(args, System.out, System.err));
+    }
+
+    /* package */ static int run(String[] args, PrintStream out, PrintStream err) throws IOException {
+        if (args.length == 0 || args.length % 2 == 0) {
+            err.println(USAGE);
+            return 2;
+        }
+        final Path path = Paths.get(args[0]);
+        long from = Long.MIN_VALUE;
+        long to = Long.MAX_VALUE;
+        String prefix = "";
+        for (int i = 1; i < args.length; i += 2) {
+            try {
+                switch (args[i]) {
+                    case "--from":
+                        from = epochNanos(Instant.parse(args[i + 1]));
+                        break;
+                    case "--to":
+                        to = epochNanos(Instant.parse(args[i + 1]));
+                        break;
+                    case "--prefix":
+                        prefix = args[i + 1];
+                        break;
+                    default:
+                        err.println(USAGE);
+                        return 2;
+                }
+            } catch (DateTimeParseException e) {
+                err.println(args[i] + " must be an instant like 2026-10-19T14:00:00Z, was " + args[i + 1]);
+                err.println(USAGE);
+                return 2;
+            }
+        }
+
+        final SortedMap<String, Summary> summaries = summarize(JournalReader.read(path), from, to, prefix);
+        out.printf("%-60s %10s %10s %10s %10s %10s %10s %10s%n",
+                "name", "calls", "errors", "p50_ms", "p90_ms", "p99_ms", "p999_ms", "max_ms");
+        for (Map.Entry<String, Summary> entry : summaries.entrySet()) {
+            final HistogramSnapshot latency = entry.getValue().latency.snapshot();
+            out.printf("%-60s %10d %10d", entry.getKey(), latency.getCount(), entry.getValue().errors);
+            for (double quantile : QUANTILES) {
+                out.printf(" %10.3f", millis(latency.getValue(quantile)));
+            }
+            out.printf(" %10.3f%n", millis(latency.getMax()));
+        }
+        return 0;
+    }
+
+    /**
+     * @return the calls under {@code prefix} that started in {@code [fromEpochNanos, toEpochNanos)}, by name
+     */
+    /* package */ static SortedMap<String, Summary> summarize(
+            List<JournalRecord> records,
+            long fromEpochNanos,
+            long toEpochNanos,
+            String prefix
+    ) {
+        final SortedMap<String, Summary> summaries = new TreeMap<>();
+        for (JournalRecord record : records) {
+            if (record.getStartEpochNanos() < fromEpochNanos ||
+                    record.getStartEpochNanos() >= toEpochNanos ||
+                    !record.getName().startsWith(prefix)) {
+                continue;
+            }
+            final Summary summary = summaries.computeIfAbsent(record.getName(), name -> new Summary());
+            summary.latency.record(record.getDurationNanos());
+            if (record.isError()) {
+                summary.errors++;
+            }
+        }
+        return summaries;
+    }
+
+    private static long epochNanos(Instant instant) {
+        return TimeUnit.SECONDS.toNanos(instant.getEpochSecond()) + instant.getNano();
+    }
+
+    private static double millis(double nanos) {
+        return nanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /* package */ static final class Summary {
+        final LatencyHistogram latency = new LatencyHistogram();
+        long errors;
+    }
+}
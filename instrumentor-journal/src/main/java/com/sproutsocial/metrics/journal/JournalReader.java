@@ -0,0 +1,87 @@
+package com.sproutsocial.metrics.journal;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.sproutsocial.metrics.CallJournal;
+
+/**
+ * Created on 10/19/26
+ *
+ * Reads the records in a {@link CallJournal}, oldest first.
+ *
+ * The journal can be read while it's being written. Records being written
+ * at the time may be skipped or torn, so read a closed journal when it matters.
+ */
+public final class JournalReader {
+
+    private JournalReader() {}
+
+    public static List<JournalRecord> read(Path path) throws IOException {
+        final Map<Integer, String> names = readNames(CallJournal.namesPath(path));
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.capacity() < CallJournal.HEADER_SIZE || buffer.getInt(0) != CallJournal.MAGIC) {
+                throw new IOException(path + " is not a call journal");
+            }
+            if (buffer.getInt(4) != CallJournal.VERSION) {
+                throw new IOException(path + " is journal version " + buffer.getInt(4) +
+                        ", expected " + CallJournal.VERSION);
+            }
+            final int recordSize = buffer.getInt(8);
+            final int capacity = buffer.getInt(12);
+            final long openEpochNanos = TimeUnit.MILLISECONDS.toNanos(buffer.getLong(16));
+            final long openNanos = buffer.getLong(24);
+            if (recordSize < CallJournal.RECORD_SIZE || capacity < 0 ||
+                    CallJournal.HEADER_SIZE + (long) capacity * recordSize > channel.size()) {
+                throw new IOException(path + " is truncated or corrupt, its header has " + capacity +
+                        " records of " + recordSize + " bytes but it's " + channel.size() + " bytes long");
+            }
+
+            final List<JournalRecord> records = new ArrayList<>();
+            for (int i = 0; i < capacity; i++) {
+                final int offset = CallJournal.HEADER_SIZE + i * recordSize;
+                final long sequence = buffer.getLong(offset);
+                if (sequence == 0) {
+                    continue;
+                }
+                final int operationId = buffer.getInt(offset + 8);
+                records.add(new JournalRecord(
+                        sequence,
+                        names.getOrDefault(operationId, "unknown." + operationId),
+                        openEpochNanos + buffer.getLong(offset + 16) - openNanos,
+                        buffer.getLong(offset + 24),
+                        buffer.getInt(offset + 12) == 1,
+                        buffer.getLong(offset + 32)
+                ));
+            }
+            records.sort(Comparator.comparingLong(JournalRecord::getSequence));
+            return records;
+        }
+    }
+
+    private static Map<Integer, String> readNames(Path path) throws IOException {
+        final Map<Integer, String> names = new HashMap<>();
+        if (!Files.exists(path)) {
+            return names;
+        }
+        for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+            final int tab = line.indexOf('\t');
+            if (tab > 0) {
+                names.put(Integer.parseInt(line.substring(0, tab)), line.substring(tab + 1));
+            }
+        }
+        return names;
+    }
+}
@@ -0,0 +1,63 @@
+package com.sproutsocial.metrics.journal;
+
+/**
+ * Created on 10/19/26
+ *
+ * A single call read back from a {@link com.sproutsocial.metrics.CallJournal}.
+ */
+public final class JournalRecord {
+
+    private final long sequence;
+    private final String name;
+    private final long startEpochNanos;
+    private final long durationNanos;
+    private final boolean error;
+    private final long threadId;
+
+    /* package */ JournalRecord(
+            long sequence,
+            String name,
+            long startEpochNanos,
+            long durationNanos,
+            boolean error,
+            long threadId
+    ) {
+        this.sequence = sequence;
+        this.name = name;
+        this.startEpochNanos = startEpochNanos;
+        this.durationNanos = durationNanos;
+        this.error = error;
+        this.threadId = threadId;
+    }
+
+    /**
+     * @return the order the call finished in, starting at 1
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return when the call started, in nanos since the epoch. Derived from
+     * the wall clock when the journal was opened, so it doesn't jump with the clock.
+     */
+    public long getStartEpochNanos() {
+        return startEpochNanos;
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    public boolean isError() {
+        return error;
+    }
+
+    public long getThreadId() {
+        return threadId;
+    }
+}
@@ -0,0 +1,143 @@
+package com.sproutsocial.metrics.journal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.sproutsocial.metrics.CallJournal;
+import com.sproutsocial.metrics.Instrumentor;
+
+/**
+ * Created on 10/19/26
+ */
+public class JournalReaderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path path;
+
+    @Before
+    public void setUp() throws Exception {
+        path = folder.getRoot().toPath().resolve("calls.journal");
+    }
+
+    private void journal(int capacity, int calls) throws Exception {
+        try (CallJournal journal = CallJournal.open(path, capacity)) {
+            final Instrumentor instrumentor = Instrumentor.builder()
+                    .journal(journal)
+                    .build();
+            for (int i = 0; i < calls; i++) {
+                instrumentor.run(() -> {}, i % 2 == 0 ? "com.mycompany.even" : "com.mycompany.odd");
+            }
+            try {
+                instrumentor.run(() -> { throw new RuntimeException(); }, "com.mycompany.failing");
+            } catch (RuntimeException ignored) {}
+        }
+    }
+
+    @Test
+    public void testReadBack() throws Exception {
+        final long before = TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis());
+        journal(100, 10);
+        final long after = TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis() + 1);
+
+        final List<JournalRecord> records = JournalReader.read(path);
+
+        assertEquals(11, records.size());
+        for (int i = 0; i < 10; i++) {
+            final JournalRecord record = records.get(i);
+            assertEquals(i + 1, record.getSequence());
+            assertEquals(i % 2 == 0 ? "com.mycompany.even" : "com.mycompany.odd", record.getName());
+            assertEquals(Thread.currentThread().getId(), record.getThreadId());
+            assertTrue(record.getStartEpochNanos() >= before - TimeUnit.MILLISECONDS.toNanos(1));
+            assertTrue(record.getStartEpochNanos() <= after);
+            assertTrue(record.getDurationNanos() >= 0);
+        }
+        assertEquals("com.mycompany.failing", records.get(10).getName());
+        assertTrue(records.get(10).isError());
+    }
+
+    @Test
+    public void testRingKeepsNewest() throws Exception {
+        journal(8, 20);
+
+        final List<JournalRecord> records = JournalReader.read(path);
+
+        assertEquals(8, records.size());
+        assertEquals(14, records.get(0).getSequence());
+        assertEquals(21, records.get(7).getSequence());
+    }
+
+    @Test
+    public void testSummarizeWindow() throws Exception {
+        journal(100, 10);
+        final List<JournalRecord> records = JournalReader.read(path);
+        final long middle = records.get(5).getStartEpochNanos();
+
+        final SortedMap<String, JournalCli.Summary> all = JournalCli.summarize(records, Long.MIN_VALUE, Long.MAX_VALUE, "");
+        assertEquals(5, all.get("com.mycompany.even").latency.snapshot().getCount());
+        assertEquals(1, all.get("com.mycompany.failing").errors);
+
+        final SortedMap<String, JournalCli.Summary> before = JournalCli.summarize(records, Long.MIN_VALUE, middle, "");
+        final SortedMap<String, JournalCli.Summary> after = JournalCli.summarize(records, middle, Long.MAX_VALUE, "");
+        long total = 0;
+        for (JournalCli.Summary summary : before.values()) {
+            total += summary.latency.snapshot().getCount();
+        }
+        for (JournalCli.Summary summary : after.values()) {
+            total += summary.latency.snapshot().getCount();
+        }
+        assertEquals(11, total);
+
+        assertEquals(1, JournalCli.summarize(records, Long.MIN_VALUE, Long.MAX_VALUE, "com.mycompany.f").size());
+    }
+
+    @Test
+    public void testCli() throws Exception {
+        journal(100, 10);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+        final int status = JournalCli.run(
+                new String[]{path.toString(), "--prefix", "com.mycompany.e"},
+                new PrintStream(out, true, "UTF-8"),
+                new PrintStream(err, true, "UTF-8")
+        );
+
+        assertEquals(0, status);
+        final String[] lines = new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("name"));
+        assertTrue(lines[1].matches("com\\.mycompany\\.even\\s+5\\s+0\\s.*"));
+
+        assertEquals(2, JournalCli.run(new String[]{path.toString(), "--bogus"}, System.out, new PrintStream(err, true, "UTF-8")));
+        assertEquals(2, JournalCli.run(new String[]{path.toString(), "--from", "yesterday"}, System.out, new PrintStream(err, true, "UTF-8")));
+        assertTrue(new String(err.toByteArray(), StandardCharsets.UTF_8).contains("--from must be an instant"));
+    }
+
+    @Test(expected = IOException.class)
+    public void testTruncatedJournal() throws Exception {
+        journal(100, 10);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(CallJournal.HEADER_SIZE + 10 * CallJournal.RECORD_SIZE);
+        }
+
+        JournalReader.read(path);
+    }
+}
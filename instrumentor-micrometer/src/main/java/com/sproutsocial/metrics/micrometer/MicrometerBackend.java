@@ -0,0 +1,213 @@
+package com.sproutsocial.metrics.micrometer;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+import com.sproutsocial.metrics.MetricsBackend;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+
+/**
+ * Created on 10/19/26
+ *
+ * A {@link MetricsBackend} that records straight into a Micrometer
+ * {@link MeterRegistry}, so every call is recorded once, by Micrometer.
+ *
+ * Instrumented names become an {@code operation} tag rather than part of the
+ * meter name, and every meter has the configured common tags. With the default
+ * {@code instrumentor} prefix, for {@code com.mycompany.UserService.getUser}
+ *
+ * - calls are a timer, {@code instrumentor.calls{operation=com.mycompany.UserService.getUser}}
+ * - errors are a counter, {@code instrumentor.errors{operation=...}}
+ * - calls in flight are a gauge, {@code instrumentor.inFlight{operation=...}}
+ * - everything else under the name, like {@code name.timeouts} or {@code name.cache.size},
+ *   is {@code instrumentor.timeouts{operation=...}} or {@code instrumentor.cache.size{operation=...}}
+ *
+ * Micrometer has no health checks, so none are registered.
+ */
+public final class MicrometerBackend implements MetricsBackend {
+
+    /* package */ static final String OPERATION_TAG = "operation";
+    private static final String CALLS = "calls";
+
+    private final MeterRegistry registry;
+    private final String prefix;
+    private final Tags tags;
+    private final Set<String> operations = ConcurrentHashMap.newKeySet();
+    private final ConcurrentMap<String, LongAdder> inFlight = new ConcurrentHashMap<>();
+    private final Set<String> gauges = ConcurrentHashMap.newKeySet();
+
+    private MicrometerBackend(MeterRegistry registry, String prefix, Tags tags) {
+        this.registry = registry;
+        this.prefix = prefix;
+        this.tags = tags;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public MeterRegistry getMeterRegistry() {
+        return registry;
+    }
+
+    @Override
+    public Counter counter(String name) {
+        final LongAdder count = inFlight.computeIfAbsent(name, any -> new LongAdder());
+        final MeterName meterName = meterName(name);
+        Gauge.builder(meterName.name, count, LongAdder::sum)
+                .tags(meterName.tags)
+                .register(registry);
+        return new Counter() {
+            @Override
+            public void inc() {
+                count.increment();
+            }
+
+            @Override
+            public void dec() {
+                count.decrement();
+            }
+
+            @Override
+            public long getCount() {
+                return count.sum();
+            }
+        };
+    }
+
+    @Override
+    public Meter meter(String name) {
+        final MeterName meterName = meterName(name);
+        final io.micrometer.core.instrument.Counter counter = io.micrometer.core.instrument.Counter
+                .builder(meterName.name)
+                .tags(meterName.tags)
+                .register(registry);
+        return new Meter() {
+            @Override
+            public void mark() {
+                counter.increment();
+            }
+
+            @Override
+            public void mark(long n) {
+                counter.increment(n);
+            }
+
+            @Override
+            public long getCount() {
+                return (long) counter.count();
+            }
+        };
+    }
+
+    @Override
+    public Timer timer(String name) {
+        operations.add(name);
+        final io.micrometer.core.instrument.Timer timer = io.micrometer.core.instrument.Timer
+                .builder(prefix + "." + CALLS)
+                .tags(tags.and(OPERATION_TAG, name))
+                .register(registry);
+        return new Timer() {
+            @Override
+            public void update(long nanos) {
+                timer.record(nanos, TimeUnit.NANOSECONDS);
+            }
+
+            @Override
+            public long getCount() {
+                return timer.count();
+            }
+        };
+    }
+
+    @Override
+    public boolean registerGauge(String name, Supplier<? extends Number> gauge) {
+        if (!gauges.add(name)) {
+            return false;
+        }
+        final MeterName meterName = meterName(name);
+        Gauge.builder(meterName.name, gauge, value -> value.get().doubleValue())
+                .tags(meterName.tags)
+                .strongReference(true)
+                .register(registry);
+        return true;
+    }
+
+    @Override
+    public boolean registerHealthCheck(String name, DoubleSupplier value, double ceiling) {
+        return false;
+    }
+
+    /**
+     * Splits {@code name} into the operation it belongs to, the longest prefix of
+     * it that's had a timer, and the rest. Names outside any operation keep their
+     * full name and get no operation tag.
+     */
+    private MeterName meterName(String name) {
+        for (int dot = name.lastIndexOf('.'); dot > 0; dot = name.lastIndexOf('.', dot - 1)) {
+            final String operation = name.substring(0, dot);
+            if (operations.contains(operation)) {
+                return new MeterName(prefix + name.substring(dot), tags.and(OPERATION_TAG, operation));
+            }
+        }
+        return new MeterName(prefix + "." + name, tags);
+    }
+
+    private static final class MeterName {
+        private final String name;
+        private final Tags tags;
+
+        MeterName(String name, Tags tags) {
+            this.name = name;
+            this.tags = tags;
+        }
+    }
+
+    public static class Builder {
+        private MeterRegistry meterRegistry = Metrics.globalRegistry;
+        private String prefix = "instrumentor";
+        private Tags tags = Tags.empty();
+
+        private Builder() {}
+
+        public Builder meterRegistry(MeterRegistry meterRegistry) {
+            this.meterRegistry = meterRegistry;
+            return this;
+        }
+
+        /**
+         * the first part of every meter name, {@code instrumentor} by default
+         */
+        public Builder prefix(String prefix) {
+            this.prefix = prefix;
+            return this;
+        }
+
+        /**
+         * tags to add to every meter, as alternating keys and values
+         */
+        public Builder tags(String... keyValues) {
+            this.tags = tags.and(keyValues);
+            return this;
+        }
+
+        public Builder tags(Iterable<Tag> tags) {
+            this.tags = this.tags.and(tags);
+            return this;
+        }
+
+        public MicrometerBackend build() {
+            return new MicrometerBackend(meterRegistry, prefix, tags);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.sproutsocial.metrics.micrometer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.google.inject.Guice;
+import com.sproutsocial.metrics.InstrumentedAnnotations;
+import com.sproutsocial.metrics.Instrumented;
+import com.sproutsocial.metrics.Instrumentor;
+import com.sproutsocial.metrics.ManualClock;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Created on 10/19/26
+ */
+public class MicrometerBackendTest {
+
+    private static final String NAME = "com.mycompany.UserService.getUser";
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private final MicrometerBackend backend = MicrometerBackend.builder()
+            .meterRegistry(registry)
+            .tags("service", "users")
+            .build();
+
+    public static class UserService {
+        @Instrumented
+        public String getUser(String id) {
+            if (id.isEmpty()) {
+                throw new IllegalArgumentException();
+            }
+            return id;
+        }
+    }
+
+    @Test
+    public void testRecordsCallsErrorsAndLatency() throws Exception {
+        final ManualClock clock = new ManualClock();
+        final Instrumentor instrumentor = Instrumentor.builder()
+                .backend(backend)
+                .clock(clock)
+                .build();
+
+        for (int i = 0; i < 10; i++) {
+            final boolean error = i % 5 == 0;
+            try {
+                instrumentor.run(() -> {
+                    assertEquals(1d, registry.get("instrumentor.inFlight").tag("operation", NAME).gauge().value(), 0d);
+                    clock.advance(10, TimeUnit.MILLISECONDS);
+                    if (error) {
+                        throw new IllegalStateException();
+                    }
+                }, NAME);
+            } catch (IllegalStateException expected) {}
+        }
+
+        final Timer calls = registry.get("instrumentor.calls")
+                .tag("operation", NAME)
+                .tag("service", "users")
+                .timer();
+        assertEquals(10, calls.count());
+        assertEquals(100, calls.totalTime(TimeUnit.MILLISECONDS), 1e-9);
+        assertEquals(2d, registry.get("instrumentor.errors").tag("operation", NAME).counter().count(), 0d);
+        assertEquals(0d, registry.get("instrumentor.inFlight").tag("operation", NAME).gauge().value(), 0d);
+        assertEquals(0.2, registry.get("instrumentor.errors.window_pct").tag("operation", NAME).gauge().value(), 1e-9);
+
+        assertEquals(2, instrumentor.snapshot().getOperation(NAME).get().getErrors());
+        assertTrue(instrumentor.getMetricRegistry().getMetrics().isEmpty());
+    }
+
+    @Test
+    public void testInstrumentedAnnotations() throws Exception {
+        final UserService userService = Guice.createInjector(InstrumentedAnnotations.builder()
+                .backend(backend)
+                .build()
+        ).getInstance(UserService.class);
+
+        userService.getUser("a");
+        try {
+            userService.getUser("");
+        } catch (IllegalArgumentException expected) {}
+
+        final String name = UserService.class.getName() + ".getUser";
+        assertEquals(2, registry.get("instrumentor.calls").tag("operation", name).timer().count());
+        assertEquals(1d, registry.get("instrumentor.errors").tag("operation", name).counter().count(), 0d);
+    }
+
+    @Test
+    public void testNestedOperations() throws Exception {
+        final Instrumentor instrumentor = Instrumentor.builder()
+                .backend(backend)
+                .build();
+        instrumentor.run(() -> {}, "a");
+        instrumentor.run(() -> {}, "a.b");
+
+        assertEquals(1, registry.get("instrumentor.calls").tag("operation", "a").timer().count());
+        assertEquals(1, registry.get("instrumentor.calls").tag("operation", "a.b").timer().count());
+        assertEquals(2, registry.get("instrumentor.errors").counters().size());
+        assertNull(registry.find("instrumentor.b.errors").counter());
+    }
+
+    @Test
+    public void testSharesMetersByName() throws Exception {
+        final Instrumentor first = Instrumentor.builder().backend(backend).build();
+        final Instrumentor second = Instrumentor.builder().backend(backend).build();
+        first.run(() -> {}, NAME);
+        second.run(() -> {}, NAME);
+
+        assertEquals(2, registry.get("instrumentor.calls").tag("operation", NAME).timer().count());
+        assertEquals(1, registry.get("instrumentor.inFlight").gauges().size());
+    }
+}
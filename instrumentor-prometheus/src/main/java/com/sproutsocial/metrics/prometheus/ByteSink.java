@@ -0,0 +1,170 @@
+package com.sproutsocial.metrics.prometheus;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Created on 10/19/26
+ *
+ * A growable byte buffer that is reused between scrapes.
+ *
+ * Numbers are written as ASCII straight into the buffer rather than
+ * going through {@link Long#toString(long)} / {@link Double#toString(double)},
+ * so rendering a scrape does not allocate once the buffer has grown
+ * to its steady state size.
+ */
+/* package */ final class ByteSink {
+
+    private static final int SIGNIFICANT_DIGITS = 9;
+    private static final long SIGNIFICANT_DIGITS_LIMIT = 1_000_000_000L;
+    private static final double LARGEST_EXACT_LONG = 1e15;
+    private static final int MIN_PLAIN_EXPONENT = -5;
+    private static final int MIN_EXPONENT = -300;
+
+    private static final byte[] NAN = ascii("NaN");
+    private static final byte[] POSITIVE_INFINITY = ascii("+Inf");
+    private static final byte[] NEGATIVE_INFINITY = ascii("-Inf");
+    private static final byte[] LONG_MIN_VALUE = ascii(Long.toString(Long.MIN_VALUE));
+
+    private final byte[] digits = new byte[20];
+    private byte[] buffer;
+    private int size;
+
+    ByteSink(int initialCapacity) {
+        this.buffer = new byte[initialCapacity];
+    }
+
+    static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    void reset() {
+        size = 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void writeTo(OutputStream out) throws IOException {
+        out.write(buffer, 0, size);
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(buffer, size);
+    }
+
+    ByteSink write(byte b) {
+        ensureCapacity(1);
+        buffer[size++] = b;
+        return this;
+    }
+
+    ByteSink write(byte[] bytes) {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, size, bytes.length);
+        size += bytes.length;
+        return this;
+    }
+
+    ByteSink writeLong(long value) {
+        if (value == Long.MIN_VALUE) {
+            return write(LONG_MIN_VALUE);
+        }
+        if (value < 0) {
+            write((byte) '-');
+            value = -value;
+        }
+        int position = digits.length;
+        do {
+            digits[--position] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+
+        final int length = digits.length - position;
+        ensureCapacity(length);
+        System.arraycopy(digits, position, buffer, size, length);
+        size += length;
+        return this;
+    }
+
+    /**
+     * writes a double with up to nine significant digits, switching
+     * to exponent notation for very large or very small values
+     */
+    ByteSink writeDouble(double value) {
+        if (Double.isNaN(value)) {
+            return write(NAN);
+        }
+        if (Double.isInfinite(value)) {
+            return write(value > 0 ? POSITIVE_INFINITY : NEGATIVE_INFINITY);
+        }
+        if (value == (long) value && Math.abs(value) < LARGEST_EXACT_LONG) {
+            return writeLong((long) value);
+        }
+        if (value < 0) {
+            write((byte) '-');
+            value = -value;
+        }
+
+        int exponent = (int) Math.floor(Math.log10(value));
+        if (exponent < MIN_EXPONENT) {
+            return write((byte) '0');
+        }
+        long mantissa = Math.round(value / Math.pow(10, exponent - (SIGNIFICANT_DIGITS - 1)));
+        if (mantissa >= SIGNIFICANT_DIGITS_LIMIT) {
+            mantissa /= 10;
+            exponent++;
+        }
+        while (mantissa % 10 == 0) {
+            mantissa /= 10;
+        }
+
+        // significant digits, most significant first
+        int length = 0;
+        for (long remaining = mantissa; remaining != 0; remaining /= 10) {
+            length++;
+        }
+        for (int i = length - 1; i >= 0; i--) {
+            digits[i] = (byte) ('0' + mantissa % 10);
+            mantissa /= 10;
+        }
+
+        ensureCapacity(length + SIGNIFICANT_DIGITS + 2);
+        if (exponent >= 0 && exponent < SIGNIFICANT_DIGITS) {
+            for (int i = 0; i <= exponent || i < length; i++) {
+                if (i == exponent + 1) {
+                    buffer[size++] = '.';
+                }
+                buffer[size++] = i < length ? digits[i] : (byte) '0';
+            }
+        } else if (exponent < 0 && exponent >= MIN_PLAIN_EXPONENT) {
+            buffer[size++] = '0';
+            buffer[size++] = '.';
+            for (int i = exponent + 1; i < 0; i++) {
+                buffer[size++] = '0';
+            }
+            System.arraycopy(digits, 0, buffer, size, length);
+            size += length;
+        } else {
+            buffer[size++] = digits[0];
+            if (length > 1) {
+                buffer[size++] = '.';
+                System.arraycopy(digits, 1, buffer, size, length - 1);
+                size += length - 1;
+            }
+            write((byte) 'e');
+            writeLong(exponent);
+        }
+        return this;
+    }
+
+    private void ensureCapacity(int additional) {
+        final int required = size + additional;
+        if (required > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(required, buffer.length * 2));
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.sproutsocial.metrics.prometheus;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.codahale.metrics.MetricRegistry;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Created on 10/19/26
+ *
+ * Serves the metrics in a {@link MetricRegistry} in the Prometheus
+ * text format from the JDK's built-in {@link HttpServer}.
+ *
+ * Scrapes are handled on a single thread and rendered into
+ * one buffer that is reused for the life of the exporter.
+ */
+public class PrometheusExporter implements Closeable {
+
+    /* package */ static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final PrometheusTextWriter writer;
+
+    private PrometheusExporter(HttpServer server, ExecutorService executor, PrometheusTextWriter writer) {
+        this.server = server;
+        this.executor = executor;
+        this.writer = writer;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return the address the exporter is listening on,
+     * useful when bound to an ephemeral port
+     */
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+        writer.close();
+    }
+
+    private static class ScrapeHandler implements HttpHandler {
+        private final PrometheusTextWriter writer;
+
+        ScrapeHandler(PrometheusTextWriter writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            try {
+                if (!"GET".equals(exchange.getRequestMethod())) {
+                    exchange.sendResponseHeaders(405, -1);
+                    return;
+                }
+                exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+                synchronized (writer) {
+                    final ByteSink sink = writer.render();
+                    exchange.sendResponseHeaders(200, sink.size());
+                    try (OutputStream body = exchange.getResponseBody()) {
+                        sink.writeTo(body);
+                    }
+                }
+            } finally {
+                exchange.close();
+            }
+        }
+    }
+
+    public static class Builder {
+        private MetricRegistry metricRegistry = new MetricRegistry();
+        private InetSocketAddress address = new InetSocketAddress(9404);
+        private String path = "/metrics";
+
+        private Builder() {}
+
+        public Builder metricRegistry(MetricRegistry metricRegistry) {
+            this.metricRegistry = metricRegistry;
+            return this;
+        }
+
+        public Builder port(int port) {
+            this.address = new InetSocketAddress(port);
+            return this;
+        }
+
+        public Builder address(InetSocketAddress address) {
+            this.address = address;
+            return this;
+        }
+
+        public Builder path(String path) {
+            this.path = path;
+            return this;
+        }
+
+        /**
+         * binds the server and starts serving scrapes
+         */
+        public PrometheusExporter start() throws IOException {
+            final PrometheusTextWriter writer = new PrometheusTextWriter(metricRegistry);
+            final HttpServer server = HttpServer.create(address, 0);
+            final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+                final Thread thread = new Thread(runnable, "instrumentor-prometheus-exporter");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+            server.createContext(path, new ScrapeHandler(writer));
+            server.setExecutor(executor);
+            server.start();
+            return new PrometheusExporter(server, executor, writer);
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package com.sproutsocial.metrics.prometheus;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Counting;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.MetricRegistryListener;
+import com.codahale.metrics.Sampling;
+import com.codahale.metrics.Snapshot;
+import com.codahale.metrics.Timer;
+
+/**
+ * Created on 10/19/26
+ *
+ * Renders a {@link MetricRegistry} in the Prometheus text exposition format.
+ *
+ * The writer listens to the registry and builds the encoded name and
+ * label bytes for a metric once, when it's added, so a scrape only has to
+ * copy cached bytes and format numbers into a reused buffer.
+ *
+ * Metrics created by {@link com.sproutsocial.metrics.Instrumentor} are mapped as
+ *
+ * - timers become a {@code summary} in seconds, {@code name_seconds}
+ * - meters, like {@code name.errors}, become a {@code counter}, {@code name_errors_total}
+ * - counters, like {@code name.inFlight}, become a {@code gauge}, since they can go down
+ * - numeric gauges, like {@code name.errors.m1_pct}, become a {@code gauge}
+ *
+ * Summaries have a {@code _sum} as well as a {@code _count}. Metrics timers and
+ * histograms don't keep a sum, so it's the reservoir's mean times the count, an
+ * estimate that follows recent values.
+ *
+ * Names that only differ in characters that aren't allowed in Prometheus, like
+ * {@code a.b} and {@code a_b}, would render as the same family twice, which
+ * Prometheus rejects. The first of them to be added is rendered, and the others
+ * are skipped.
+ *
+ * Non-numeric gauges are skipped. Renders are serialized, the writer is safe
+ * to share but is meant to be owned by a single exporter.
+ */
+public class PrometheusTextWriter implements Closeable {
+
+    private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+    private static final double SECONDS_PER_NANO = 1d / TimeUnit.SECONDS.toNanos(1);
+
+    private static final double[] QUANTILES = {0.5, 0.75, 0.95, 0.98, 0.99, 0.999};
+    private static final String[] QUANTILE_LABELS = {"0.5", "0.75", "0.95", "0.98", "0.99", "0.999"};
+
+    private final MetricRegistry metricRegistry;
+    private final ConcurrentMap<String, Family> families = new ConcurrentHashMap<>();
+    // the registry name that each rendered family name belongs to
+    private final ConcurrentMap<String, String> familyOwners = new ConcurrentHashMap<>();
+    private final Listener listener = new Listener();
+    private final ByteSink sink = new ByteSink(INITIAL_BUFFER_SIZE);
+
+    public PrometheusTextWriter(MetricRegistry metricRegistry) {
+        this.metricRegistry = metricRegistry;
+        metricRegistry.addListener(listener);
+    }
+
+    /**
+     * renders every metric in the registry and writes it to {@code out}
+     */
+    public synchronized void writeTo(OutputStream out) throws IOException {
+        render().writeTo(out);
+    }
+
+    /**
+     * Renders into the shared buffer. Callers must hold the lock on this
+     * writer until they're done with the returned sink.
+     */
+    /* package */ synchronized ByteSink render() {
+        sink.reset();
+        for (Family family : families.values()) {
+            family.write(sink);
+        }
+        return sink;
+    }
+
+    @Override
+    public void close() {
+        metricRegistry.removeListener(listener);
+        families.clear();
+        familyOwners.clear();
+    }
+
+    /**
+     * Prometheus metric names may only contain {@code [a-zA-Z0-9_:]}
+     * and may not start with a digit
+     */
+    /* package */ static String sanitize(String name) {
+        final StringBuilder builder = new StringBuilder(name.length() + 1);
+        if (name.isEmpty() || Character.isDigit(name.charAt(0))) {
+            builder.append('_');
+        }
+        for (int i = 0; i < name.length(); i++) {
+            final char c = name.charAt(i);
+            final boolean valid = (c >= 'a' && c <= 'z') ||
+                    (c >= 'A' && c <= 'Z') ||
+                    (c >= '0' && c <= '9') ||
+                    c == '_' || c == ':';
+            builder.append(valid ? c : '_');
+        }
+        return builder.toString();
+    }
+
+    private static byte[] typeLine(String name, String type) {
+        return ByteSink.ascii("# TYPE " + name + " " + type + "\n");
+    }
+
+    private abstract static class Family {
+        final String name;
+
+        Family(String name) {
+            this.name = name;
+        }
+
+        abstract void write(ByteSink sink);
+    }
+
+    private static class CountingFamily extends Family {
+        private final Counting counting;
+        private final byte[] header;
+        private final byte[] sample;
+
+        CountingFamily(String name, String type, Counting counting) {
+            super(name);
+            this.counting = counting;
+            this.header = typeLine(name, type);
+            this.sample = ByteSink.ascii(name + " ");
+        }
+
+        @Override
+        void write(ByteSink sink) {
+            sink.write(header)
+                    .write(sample)
+                    .writeLong(counting.getCount())
+                    .write((byte) '\n');
+        }
+    }
+
+    private static class GaugeFamily extends Family {
+        private final Gauge<?> gauge;
+        private final byte[] header;
+        private final byte[] sample;
+
+        GaugeFamily(String name, Gauge<?> gauge) {
+            super(name);
+            this.gauge = gauge;
+            this.header = typeLine(name, "gauge");
+            this.sample = ByteSink.ascii(name + " ");
+        }
+
+        @Override
+        void write(ByteSink sink) {
+            final Object value = gauge.getValue();
+            if (!(value instanceof Number)) {
+                return;
+            }
+            sink.write(header)
+                    .write(sample)
+                    .writeDouble(((Number) value).doubleValue())
+                    .write((byte) '\n');
+        }
+    }
+
+    private static class SummaryFamily<T extends Sampling & Counting> extends Family {
+        private final T metric;
+        private final double scale;
+        private final byte[] header;
+        private final byte[][] quantiles;
+        private final byte[] count;
+        private final byte[] sum;
+
+        SummaryFamily(String name, T metric, double scale) {
+            super(name);
+            this.metric = metric;
+            this.scale = scale;
+            this.header = typeLine(name, "summary");
+            this.quantiles = new byte[QUANTILES.length][];
+            for (int i = 0; i < QUANTILES.length; i++) {
+                quantiles[i] = ByteSink.ascii(name + "{quantile=\"" + QUANTILE_LABELS[i] + "\"} ");
+            }
+            this.count = ByteSink.ascii(name + "_count ");
+            this.sum = ByteSink.ascii(name + "_sum ");
+        }
+
+        @Override
+        void write(ByteSink sink) {
+            final Snapshot snapshot = metric.getSnapshot();
+            sink.write(header);
+            for (int i = 0; i < QUANTILES.length; i++) {
+                sink.write(quantiles[i])
+                        .writeDouble(snapshot.getValue(QUANTILES[i]) * scale)
+                        .write((byte) '\n');
+            }
+            final long calls = metric.getCount();
+            sink.write(count)
+                    .writeLong(calls)
+                    .write((byte) '\n');
+            sink.write(sum)
+                    .writeDouble(snapshot.getMean() * calls * scale)
+                    .write((byte) '\n');
+        }
+    }
+
+    private class Listener implements MetricRegistryListener {
+
+        private void add(String name, Family family) {
+            final String owner = familyOwners.putIfAbsent(family.name, name);
+            if (owner == null || owner.equals(name)) {
+                families.put(name, family);
+            }
+        }
+
+        private void remove(String name) {
+            final Family family = families.remove(name);
+            if (family != null) {
+                familyOwners.remove(family.name, name);
+            }
+        }
+
+        @Override
+        public void onGaugeAdded(String name, Gauge<?> gauge) {
+            add(name, new GaugeFamily(sanitize(name), gauge));
+        }
+
+        @Override
+        public void onGaugeRemoved(String name) {
+            remove(name);
+        }
+
+        @Override
+        public void onCounterAdded(String name, Counter counter) {
+            add(name, new CountingFamily(sanitize(name), "gauge", counter));
+        }
+
+        @Override
+        public void onCounterRemoved(String name) {
+            remove(name);
+        }
+
+        @Override
+        public void onHistogramAdded(String name, Histogram histogram) {
+            add(name, new SummaryFamily<>(sanitize(name), histogram, 1d));
+        }
+
+        @Override
+        public void onHistogramRemoved(String name) {
+            remove(name);
+        }
+
+        @Override
+        public void onMeterAdded(String name, Meter meter) {
+            add(name, new CountingFamily(sanitize(name) + "_total", "counter", meter));
+        }
+
+        @Override
+        public void onMeterRemoved(String name) {
+            remove(name);
+        }
+
+        @Override
+        public void onTimerAdded(String name, Timer timer) {
+            add(name, new SummaryFamily<>(sanitize(name) + "_seconds", timer, SECONDS_PER_NANO));
+        }
+
+        @Override
+        public void onTimerRemoved(String name) {
+            remove(name);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.sproutsocial.metrics.prometheus;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.codahale.metrics.MetricRegistry;
+
+/**
+ * Created on 10/19/26
+ */
+public class PrometheusExporterTest {
+
+    private MetricRegistry metricRegistry;
+    private PrometheusExporter exporter;
+
+    @Before
+    public void setUp() throws Exception {
+        metricRegistry = new MetricRegistry();
+        exporter = PrometheusExporter.builder()
+                .metricRegistry(metricRegistry)
+                .address(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))
+                .start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        exporter.close();
+    }
+
+    @Test
+    public void testScrape() throws Exception {
+        metricRegistry.meter("requests.errors").mark(2);
+
+        final HttpURLConnection connection = (HttpURLConnection) new URL(
+                "http", "127.0.0.1", exporter.getAddress().getPort(), "/metrics").openConnection();
+
+        assertEquals(200, connection.getResponseCode());
+        assertEquals(PrometheusExporter.CONTENT_TYPE, connection.getContentType());
+
+        final String body = read(connection.getInputStream());
+        assertTrue(body.contains("requests_errors_total 2\n"));
+        assertEquals(body.length(), connection.getContentLength());
+    }
+
+    private static String read(InputStream in) throws Exception {
+        try (InputStream input = in) {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[4096];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+}
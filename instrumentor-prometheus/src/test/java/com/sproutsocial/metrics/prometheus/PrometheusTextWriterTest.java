@@ -0,0 +1,150 @@
+package com.sproutsocial.metrics.prometheus;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.MetricRegistry;
+import com.sproutsocial.metrics.Instrumentor;
+
+/**
+ * Created on 10/19/26
+ */
+public class PrometheusTextWriterTest {
+
+    private MetricRegistry metricRegistry;
+    private PrometheusTextWriter writer;
+
+    @Before
+    public void setUp() throws Exception {
+        metricRegistry = new MetricRegistry();
+        writer = new PrometheusTextWriter(metricRegistry);
+    }
+
+    private String scrape() throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.writeTo(out);
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testInstrumentorMetrics() throws Exception {
+        final Instrumentor instrumentor = Instrumentor.builder()
+                .metricRegistry(metricRegistry)
+                .build();
+
+        instrumentor.run(() -> {}, "com.mycompany.Example.sayHello");
+        try {
+            instrumentor.run(() -> { throw new RuntimeException(); }, "com.mycompany.Example.sayHello");
+        } catch (RuntimeException ignored) {}
+
+        final String text = scrape();
+
+        assertTrue(text.contains("# TYPE com_mycompany_Example_sayHello_seconds summary\n"));
+        assertTrue(text.contains("com_mycompany_Example_sayHello_seconds{quantile=\"0.99\"} "));
+        assertTrue(text.contains("com_mycompany_Example_sayHello_seconds_count 2\n"));
+        assertTrue(text.contains("com_mycompany_Example_sayHello_seconds_sum "));
+
+        assertTrue(text.contains("# TYPE com_mycompany_Example_sayHello_errors_total counter\n"));
+        assertTrue(text.contains("com_mycompany_Example_sayHello_errors_total 1\n"));
+
+        assertTrue(text.contains("# TYPE com_mycompany_Example_sayHello_inFlight gauge\n"));
+        assertTrue(text.contains("com_mycompany_Example_sayHello_inFlight 0\n"));
+
+        assertTrue(text.contains("# TYPE com_mycompany_Example_sayHello_errors_total_pct gauge\n"));
+        assertTrue(text.contains("com_mycompany_Example_sayHello_errors_total_pct 0.5\n"));
+    }
+
+    @Test
+    public void testRemovedMetricsAreNotRendered() throws Exception {
+        metricRegistry.counter("counter").inc();
+        assertTrue(scrape().contains("counter 1\n"));
+
+        metricRegistry.remove("counter");
+        assertEquals("", scrape());
+    }
+
+    @Test
+    public void testNonNumericGaugesAreSkipped() throws Exception {
+        metricRegistry.register("string", (Gauge<String>) () -> "foo");
+        metricRegistry.register("double", (Gauge<Double>) () -> 0.25d);
+
+        final String text = scrape();
+        assertFalse(text.contains("string"));
+        assertTrue(text.contains("double 0.25\n"));
+    }
+
+    @Test
+    public void testRendersRepeatedly() throws Exception {
+        metricRegistry.meter("meter").mark(3);
+        assertEquals(scrape(), scrape());
+    }
+
+    @Test
+    public void testSummarySum() throws Exception {
+        final Histogram histogram = metricRegistry.histogram("sizes");
+        histogram.update(10);
+        histogram.update(30);
+
+        final String text = scrape();
+        assertTrue(text.contains("sizes_count 2\n"));
+        assertTrue(text.contains("sizes_sum 40\n"));
+    }
+
+    @Test
+    public void testCollidingNamesRenderOnce() throws Exception {
+        metricRegistry.counter("a.b").inc();
+        metricRegistry.counter("a_b").inc(2);
+
+        final String text = scrape();
+        assertEquals(text.indexOf("# TYPE a_b gauge\n"), text.lastIndexOf("# TYPE a_b gauge\n"));
+        assertTrue(text.contains("a_b 1\n"));
+
+        // the name is free again once its owner is removed
+        metricRegistry.remove("a.b");
+        metricRegistry.remove("a_b");
+        metricRegistry.counter("a_b").inc(3);
+        assertEquals("# TYPE a_b gauge\na_b 3\n", scrape());
+    }
+
+    @Test
+    public void testSanitize() throws Exception {
+        assertEquals("a_b_c", PrometheusTextWriter.sanitize("a.b-c"));
+        assertEquals("_1abc", PrometheusTextWriter.sanitize("1abc"));
+        assertEquals("ns:metric_name", PrometheusTextWriter.sanitize("ns:metric_name"));
+    }
+
+    @Test
+    public void testNumberFormatting() throws Exception {
+        assertEquals("0", format(0d));
+        assertEquals("42", format(42d));
+        assertEquals("-7", format(-7d));
+        assertEquals("0.25", format(0.25d));
+        assertEquals("0.0000123456789", format(0.0000123456789d));
+        assertEquals("1.5e-9", format(0.0000000015d));
+        assertEquals("12345.678", format(12345.678d));
+        assertEquals("1.23456789e15", format(1234567890123456.7d));
+        assertEquals("-3.14159265", format(-3.14159265d));
+        assertEquals("1e20", format(1e20d));
+        assertEquals("NaN", format(Double.NaN));
+        assertEquals("+Inf", format(Double.POSITIVE_INFINITY));
+        assertEquals("-Inf", format(Double.NEGATIVE_INFINITY));
+        assertEquals(Long.toString(Long.MIN_VALUE), new String(
+                new ByteSink(1).writeLong(Long.MIN_VALUE).toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    private static String format(double value) {
+        final byte[] bytes = new ByteSink(1).writeDouble(value).toByteArray();
+        assertEquals(value, Double.parseDouble(new String(bytes, StandardCharsets.UTF_8)
+                .replace("+Inf", "Infinity").replace("-Inf", "-Infinity")), Math.abs(value) * 1e-8);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,435 @@
+package com.sproutsocial.metrics.statsd;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricFilter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Sampling;
+import com.codahale.metrics.ScheduledReporter;
+import com.codahale.metrics.Snapshot;
+import com.codahale.metrics.Timer;
+
+/**
+ * Created on 10/19/26
+ *
+ * A {@link ScheduledReporter} that pushes metrics to a StatsD agent over UDP.
+ *
+ * Lines are coalesced into datagrams of up to {@code maxPacketSize} bytes and
+ * written through a non-blocking {@link DatagramChannel} from a single reused
+ * direct buffer. Only metrics that changed since the previous flush are sent:
+ *
+ * - meters, like {@code name.errors}, send the number of marks since the last flush as a counter
+ * - timers and histograms, like {@code name.size}, send {@code name.count} as a counter, and their percentiles as gauges
+ * - counters, like {@code name.inFlight}, and numeric gauges send their value as a gauge
+ *
+ * If the agent's socket buffer is full, datagrams are dropped rather than
+ * blocking the reporter. A metric only counts as sent once the datagram
+ * holding it was written, so what a dropped datagram held is sent again,
+ * counters as the delta since the last datagram that made it.
+ */
+public class StatsdReporter extends ScheduledReporter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StatsdReporter.class);
+
+    /**
+     * fits in a single ethernet frame with room for IP and UDP headers on most networks
+     */
+    public static final int DEFAULT_MAX_PACKET_SIZE = 1432;
+
+    private static final byte[] COUNTER = ascii("|c");
+    private static final byte[] GAUGE = ascii("|g");
+    private static final String[] SAMPLING_SUFFIXES = {
+            "count", "mean", "max", "p50", "p75", "p95", "p99", "p999"
+    };
+
+    private final InetSocketAddress address;
+    private final String prefix;
+    private final ByteBuffer packet;
+    private final StringBuilder value = new StringBuilder(32);
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final List<Entry> unflushed = new ArrayList<>();
+
+    private DatagramChannel channel;
+    private long generation;
+    private long droppedPackets;
+
+    private StatsdReporter(
+            MetricRegistry registry,
+            MetricFilter filter,
+            TimeUnit rateUnit,
+            TimeUnit durationUnit,
+            InetSocketAddress address,
+            String prefix,
+            int maxPacketSize
+    ) {
+        super(registry, "statsd-reporter", filter, rateUnit, durationUnit);
+        this.address = address;
+        this.prefix = prefix;
+        this.packet = ByteBuffer.allocateDirect(maxPacketSize);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return the number of datagrams dropped because the channel could not
+     * take them without blocking
+     */
+    public synchronized long getDroppedPackets() {
+        return droppedPackets;
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public synchronized void report(
+            SortedMap<String, Gauge> gauges,
+            SortedMap<String, Counter> counters,
+            SortedMap<String, Histogram> histograms,
+            SortedMap<String, Meter> meters,
+            SortedMap<String, Timer> timers
+    ) {
+        try {
+            ensureOpen();
+            generation++;
+            for (Map.Entry<String, Gauge> gauge : gauges.entrySet()) {
+                reportGauge(entry(gauge.getKey(), null), gauge.getValue());
+            }
+            for (Map.Entry<String, Counter> counter : counters.entrySet()) {
+                reportCounter(entry(counter.getKey(), null), counter.getValue());
+            }
+            for (Map.Entry<String, Histogram> histogram : histograms.entrySet()) {
+                reportSampling(entry(histogram.getKey(), SAMPLING_SUFFIXES), histogram.getValue().getCount(), histogram.getValue(), false);
+            }
+            for (Map.Entry<String, Meter> meter : meters.entrySet()) {
+                reportMeter(entry(meter.getKey(), null), meter.getValue());
+            }
+            for (Map.Entry<String, Timer> timer : timers.entrySet()) {
+                reportSampling(entry(timer.getKey(), SAMPLING_SUFFIXES), timer.getValue().getCount(), timer.getValue(), true);
+            }
+            flush();
+            removeStaleEntries();
+        } catch (IOException e) {
+            LOG.warn("Unable to report to StatsD at {}", address, e);
+            closeChannel();
+        } finally {
+            packet.clear();
+            unflushed.clear();
+        }
+    }
+
+    @Override
+    public void stop() {
+        super.stop();
+        synchronized (this) {
+            closeChannel();
+        }
+    }
+
+    private void reportGauge(Entry entry, Gauge<?> gauge) throws IOException {
+        final Object gaugeValue = gauge.getValue();
+        if (!(gaugeValue instanceof Number)) {
+            return;
+        }
+        final double current = ((Number) gaugeValue).doubleValue();
+        if (Double.isNaN(current) || Double.isInfinite(current) || current == entry.lastValue) {
+            return;
+        }
+        final long dropped = droppedPackets;
+        if (current < 0) {
+            writeZero(entry.name);
+        }
+        value.setLength(0);
+        value.append(current);
+        writeLine(entry.name, GAUGE);
+        sent(entry, entry.lastCount, current, dropped);
+    }
+
+    private void reportCounter(Entry entry, Counter counter) throws IOException {
+        final long current = counter.getCount();
+        if (current == entry.lastValue) {
+            return;
+        }
+        final long dropped = droppedPackets;
+        if (current < 0) {
+            writeZero(entry.name);
+        }
+        value.setLength(0);
+        value.append(current);
+        writeLine(entry.name, GAUGE);
+        sent(entry, entry.lastCount, current, dropped);
+    }
+
+    private void reportMeter(Entry entry, Meter meter) throws IOException {
+        final long current = meter.getCount();
+        final long delta = current - entry.lastCount;
+        if (delta == 0) {
+            return;
+        }
+        final long dropped = droppedPackets;
+        value.setLength(0);
+        value.append(delta);
+        writeLine(entry.name, COUNTER);
+        sent(entry, current, entry.lastValue, dropped);
+    }
+
+    /**
+     * @param durations whether the samples are nanoseconds to convert to the duration unit
+     */
+    private void reportSampling(Entry entry, long current, Sampling sampling, boolean durations) throws IOException {
+        final long delta = current - entry.lastCount;
+        if (delta == 0) {
+            return;
+        }
+        final long dropped = droppedPackets;
+        value.setLength(0);
+        value.append(delta);
+        writeLine(entry.suffixed[0], COUNTER);
+
+        final Snapshot snapshot = sampling.getSnapshot();
+        writeSample(entry.suffixed[1], snapshot.getMean(), durations);
+        writeSample(entry.suffixed[2], snapshot.getMax(), durations);
+        writeSample(entry.suffixed[3], snapshot.getMedian(), durations);
+        writeSample(entry.suffixed[4], snapshot.get75thPercentile(), durations);
+        writeSample(entry.suffixed[5], snapshot.get95thPercentile(), durations);
+        writeSample(entry.suffixed[6], snapshot.get99thPercentile(), durations);
+        writeSample(entry.suffixed[7], snapshot.get999thPercentile(), durations);
+        sent(entry, current, entry.lastValue, dropped);
+    }
+
+    /**
+     * the new baseline for an entry whose lines were all written to the
+     * current datagram, or ones before it, taken once that datagram is sent.
+     * If a datagram holding some of its lines was already dropped, the
+     * baseline stays so the entry is sent again next time.
+     */
+    private void sent(Entry entry, long count, double lastValue, long dropped) {
+        if (droppedPackets != dropped) {
+            return;
+        }
+        entry.pendingCount = count;
+        entry.pendingValue = lastValue;
+        unflushed.add(entry);
+    }
+
+    /**
+     * StatsD reads a gauge with a sign as a change to its value, so negative
+     * values are sent as zero, then the change down from there
+     */
+    private void writeZero(byte[] name) throws IOException {
+        value.setLength(0);
+        value.append('0');
+        writeLine(name, GAUGE);
+    }
+
+    private void writeSample(byte[] name, double sample, boolean duration) throws IOException {
+        value.setLength(0);
+        value.append(duration ? convertDuration(sample) : sample);
+        writeLine(name, GAUGE);
+    }
+
+    /**
+     * appends {@code name:value|type} to the current datagram,
+     * sending the datagram first if the line doesn't fit
+     */
+    private void writeLine(byte[] name, byte[] type) throws IOException {
+        final int separator = packet.position() == 0 ? 0 : 1;
+        final int length = name.length + value.length() + type.length;
+        if (length > packet.capacity()) {
+            LOG.debug("Dropping a {} byte line that does not fit in a datagram", length);
+            return;
+        }
+        if (packet.position() + separator + length > packet.capacity()) {
+            flush();
+        } else if (separator > 0) {
+            packet.put((byte) '\n');
+        }
+
+        packet.put(name);
+        for (int i = 0; i < value.length(); i++) {
+            packet.put((byte) value.charAt(i));
+        }
+        packet.put(type);
+    }
+
+    private void flush() throws IOException {
+        if (packet.position() == 0) {
+            return;
+        }
+        packet.flip();
+        final boolean written = channel.write(packet) > 0;
+        packet.clear();
+        if (!written) {
+            droppedPackets++;
+            unflushed.clear();
+            return;
+        }
+        for (Entry entry : unflushed) {
+            entry.lastCount = entry.pendingCount;
+            entry.lastValue = entry.pendingValue;
+        }
+        unflushed.clear();
+    }
+
+    private Entry entry(String name, String[] suffixes) {
+        Entry entry = entries.get(name);
+        if (entry == null) {
+            entry = new Entry(prefixed(name), suffixes);
+            entries.put(name, entry);
+        }
+        entry.generation = generation;
+        return entry;
+    }
+
+    private String prefixed(String name) {
+        return prefix == null || prefix.isEmpty() ? name : MetricRegistry.name(prefix, name);
+    }
+
+    private void removeStaleEntries() {
+        final Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().generation != generation) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (channel == null) {
+            channel = DatagramChannel.open();
+            channel.configureBlocking(false);
+            channel.connect(address);
+        }
+    }
+
+    private void closeChannel() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                LOG.debug("Error closing StatsD channel", e);
+            }
+            channel = null;
+        }
+    }
+
+    /**
+     * StatsD uses {@code :}, {@code |}, {@code @} and newlines as delimiters
+     */
+    /* package */ static String sanitize(String name) {
+        final StringBuilder builder = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            final char c = name.charAt(i);
+            final boolean valid = c > ' ' && c < 127 && c != ':' && c != '|' && c != '@';
+            builder.append(valid ? c : '_');
+        }
+        return builder.toString();
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static class Entry {
+        private final byte[] name;
+        private final byte[][] suffixed;
+        private long lastCount;
+        private double lastValue = Double.NaN;
+        private long pendingCount;
+        private double pendingValue = Double.NaN;
+        private long generation;
+
+        Entry(String name, String[] suffixes) {
+            final String sanitized = sanitize(name);
+            this.name = ascii(sanitized + ":");
+            if (suffixes == null) {
+                this.suffixed = null;
+            } else {
+                this.suffixed = new byte[suffixes.length][];
+                for (int i = 0; i < suffixes.length; i++) {
+                    suffixed[i] = ascii(sanitized + "." + suffixes[i] + ":");
+                }
+            }
+        }
+    }
+
+    public static class Builder {
+        private MetricRegistry metricRegistry = new MetricRegistry();
+        private MetricFilter filter = MetricFilter.ALL;
+        private TimeUnit rateUnit = TimeUnit.SECONDS;
+        private TimeUnit durationUnit = TimeUnit.MILLISECONDS;
+        private InetSocketAddress address = new InetSocketAddress("localhost", 8125);
+        private String prefix = null;
+        private int maxPacketSize = DEFAULT_MAX_PACKET_SIZE;
+
+        private Builder() {}
+
+        public Builder metricRegistry(MetricRegistry metricRegistry) {
+            this.metricRegistry = metricRegistry;
+            return this;
+        }
+
+        public Builder filter(MetricFilter filter) {
+            this.filter = filter;
+            return this;
+        }
+
+        public Builder rateUnit(TimeUnit rateUnit) {
+            this.rateUnit = rateUnit;
+            return this;
+        }
+
+        public Builder durationUnit(TimeUnit durationUnit) {
+            this.durationUnit = durationUnit;
+            return this;
+        }
+
+        public Builder address(InetSocketAddress address) {
+            this.address = address;
+            return this;
+        }
+
+        public Builder prefix(String prefix) {
+            this.prefix = prefix;
+            return this;
+        }
+
+        /**
+         * the largest datagram to send, raise this on networks with jumbo frames
+         */
+        public Builder maxPacketSize(int maxPacketSize) {
+            this.maxPacketSize = maxPacketSize;
+            return this;
+        }
+
+        public StatsdReporter build() {
+            return new StatsdReporter(
+                    metricRegistry,
+                    filter,
+                    rateUnit,
+                    durationUnit,
+                    address,
+                    prefix,
+                    maxPacketSize
+            );
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.sproutsocial.metrics.statsd;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.sproutsocial.metrics.Instrumentor;
+
+/**
+ * Created on 10/19/26
+ *
+ * Uses a local UDP socket as a stand-in for the StatsD agent
+ */
+public class StatsdReporterTest {
+
+    private DatagramSocket agent;
+    private MetricRegistry metricRegistry;
+    private Instrumentor instrumentor;
+
+    @Before
+    public void setUp() throws Exception {
+        agent = new DatagramSocket(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        agent.setSoTimeout(200);
+        metricRegistry = new MetricRegistry();
+        instrumentor = Instrumentor.builder()
+                .metricRegistry(metricRegistry)
+                .build();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        agent.close();
+    }
+
+    private StatsdReporter reporter(int maxPacketSize) {
+        return StatsdReporter.builder()
+                .metricRegistry(metricRegistry)
+                .address((InetSocketAddress) agent.getLocalSocketAddress())
+                .prefix("app")
+                .maxPacketSize(maxPacketSize)
+                .build();
+    }
+
+    private List<String> receiveAll() throws Exception {
+        final List<String> datagrams = new ArrayList<>();
+        final byte[] buffer = new byte[65536];
+        while (true) {
+            final DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+            try {
+                agent.receive(packet);
+            } catch (SocketTimeoutException done) {
+                return datagrams;
+            }
+            datagrams.add(new String(packet.getData(), 0, packet.getLength(), StandardCharsets.US_ASCII));
+        }
+    }
+
+    private static List<String> lines(List<String> datagrams) {
+        final List<String> lines = new ArrayList<>();
+        for (String datagram : datagrams) {
+            for (String line : datagram.split("\n")) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+
+    @Test
+    public void testCoalescesLinesIntoOneDatagram() throws Exception {
+        instrumentor.run(() -> {}, "service.op");
+        try {
+            instrumentor.run(() -> { throw new RuntimeException(); }, "service.op");
+        } catch (RuntimeException ignored) {}
+
+        try (StatsdReporter reporter = reporter(StatsdReporter.DEFAULT_MAX_PACKET_SIZE)) {
+            reporter.report();
+        }
+
+        final List<String> datagrams = receiveAll();
+        assertEquals(1, datagrams.size());
+
+        final List<String> lines = lines(datagrams);
+        assertTrue(lines.contains("app.service.op.count:2|c"));
+        assertTrue(lines.contains("app.service.op.errors:1|c"));
+        assertTrue(lines.contains("app.service.op.inFlight:0|g"));
+        assertTrue(lines.contains("app.service.op.errors.total_pct:0.5|g"));
+    }
+
+    @Test
+    public void testSplitsAtMaxPacketSize() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            metricRegistry.counter("counter" + i).inc();
+        }
+
+        try (StatsdReporter reporter = reporter(128)) {
+            reporter.report();
+        }
+
+        final List<String> datagrams = receiveAll();
+        assertTrue(datagrams.size() > 1);
+        for (String datagram : datagrams) {
+            assertTrue(datagram.length() <= 128);
+        }
+        assertEquals(100, lines(datagrams).size());
+    }
+
+    @Test
+    public void testOnlySendsChangedMetrics() throws Exception {
+        metricRegistry.counter("unchanged").inc();
+        metricRegistry.meter("meter").mark(3);
+
+        try (StatsdReporter reporter = reporter(StatsdReporter.DEFAULT_MAX_PACKET_SIZE)) {
+            reporter.report();
+            assertTrue(lines(receiveAll()).contains("app.meter:3|c"));
+
+            metricRegistry.meter("meter").mark(2);
+            reporter.report();
+
+            final List<String> lines = lines(receiveAll());
+            assertEquals(1, lines.size());
+            assertEquals("app.meter:2|c", lines.get(0));
+
+            reporter.report();
+            assertTrue(receiveAll().isEmpty());
+        }
+    }
+
+    @Test
+    public void testSendsHistogramsLikeTimers() throws Exception {
+        metricRegistry.histogram("service.op.size").update(10);
+        metricRegistry.histogram("service.op.size").update(30);
+
+        try (StatsdReporter reporter = reporter(StatsdReporter.DEFAULT_MAX_PACKET_SIZE)) {
+            reporter.report();
+            final List<String> lines = lines(receiveAll());
+            assertTrue(lines.contains("app.service.op.size.count:2|c"));
+            assertTrue(lines.contains("app.service.op.size.max:30.0|g"));
+            assertTrue(lines.contains("app.service.op.size.mean:20.0|g"));
+
+            reporter.report();
+            assertTrue(receiveAll().isEmpty());
+
+            metricRegistry.histogram("service.op.size").update(20);
+            reporter.report();
+            assertTrue(lines(receiveAll()).contains("app.service.op.size.count:1|c"));
+        }
+    }
+
+    @Test
+    public void testNegativeGaugesAreSetNotDecremented() throws Exception {
+        metricRegistry.counter("counter").dec(2);
+        metricRegistry.register("gauge", (Gauge<Double>) () -> -1.5d);
+
+        try (StatsdReporter reporter = reporter(StatsdReporter.DEFAULT_MAX_PACKET_SIZE)) {
+            reporter.report();
+        }
+
+        final List<String> lines = lines(receiveAll());
+        assertEquals(lines.indexOf("app.counter:0|g") + 1, lines.indexOf("app.counter:-2|g"));
+        assertEquals(lines.indexOf("app.gauge:0|g") + 1, lines.indexOf("app.gauge:-1.5|g"));
+        assertTrue(lines.indexOf("app.gauge:0|g") >= 0);
+    }
+
+    @Test
+    public void testSanitize() throws Exception {
+        assertEquals("a_b_c_d", StatsdReporter.sanitize("a:b|c@d"));
+        assertFalse(StatsdReporter.sanitize("a b\nc").contains(" "));
+    }
+}